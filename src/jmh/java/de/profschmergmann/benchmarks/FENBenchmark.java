@@ -0,0 +1,87 @@
+package de.profschmergmann.benchmarks;
+
+import de.profschmergmann.Board;
+import de.profschmergmann.Game;
+import de.profschmergmann.pieces.Piece.PieceColor;
+import de.profschmergmann.players.ComputerPlayer;
+import de.profschmergmann.players.Player;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks reading a board from and writing a board or game to the FEN-Notation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FENBenchmark {
+
+  @Param({BenchmarkPositions.START, BenchmarkPositions.KIWIPETE, BenchmarkPositions.ENDGAME})
+  public String fen;
+
+  private Game game;
+  private Board board;
+  private byte[] bytes;
+  private final StringBuilder builder = new StringBuilder();
+  private final ByteBuffer buffer = ByteBuffer.allocateDirect(256);
+
+  @Setup
+  public void setUp() {
+    this.game = new Game(new Player(PieceColor.W, new ComputerPlayer()),
+        new Player(PieceColor.B, new ComputerPlayer()), this.fen);
+    this.board = new Board();
+    this.bytes = this.fen.getBytes(StandardCharsets.US_ASCII);
+    this.board.setFen(this.fen);
+  }
+
+  @Benchmark
+  public Board parse() {
+    return new Board(this.fen);
+  }
+
+  @Benchmark
+  public long setFen() {
+    this.board.setFen(this.fen);
+    return this.board.getZobristKey();
+  }
+
+  @Benchmark
+  public long setFenFromBytes() {
+    this.board.setFen(this.bytes, 0, this.bytes.length);
+    return this.board.getZobristKey();
+  }
+
+  @Benchmark
+  public String getCurrentGameAsFENRecord() {
+    return this.game.getCurrentGameAsFENRecord();
+  }
+
+  @Benchmark
+  public int writeFen() {
+    this.builder.setLength(0);
+    this.board.writeFen(this.builder);
+    return this.builder.length();
+  }
+
+  @Benchmark
+  public int writeFenToBuffer() {
+    this.buffer.clear();
+    this.board.writeFen(this.buffer);
+    return this.buffer.position();
+  }
+}
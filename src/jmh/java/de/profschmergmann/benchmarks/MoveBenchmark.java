@@ -0,0 +1,62 @@
+package de.profschmergmann.benchmarks;
+
+import de.profschmergmann.Board;
+import de.profschmergmann.Move;
+import de.profschmergmann.Position;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link Board#move(Position, Position)} with a quiet move, a capture and castling
+ * and making and unmaking a capture on the same board.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoveBenchmark {
+
+  private Board board;
+  private int capture;
+
+  @Setup
+  public void setUp() {
+    this.board = new Board(BenchmarkPositions.KIWIPETE);
+    this.board.getAvailableMoves();
+    this.capture = this.board.findMove(new Position('e', 5).square(),
+        new Position('f', 7).square(), null);
+  }
+
+  @Benchmark
+  public Move quietMove() {
+    return new Board(this.board).move(new Position('a', 2), new Position('a', 3));
+  }
+
+  @Benchmark
+  public Move capture() {
+    return new Board(this.board).move(new Position('e', 5), new Position('f', 7));
+  }
+
+  @Benchmark
+  public Move castling() {
+    return new Board(this.board).move(new Position('e', 1), new Position('g', 1));
+  }
+
+  @Benchmark
+  public int makeUnmakeMove() {
+    this.board.makeMove(this.capture);
+    this.board.unmakeMove();
+    return this.board.getUndoSize();
+  }
+}
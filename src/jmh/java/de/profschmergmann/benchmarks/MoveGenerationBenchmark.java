@@ -0,0 +1,54 @@
+package de.profschmergmann.benchmarks;
+
+import de.profschmergmann.Board;
+import de.profschmergmann.Move;
+import de.profschmergmann.MoveList;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the generation of all available moves of a position.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoveGenerationBenchmark {
+
+  @Param({BenchmarkPositions.START, BenchmarkPositions.KIWIPETE, BenchmarkPositions.ENDGAME,
+      BenchmarkPositions.MIDDLEGAME})
+  public String fen;
+
+  private final MoveList moveList = new MoveList();
+  private Board board;
+
+  @Setup
+  public void setUp() {
+    this.board = new Board(this.fen);
+  }
+
+  @Benchmark
+  public HashSet<Move> getAvailableMoves() {
+    // a fresh copy, because the board caches its available moves
+    return new Board(this.board).getAvailableMoves();
+  }
+
+  @Benchmark
+  public int generateMoves() {
+    this.board.generateMoves(this.moveList);
+    return this.moveList.size();
+  }
+}
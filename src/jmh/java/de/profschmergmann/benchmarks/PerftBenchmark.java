@@ -0,0 +1,65 @@
+package de.profschmergmann.benchmarks;
+
+import de.profschmergmann.Board;
+import de.profschmergmann.tools.Perft;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks a perft run and reports the visited leaf nodes as nodes per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PerftBenchmark {
+
+  @Param({BenchmarkPositions.START, BenchmarkPositions.KIWIPETE, BenchmarkPositions.ENDGAME})
+  public String fen;
+
+  @Param({"3"})
+  public int depth;
+
+  private Board board;
+
+  @Setup
+  public void setUp() {
+    this.board = new Board(this.fen);
+  }
+
+  @Benchmark
+  public long perft(Nodes nodes) {
+    var count = Perft.perft(this.board, this.depth);
+    nodes.nodes += count;
+    return count;
+  }
+
+  /**
+   * Counts the leaf nodes, which JMH reports as a rate next to the operations.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class Nodes {
+
+    public long nodes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      this.nodes = 0;
+    }
+  }
+}
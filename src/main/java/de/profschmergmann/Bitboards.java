@@ -0,0 +1,170 @@
+package de.profschmergmann;
+
+import de.profschmergmann.pieces.Piece.PieceColor;
+
+/**
+ * Constants and precomputed attack tables for the 64-bit board representation.
+ * <p>
+ * Squares are numbered from a1 = 0 to h8 = 63, so square {@code (rank - 1) * 8 + (file - 'a')}
+ * is represented by the bit with the same index.
+ */
+public final class Bitboards {
+
+  public static final long FILE_A = 0x0101010101010101L;
+  public static final long FILE_B = FILE_A << 1;
+  public static final long FILE_G = FILE_A << 6;
+  public static final long FILE_H = FILE_A << 7;
+  public static final long RANK_1 = 0xFFL;
+  public static final long RANK_2 = RANK_1 << 8;
+  public static final long RANK_3 = RANK_1 << 16;
+  public static final long RANK_4 = RANK_1 << 24;
+  public static final long RANK_5 = RANK_1 << 32;
+  public static final long RANK_6 = RANK_1 << 40;
+  public static final long RANK_7 = RANK_1 << 48;
+  public static final long RANK_8 = RANK_1 << 56;
+
+  /**
+   * Squares attacked by a knight standing on the indexed square.
+   */
+  public static final long[] KNIGHT_ATTACKS = new long[64];
+  /**
+   * Squares attacked by a king standing on the indexed square.
+   */
+  public static final long[] KING_ATTACKS = new long[64];
+  /**
+   * Squares attacked by a pawn, indexed by {@link PieceColor#ordinal()} and square.
+   */
+  public static final long[][] PAWN_ATTACKS = new long[2][64];
+  /**
+   * Squares strictly between two squares on a common rank, file or diagonal, indexed by both
+   * squares. Squares without a common line have no squares between them.
+   */
+  public static final long[][] BETWEEN = new long[64][64];
+  /**
+   * The whole rank, file or diagonal through two squares, indexed by both squares. Squares
+   * without a common line have an empty line.
+   */
+  public static final long[][] LINE = new long[64][64];
+  private static final int[][] DIRECTIONS = {{1, 0}, {1, 1}, {0, 1}, {-1, 1}};
+
+  static {
+    for (var square = 0; square < 64; square++) {
+      var bit = 1L << square;
+      KNIGHT_ATTACKS[square] = (bit << 17 & ~FILE_A) | (bit << 15 & ~FILE_H)
+          | (bit << 10 & ~(FILE_A | FILE_B)) | (bit << 6 & ~(FILE_G | FILE_H))
+          | (bit >>> 17 & ~FILE_H) | (bit >>> 15 & ~FILE_A)
+          | (bit >>> 10 & ~(FILE_G | FILE_H)) | (bit >>> 6 & ~(FILE_A | FILE_B));
+      KING_ATTACKS[square] = (bit << 8) | (bit >>> 8)
+          | ((bit << 1 | bit << 9 | bit >>> 7) & ~FILE_A)
+          | ((bit >>> 1 | bit >>> 9 | bit << 7) & ~FILE_H);
+      PAWN_ATTACKS[PieceColor.W.ordinal()][square] = (bit << 9 & ~FILE_A) | (bit << 7 & ~FILE_H);
+      PAWN_ATTACKS[PieceColor.B.ordinal()][square] =
+          (bit >>> 7 & ~FILE_A) | (bit >>> 9 & ~FILE_H);
+      for (var direction : DIRECTIONS) {
+        var line = bit | ray(square, direction[0], direction[1])
+            | ray(square, -direction[0], -direction[1]);
+        initLine(square, line, direction[0], direction[1]);
+        initLine(square, line, -direction[0], -direction[1]);
+      }
+    }
+  }
+
+  private Bitboards() {
+  }
+
+  /**
+   * Computes the squares from a square to the edge of the board in one direction.
+   */
+  private static long ray(int square, int fileStep, int rankStep) {
+    var ray = 0L;
+    var file = fileOf(square) + fileStep;
+    var rank = rankOf(square) + rankStep;
+    while (file >= 0 && file < 8 && rank >= 0 && rank < 8) {
+      ray |= 1L << (rank * 8 + file);
+      file += fileStep;
+      rank += rankStep;
+    }
+    return ray;
+  }
+
+  /**
+   * Fills {@link #BETWEEN} and {@link #LINE} for all squares in one direction of a square.
+   */
+  private static void initLine(int square, long line, int fileStep, int rankStep) {
+    var between = 0L;
+    var file = fileOf(square) + fileStep;
+    var rank = rankOf(square) + rankStep;
+    while (file >= 0 && file < 8 && rank >= 0 && rank < 8) {
+      var target = rank * 8 + file;
+      BETWEEN[square][target] = between;
+      LINE[square][target] = line;
+      between |= 1L << target;
+      file += fileStep;
+      rank += rankStep;
+    }
+  }
+
+  /**
+   * Computes the square index of the given file and rank.
+   *
+   * @param file the file between 'a' and 'h'
+   * @param rank the rank between 1 and 8
+   * @return the square index between 0 and 63
+   */
+  public static int square(char file, int rank) {
+    return (rank - 1) * 8 + (file - 'a');
+  }
+
+  /**
+   * Returns the file of a square index, 0 for the a-file up to 7 for the h-file.
+   *
+   * @param square the square index
+   * @return the file index
+   */
+  public static int fileOf(int square) {
+    return square & 7;
+  }
+
+  /**
+   * Returns the rank of a square index, 0 for the first rank up to 7 for the eighth rank.
+   *
+   * @param square the square index
+   * @return the rank index
+   */
+  public static int rankOf(int square) {
+    return square >>> 3;
+  }
+
+  /**
+   * Computes the squares attacked by a rook on the given square with one magic table lookup.
+   *
+   * @param square   the square of the rook
+   * @param occupied all occupied squares, which block the rays
+   * @return the attacked squares including the first blocker of every ray
+   */
+  public static long rookAttacks(int square, long occupied) {
+    return Magics.rookAttacks(square, occupied);
+  }
+
+  /**
+   * Computes the squares attacked by a bishop on the given square with one magic table lookup.
+   *
+   * @param square   the square of the bishop
+   * @param occupied all occupied squares, which block the rays
+   * @return the attacked squares including the first blocker of every ray
+   */
+  public static long bishopAttacks(int square, long occupied) {
+    return Magics.bishopAttacks(square, occupied);
+  }
+
+  /**
+   * Computes the squares attacked by a queen on the given square.
+   *
+   * @param square   the square of the queen
+   * @param occupied all occupied squares, which block the rays
+   * @return the attacked squares including the first blocker of every ray
+   */
+  public static long queenAttacks(int square, long occupied) {
+    return Magics.rookAttacks(square, occupied) | Magics.bishopAttacks(square, occupied);
+  }
+}
@@ -9,6 +9,10 @@ import de.profschmergmann.pieces.Piece.PieceColor;
 import de.profschmergmann.pieces.Piece.PieceType;
 import de.profschmergmann.pieces.Queen;
 import de.profschmergmann.pieces.Rook;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -17,28 +21,128 @@ import java.util.logging.Logger;
 
 public class Board {
 
+  /**
+   * Marks an empty square in the mailbox of the board.
+   */
+  public static final int EMPTY = -1;
+  /**
+   * Marks that there is no en passant square.
+   */
+  public static final int NO_SQUARE = -1;
+  public static final int WHITE_KING_SIDE = 1;
+  public static final int WHITE_QUEEN_SIDE = 2;
+  public static final int BLACK_KING_SIDE = 4;
+  public static final int BLACK_QUEEN_SIDE = 8;
+  private static final int UNDO_CAPACITY = 256;
+  /**
+   * Largest half move clock of a FEN record, the clock is packed into 17 bits of the undo state.
+   */
+  private static final int MAX_HALF_MOVES = 0xFFFF;
+  /**
+   * Debug mode, enabled with {@code -Dschachki.verifyHash=true}, which compares the incrementally
+   * updated Zobrist key with a full recomputation after every move.
+   */
+  private static final boolean VERIFY_HASH = Boolean.getBoolean("schachki.verifyHash");
   private static final Logger LOGGER = Logger.getLogger(Board.class.getName());
-  private final HashMap<Position, HashSet<Piece>> squaresUnderAttack;
-  private final HashMap<Position, Piece> positions;
-  private Position enPassant;
+  private static final PieceType[] PIECE_TYPES = PieceType.values();
+  private static final PieceColor[] PIECE_COLORS = PieceColor.values();
+  private static final int WHITE = PieceColor.W.ordinal();
+  private static final int PAWN = PieceType.PAWN.ordinal();
+  private static final int KING = PieceType.KING.ordinal();
+  private static final int QUEEN = PieceType.QUEEN.ordinal();
+  private static final int ROOK = PieceType.ROOK.ordinal();
+  private static final int BISHOP = PieceType.BISHOP.ordinal();
+  private static final int KNIGHT = PieceType.KNIGHT.ordinal();
+  /**
+   * Castling rights which stay untouched if a piece moves from or to the indexed square.
+   */
+  private static final int[] CASTLING_MASK = new int[64];
+  /**
+   * The FEN characters of the pieces indexed by piece code, see {@link #pieceCode}.
+   */
+  private static final String PIECE_CHARACTERS = "pPkKqQrRbBnN";
+  /**
+   * Maximum length of a FEN record written by this board, which includes move counters with
+   * up to ten digits.
+   */
+  private static final int MAX_FEN_LENGTH = 128;
+
+  static {
+    Arrays.fill(CASTLING_MASK, 15);
+    CASTLING_MASK[Bitboards.square('a', 1)] &= ~WHITE_QUEEN_SIDE;
+    CASTLING_MASK[Bitboards.square('e', 1)] &= ~(WHITE_KING_SIDE | WHITE_QUEEN_SIDE);
+    CASTLING_MASK[Bitboards.square('h', 1)] &= ~WHITE_KING_SIDE;
+    CASTLING_MASK[Bitboards.square('a', 8)] &= ~BLACK_QUEEN_SIDE;
+    CASTLING_MASK[Bitboards.square('e', 8)] &= ~(BLACK_KING_SIDE | BLACK_QUEEN_SIDE);
+    CASTLING_MASK[Bitboards.square('h', 8)] &= ~BLACK_KING_SIDE;
+  }
+
+  /**
+   * One bitboard per piece code, see {@link #pieceCode(PieceType, PieceColor)}.
+   */
+  private final long[] pieceBitboards;
+  /**
+   * One bitboard per team, indexed by {@link PieceColor#ordinal()}.
+   */
+  private final long[] teamBitboards;
+  /**
+   * Piece code for every square or {@link #EMPTY}.
+   */
+  private final int[] squares;
+  /**
+   * Scratch list for the conversion of encoded moves into {@link Move} records.
+   */
+  private final MoveList moveList = new MoveList();
+  private long occupied;
+  private int castlingRights;
+  private int enPassantSquare;
   private PieceColor currentTeam;
-  private boolean whiteCanCastleKingSide;
-  private boolean whiteCanCastleQueenSide;
-  private boolean blackCanCastleKingSide;
-  private boolean blackCanCastleQueenSide;
   private int halfMoves;
   private int fullMoves;
+  /**
+   * Moves performed with {@link #makeMove(int)} and the packed state before each of them.
+   */
+  private int[] undoMoves;
+  private int[] undoStates;
+  private long[] undoHashes;
+  private int undoSize;
+  private long hash;
+  /**
+   * Zobrist key of the pawns only, which changes rarely and identifies the pawn structure.
+   */
+  private long pawnKey;
+  /**
+   * Sums of the {@link PieceSquareTables} of all pieces and the game phase, which are updated
+   * incrementally like the hash.
+   */
+  private int midgame;
+  private int endgame;
+  private int phase;
+  /**
+   * Squares attacked by each team, indexed by {@link PieceColor#ordinal()}. The maps are computed
+   * lazily when they are needed after the pieces changed, see {@link #validAttackMaps}.
+   */
+  private final long[] attackMaps = new long[2];
+  /**
+   * Bit set of the teams whose attack map is up to date.
+   */
+  private int validAttackMaps;
+  /**
+   * Buffer the FEN record is encoded into before it is written, see {@link #encodeFen()}.
+   */
+  private final byte[] fenBuffer = new byte[MAX_FEN_LENGTH];
+  private HashMap<Position, Piece> positions;
   private HashSet<Move> availableMoves;
-  private int movesGeneratorCounter;
-  private boolean whiteChecked;
-  private boolean blackChecked;
-  private Position posKingW;
-  private Position posKingB;
 
   //region Constructors
   public Board() {
-    this.positions = new HashMap<>();
-    this.squaresUnderAttack = new HashMap<>();
+    this.pieceBitboards = new long[12];
+    this.teamBitboards = new long[2];
+    this.squares = new int[64];
+    this.undoMoves = new int[UNDO_CAPACITY];
+    this.undoStates = new int[UNDO_CAPACITY];
+    this.undoHashes = new long[UNDO_CAPACITY];
+    this.clear();
     this.initBoard();
     LOGGER.log(Level.FINE, "Initialized new chess starting board.");
   }
@@ -50,20 +154,60 @@ public class Board {
    *                         created
    */
   public Board(String FENRecordFigures) {
-    this.positions = new HashMap<>();
-    this.squaresUnderAttack = new HashMap<>();
-    this.initBoard(FENRecordFigures);
-    LOGGER.log(Level.FINE, "Initialized new chess board with record: " + FENRecordFigures);
+    this.pieceBitboards = new long[12];
+    this.teamBitboards = new long[2];
+    this.squares = new int[64];
+    this.undoMoves = new int[UNDO_CAPACITY];
+    this.undoStates = new int[UNDO_CAPACITY];
+    this.undoHashes = new long[UNDO_CAPACITY];
+    this.setFen(FENRecordFigures);
+    LOGGER.log(Level.FINE, "Initialized new chess board with record: {0}", FENRecordFigures);
+  }
+
+  /**
+   * Copy constructor which produces an independent board with the same state.
+   *
+   * @param other the board to copy
+   */
+  public Board(Board other) {
+    this.pieceBitboards = other.pieceBitboards.clone();
+    this.teamBitboards = other.teamBitboards.clone();
+    this.squares = other.squares.clone();
+    this.occupied = other.occupied;
+    this.castlingRights = other.castlingRights;
+    this.enPassantSquare = other.enPassantSquare;
+    this.currentTeam = other.currentTeam;
+    this.halfMoves = other.halfMoves;
+    this.fullMoves = other.fullMoves;
+    this.undoMoves = other.undoMoves.clone();
+    this.undoStates = other.undoStates.clone();
+    this.undoHashes = other.undoHashes.clone();
+    this.undoSize = other.undoSize;
+    this.hash = other.hash;
+    this.pawnKey = other.pawnKey;
+    this.midgame = other.midgame;
+    this.endgame = other.endgame;
+    this.phase = other.phase;
   }
   //endregion
 
   //region Getters and Setters
   /**
-   * Returns all positions.
+   * Returns all positions as a view on the bitboards. The map is rebuilt after the board changed
+   * and modifying it has no effect on the board.
    *
    * @return the positions as HashMap.
    */
   public HashMap<Position, Piece> getPositions() {
+    if (this.positions == null) {
+      var map = new HashMap<Position, Piece>();
+      for (var square = 0; square < 64; square++) {
+        if (this.squares[square] != EMPTY) {
+          map.put(Position.of(square), this.createPiece(this.squares[square]));
+        }
+      }
+      this.positions = map;
+    }
     return this.positions;
   }
 
@@ -83,6 +227,8 @@ public class Board {
    */
   public void setCurrentTeam(PieceColor currentTeam) {
     this.currentTeam = currentTeam;
+    this.hash = this.computeZobristKey();
+    this.changed();
   }
 
   /**
@@ -91,7 +237,7 @@ public class Board {
    * @return can white castle kingside
    */
   public boolean canWhiteCastleKingSide() {
-    return this.whiteCanCastleKingSide;
+    return (this.castlingRights & WHITE_KING_SIDE) != 0;
   }
 
   /**
@@ -100,7 +246,7 @@ public class Board {
    * @param whiteCanCastleKingSide can white castle kingside
    */
   public void setWhiteCanCastleKingSide(boolean whiteCanCastleKingSide) {
-    this.whiteCanCastleKingSide = whiteCanCastleKingSide;
+    this.setCastlingRight(WHITE_KING_SIDE, whiteCanCastleKingSide);
   }
 
   /**
@@ -109,7 +255,7 @@ public class Board {
    * @return can white castle queenside
    */
   public boolean canWhiteCastleQueenSide() {
-    return this.whiteCanCastleQueenSide;
+    return (this.castlingRights & WHITE_QUEEN_SIDE) != 0;
   }
 
   /**
@@ -118,7 +264,7 @@ public class Board {
    * @param whiteCanCastleQueenSide can white castle queenside
    */
   public void setWhiteCanCastleQueenSide(boolean whiteCanCastleQueenSide) {
-    this.whiteCanCastleQueenSide = whiteCanCastleQueenSide;
+    this.setCastlingRight(WHITE_QUEEN_SIDE, whiteCanCastleQueenSide);
   }
 
   /**
@@ -127,7 +273,7 @@ public class Board {
    * @return can black castle kingside
    */
   public boolean canBlackCastleKingSide() {
-    return this.blackCanCastleKingSide;
+    return (this.castlingRights & BLACK_KING_SIDE) != 0;
   }
 
   /**
@@ -136,7 +282,7 @@ public class Board {
    * @param blackCanCastleKingSide can black castle kingside
    */
   public void setBlackCanCastleKingSide(boolean blackCanCastleKingSide) {
-    this.blackCanCastleKingSide = blackCanCastleKingSide;
+    this.setCastlingRight(BLACK_KING_SIDE, blackCanCastleKingSide);
   }
 
   /**
@@ -145,7 +291,7 @@ public class Board {
    * @return can black castle queenside
    */
   public boolean canBlackCastleQueenSide() {
-    return this.blackCanCastleQueenSide;
+    return (this.castlingRights & BLACK_QUEEN_SIDE) != 0;
   }
 
   /**
@@ -154,7 +300,17 @@ public class Board {
    * @param blackCanCastleQueenSide can black castle queenside
    */
   public void setBlackCanCastleQueenSide(boolean blackCanCastleQueenSide) {
-    this.blackCanCastleQueenSide = blackCanCastleQueenSide;
+    this.setCastlingRight(BLACK_QUEEN_SIDE, blackCanCastleQueenSide);
+  }
+
+  /**
+   * Getter for the castling rights as a combination of {@link #WHITE_KING_SIDE},
+   * {@link #WHITE_QUEEN_SIDE}, {@link #BLACK_KING_SIDE} and {@link #BLACK_QUEEN_SIDE}.
+   *
+   * @return the castling rights
+   */
+  public int getCastlingRights() {
+    return this.castlingRights;
   }
 
   /**
@@ -196,10 +352,10 @@ public class Board {
   /**
    * Checks weather an enPassant is possible.
    *
-   * @return true if {@link this#enPassant} is set, else false
+   * @return true if {@link this#enPassantSquare} is set, else false
    */
   public boolean enPassantPossible() {
-    return this.enPassant != null;
+    return this.enPassantSquare != NO_SQUARE;
   }
 
   /**
@@ -208,7 +364,7 @@ public class Board {
    * @return the position of enPassant.
    */
   public Position getEnPassant() {
-    return this.enPassant;
+    return this.enPassantPossible() ? Position.of(this.enPassantSquare) : null;
   }
 
   /**
@@ -217,70 +373,423 @@ public class Board {
    * @param position the position of enPassant
    */
   public void setEnPassant(Position position) {
-    this.enPassant = position;
+    this.enPassantSquare = position != null ? position.square() : NO_SQUARE;
+    this.hash = this.computeZobristKey();
+    this.changed();
+  }
+
+  /**
+   * Getter for the enPassant square index.
+   *
+   * @return the square index of enPassant or {@link #NO_SQUARE}
+   */
+  public int getEnPassantSquare() {
+    return this.enPassantSquare;
+  }
+
+  /**
+   * Getter for the bitboard of all pieces with the given type and color.
+   *
+   * @param pieceType  the type of the pieces
+   * @param pieceColor the color of the pieces
+   * @return the bitboard
+   */
+  public long getBitboard(PieceType pieceType, PieceColor pieceColor) {
+    return this.pieceBitboards[pieceCode(pieceType, pieceColor)];
+  }
+
+  /**
+   * Getter for the bitboard of all pieces of the given team.
+   *
+   * @param pieceColor the team
+   * @return the bitboard
+   */
+  public long getTeamBitboard(PieceColor pieceColor) {
+    return this.teamBitboards[pieceColor.ordinal()];
+  }
+
+  /**
+   * Getter for the bitboard of all occupied squares.
+   *
+   * @return the bitboard
+   */
+  public long getOccupied() {
+    return this.occupied;
+  }
+
+  /**
+   * Getter for the Zobrist key of the current position, which is updated with every move.
+   *
+   * @return the Zobrist key
+   */
+  public long getZobristKey() {
+    return this.hash;
+  }
+
+  /**
+   * Getter for the Zobrist key of the pawns, which is updated with every move.
+   *
+   * @return the pawn key
+   */
+  public long getPawnKey() {
+    return this.pawnKey;
+  }
+
+  /**
+   * Getter for the middlegame score of all pieces by the {@link PieceSquareTables}.
+   *
+   * @return the score in centipawns from the view of white
+   */
+  public int getMidgameScore() {
+    return this.midgame;
+  }
+
+  /**
+   * Getter for the endgame score of all pieces by the {@link PieceSquareTables}.
+   *
+   * @return the score in centipawns from the view of white
+   */
+  public int getEndgameScore() {
+    return this.endgame;
+  }
+
+  /**
+   * Getter for the game phase, the sum of the phase weights of all pieces.
+   *
+   * @return the phase, {@link PieceSquareTables#MAX_PHASE} in the starting position
+   */
+  public int getPhase() {
+    return this.phase;
+  }
+
+  /**
+   * Returns the piece code on the given square.
+   *
+   * @param square the square index
+   * @return the piece code or {@link #EMPTY}
+   */
+  public int getPieceCode(int square) {
+    return this.squares[square];
   }
 
   //endregion
 
   //region Initializers
   /**
-   * Method which produces a chess field with a string decoded in FEN-Notation.
+   * Replaces the whole board state with the position of a FEN record. Besides the piece placement
+   * the optional fields for the current team, castling, en passant and the move counters are read
+   * as well, missing fields keep their defaults. The record is parsed in a single pass without
+   * allocations, so many positions can be loaded into the same board.
    *
-   * @param FENRecordFigures the FEN-notation string, if null or empty an initial board will be
-   *                         created
+   * @param fen the FEN record, if null or blank the starting position is set
+   * @throws IllegalArgumentException if the piece placement, the current team or a move counter
+   *                                  is invalid
+   */
+  public void setFen(CharSequence fen) {
+    if (fen == null) {
+      this.clear();
+      this.initBoard();
+    } else {
+      this.parseFen(fen, null, 0, fen.length());
+    }
+  }
+
+  /**
+   * Replaces the whole board state with the position of a FEN record stored as ASCII bytes, see
+   * {@link #setFen(CharSequence)}.
+   *
+   * @param buffer the buffer containing the record
+   * @param start  the index of the first byte of the record
+   * @param end    the index after the last byte of the record
+   * @throws IllegalArgumentException if the piece placement, the current team or a move counter
+   *                                  is invalid
+   */
+  public void setFen(byte[] buffer, int start, int end) {
+    this.parseFen(null, buffer, start, end);
+  }
+
+  /**
+   * Replaces the whole board state with the state of another board, like the copy constructor
+   * does, but reuses the arrays of this board as long as the history of the other board fits.
+   *
+   * @param other the board to copy
+   */
+  public void copyFrom(Board other) {
+    System.arraycopy(other.pieceBitboards, 0, this.pieceBitboards, 0, 12);
+    System.arraycopy(other.teamBitboards, 0, this.teamBitboards, 0, 2);
+    System.arraycopy(other.squares, 0, this.squares, 0, 64);
+    this.occupied = other.occupied;
+    this.castlingRights = other.castlingRights;
+    this.enPassantSquare = other.enPassantSquare;
+    this.currentTeam = other.currentTeam;
+    this.halfMoves = other.halfMoves;
+    this.fullMoves = other.fullMoves;
+    if (this.undoMoves.length < other.undoSize) {
+      this.undoMoves = new int[other.undoMoves.length];
+      this.undoStates = new int[other.undoStates.length];
+      this.undoHashes = new long[other.undoHashes.length];
+    }
+    System.arraycopy(other.undoMoves, 0, this.undoMoves, 0, other.undoSize);
+    System.arraycopy(other.undoStates, 0, this.undoStates, 0, other.undoSize);
+    System.arraycopy(other.undoHashes, 0, this.undoHashes, 0, other.undoSize);
+    this.undoSize = other.undoSize;
+    this.hash = other.hash;
+    this.pawnKey = other.pawnKey;
+    this.midgame = other.midgame;
+    this.endgame = other.endgame;
+    this.phase = other.phase;
+    this.validAttackMaps = 0;
+    this.positions = null;
+    this.availableMoves = null;
+  }
+
+  /**
+   * Parses a FEN record from either a character sequence or a byte range.
+   *
+   * @param chars the characters of the record or null if the bytes are given
+   * @param bytes the bytes of the record or null if the characters are given
+   * @param start the index of the first character
+   * @param end   the index after the last character
    */
-  private void initBoard(String FENRecordFigures) {
-    if (FENRecordFigures == null || FENRecordFigures.isEmpty()) {
-      new Board();
+  private void parseFen(CharSequence chars, byte[] bytes, int start, int end) {
+    this.clear();
+    var i = skipSpaces(chars, bytes, start, end);
+    if (i == end) {
+      this.initBoard();
       return;
     }
-    var lines = FENRecordFigures.split("/");
-    for (var i = 0; i < 8; i++) {
-      char c = 'a';
-      for (var j = 0; j < lines[i].length(); j++, c++) {
-        var pos = new Position(c, 8 - i);
-        if (String.valueOf(lines[i].charAt(j)).matches("\\d")) {
-          var v = Integer.parseInt(String.valueOf(lines[i].charAt(j)));
-          if (v == 8) {
-            break;
-          }
-          c += Integer.parseInt(String.valueOf(lines[i].charAt(j)));
-          j++;
-          if (j >= lines[i].length()) {
-            break;
-          }
-          if (c >= 'h') {
-            break;
-          }
-          pos = new Position(c, 8 - i);
+    var rank = 7;
+    var file = 0;
+    for (; i < end; i++) {
+      var ch = fenChar(chars, bytes, i);
+      if (Character.isWhitespace(ch)) {
+        break;
+      }
+      if (ch == '/' && rank > 0 && file == 8) {
+        rank--;
+        file = 0;
+      } else if (ch >= '1' && ch <= '8' && file + ch - '0' <= 8) {
+        file += ch - '0';
+      } else {
+        var piece = PIECE_CHARACTERS.indexOf(ch);
+        if (piece < 0 || file > 7) {
+          throw invalidFen(chars, bytes, start, end);
+        }
+        this.putPiece(rank * 8 + file++, piece);
+      }
+    }
+    // every rank has to be complete
+    if (rank != 0 || file != 8) {
+      throw invalidFen(chars, bytes, start, end);
+    }
+
+    i = skipSpaces(chars, bytes, i, end);
+    if (i < end) {
+      var team = fenChar(chars, bytes, i++);
+      if (team != 'w' && team != 'b'
+          || i < end && !Character.isWhitespace(fenChar(chars, bytes, i))) {
+        throw invalidFen(chars, bytes, start, end);
+      }
+      this.currentTeam = team == 'b' ? PieceColor.B : PieceColor.W;
+    }
+    for (i = skipSpaces(chars, bytes, i, end); i < end; i++) {
+      var ch = fenChar(chars, bytes, i);
+      if (ch == 'K') {
+        this.castlingRights |= WHITE_KING_SIDE;
+      } else if (ch == 'Q') {
+        this.castlingRights |= WHITE_QUEEN_SIDE;
+      } else if (ch == 'k') {
+        this.castlingRights |= BLACK_KING_SIDE;
+      } else if (ch == 'q') {
+        this.castlingRights |= BLACK_QUEEN_SIDE;
+      } else if (ch != '-') {
+        break;
+      }
+    }
+    i = skipSpaces(chars, bytes, i, end);
+    if (i < end && fenChar(chars, bytes, i) == '-') {
+      i++;
+    } else if (i + 1 < end) {
+      var fileChar = fenChar(chars, bytes, i);
+      var rankChar = fenChar(chars, bytes, i + 1);
+      if (fileChar >= 'a' && fileChar <= 'h' && rankChar >= '1' && rankChar <= '8') {
+        this.enPassantSquare = Bitboards.square(fileChar, rankChar - '0');
+        i += 2;
+      }
+    }
+    // the move counters are only read if they are numbers, so EPD operations are ignored
+    i = skipSpaces(chars, bytes, i, end);
+    var halfMoves = 0;
+    var digits = 0;
+    for (; i < end && isDigit(fenChar(chars, bytes, i)); i++, digits++) {
+      halfMoves = halfMoves * 10 + fenChar(chars, bytes, i) - '0';
+      if (halfMoves > MAX_HALF_MOVES) {
+        throw invalidFen(chars, bytes, start, end);
+      }
+    }
+    if (digits > 0) {
+      this.halfMoves = halfMoves;
+      i = skipSpaces(chars, bytes, i, end);
+      var fullMoves = 0;
+      digits = 0;
+      for (; i < end && isDigit(fenChar(chars, bytes, i)); i++, digits++) {
+        var digit = fenChar(chars, bytes, i) - '0';
+        if (fullMoves > (Integer.MAX_VALUE - digit) / 10) {
+          throw invalidFen(chars, bytes, start, end);
+        }
+        fullMoves = fullMoves * 10 + digit;
+      }
+      if (digits > 0) {
+        this.fullMoves = fullMoves;
+      }
+    }
+    // the pieces are already part of the key
+    this.hash ^= Zobrist.CASTLING[this.castlingRights] ^ this.enPassantKey();
+    if (this.currentTeam != PieceColor.W) {
+      this.hash ^= Zobrist.BLACK_TO_MOVE;
+    }
+  }
+
+  /**
+   * Returns the position as FEN record.
+   *
+   * @return the FEN record
+   */
+  public String toFen() {
+    var out = new StringBuilder(MAX_FEN_LENGTH);
+    this.writeFen(out);
+    return out.toString();
+  }
+
+  /**
+   * Appends the position as FEN record to the builder without further allocations.
+   *
+   * @param out the builder to append to
+   */
+  public void writeFen(StringBuilder out) {
+    var length = this.encodeFen();
+    for (var i = 0; i < length; i++) {
+      out.append((char) this.fenBuffer[i]);
+    }
+  }
+
+  /**
+   * Appends the position as FEN record to the appendable.
+   *
+   * @param out the appendable to append to
+   * @throws IOException if the appendable fails
+   */
+  public void writeFen(Appendable out) throws IOException {
+    var length = this.encodeFen();
+    for (var i = 0; i < length; i++) {
+      out.append((char) this.fenBuffer[i]);
+    }
+  }
+
+  /**
+   * Writes the position as FEN record in ASCII to the buffer at its position.
+   *
+   * @param out the buffer to write to
+   * @throws java.nio.BufferOverflowException if the record does not fit into the remaining bytes
+   */
+  public void writeFen(ByteBuffer out) {
+    out.put(this.fenBuffer, 0, this.encodeFen());
+  }
+
+  /**
+   * Encodes the position as FEN record in ASCII into the FEN buffer of this board.
+   *
+   * @return the length of the record
+   */
+  private int encodeFen() {
+    var buffer = this.fenBuffer;
+    var length = 0;
+    for (var rank = 7; rank >= 0; rank--) {
+      var empty = 0;
+      for (var square = rank * 8; square < rank * 8 + 8; square++) {
+        var piece = this.squares[square];
+        if (piece == EMPTY) {
+          empty++;
+          continue;
         }
-        var piece = switch (lines[i].charAt(j)) {
-          case 'P' -> new Pawn(PieceColor.W);
-          case 'p' -> new Pawn(PieceColor.B);
-          case 'R' -> new Rook(PieceColor.W);
-          case 'r' -> new Rook(PieceColor.B);
-          case 'N' -> new Knight(PieceColor.W);
-          case 'n' -> new Knight(PieceColor.B);
-          case 'B' -> new Bishop(PieceColor.W);
-          case 'b' -> new Bishop(PieceColor.B);
-          case 'Q' -> new Queen(PieceColor.W);
-          case 'q' -> new Queen(PieceColor.B);
-          case 'K' -> new King(PieceColor.W);
-          case 'k' -> new King(PieceColor.B);
-          default -> null;
-        };
-        if (piece != null) {
-          this.positions.put(pos, piece);
-          if (piece.getPieceType().equals(PieceType.KING)) {
-            switch (piece.getPieceColor()) {
-              case B -> this.posKingB = pos;
-              case W -> this.posKingW = pos;
-            }
-          }
+        if (empty > 0) {
+          buffer[length++] = (byte) ('0' + empty);
+          empty = 0;
         }
+        buffer[length++] = (byte) PIECE_CHARACTERS.charAt(piece);
       }
+      if (empty > 0) {
+        buffer[length++] = (byte) ('0' + empty);
+      }
+      buffer[length++] = (byte) (rank > 0 ? '/' : ' ');
+    }
+    buffer[length++] = (byte) (this.currentTeam == PieceColor.W ? 'w' : 'b');
+    buffer[length++] = ' ';
+    if (this.castlingRights == 0) {
+      buffer[length++] = '-';
+    }
+    if ((this.castlingRights & WHITE_KING_SIDE) != 0) {
+      buffer[length++] = 'K';
+    }
+    if ((this.castlingRights & WHITE_QUEEN_SIDE) != 0) {
+      buffer[length++] = 'Q';
+    }
+    if ((this.castlingRights & BLACK_KING_SIDE) != 0) {
+      buffer[length++] = 'k';
+    }
+    if ((this.castlingRights & BLACK_QUEEN_SIDE) != 0) {
+      buffer[length++] = 'q';
     }
-    LOGGER.log(Level.FINE, "Set figures at board with FEN-Record: " + FENRecordFigures);
+    buffer[length++] = ' ';
+    if (this.enPassantSquare == NO_SQUARE) {
+      buffer[length++] = '-';
+    } else {
+      buffer[length++] = (byte) ('a' + Bitboards.fileOf(this.enPassantSquare));
+      buffer[length++] = (byte) ('1' + Bitboards.rankOf(this.enPassantSquare));
+    }
+    buffer[length++] = ' ';
+    length = encodeNumber(buffer, length, this.halfMoves);
+    buffer[length++] = ' ';
+    return encodeNumber(buffer, length, this.fullMoves);
+  }
+
+  /**
+   * Writes the decimal digits of a non-negative number into the buffer.
+   *
+   * @return the index after the last digit
+   */
+  private static int encodeNumber(byte[] buffer, int index, int number) {
+    var digits = 1;
+    for (var rest = number / 10; rest > 0; rest /= 10) {
+      digits++;
+    }
+    for (var i = index + digits - 1; i >= index; i--) {
+      buffer[i] = (byte) ('0' + number % 10);
+      number /= 10;
+    }
+    return index + digits;
+  }
+
+  private static char fenChar(CharSequence chars, byte[] bytes, int index) {
+    return chars != null ? chars.charAt(index) : (char) (bytes[index] & 0xFF);
+  }
+
+  private static int skipSpaces(CharSequence chars, byte[] bytes, int index, int end) {
+    while (index < end && Character.isWhitespace(fenChar(chars, bytes, index))) {
+      index++;
+    }
+    return index;
+  }
+
+  private static boolean isDigit(char ch) {
+    return ch >= '0' && ch <= '9';
+  }
+
+  private static IllegalArgumentException invalidFen(CharSequence chars, byte[] bytes, int start,
+      int end) {
+    var record = chars != null ? chars.subSequence(start, end).toString()
+        : new String(bytes, start, end - start, StandardCharsets.US_ASCII);
+    return new IllegalArgumentException("Invalid FEN record: " + record);
   }
 
   /**
@@ -288,25 +797,51 @@ public class Board {
    */
   private void initBoard() {
     for (var c = 'a'; c <= 'h'; c++) {
-      this.positions.put(new Position(c, 2), new Pawn(PieceColor.W));
-      this.positions.put(new Position(c, 7), new Pawn(PieceColor.B));
-    }
-    this.positions.put(new Position('a', 1), new Rook(PieceColor.W));
-    this.positions.put(new Position('h', 1), new Rook(PieceColor.W));
-    this.positions.put(new Position('a', 8), new Rook(PieceColor.B));
-    this.positions.put(new Position('h', 8), new Rook(PieceColor.B));
-    this.positions.put(new Position('b', 1), new Knight(PieceColor.W));
-    this.positions.put(new Position('g', 1), new Knight(PieceColor.W));
-    this.positions.put(new Position('b', 8), new Knight(PieceColor.B));
-    this.positions.put(new Position('g', 8), new Knight(PieceColor.B));
-    this.positions.put(new Position('c', 1), new Bishop(PieceColor.W));
-    this.positions.put(new Position('f', 1), new Bishop(PieceColor.W));
-    this.positions.put(new Position('c', 8), new Bishop(PieceColor.B));
-    this.positions.put(new Position('f', 8), new Bishop(PieceColor.B));
-    this.positions.put(new Position('d', 1), new Queen(PieceColor.W));
-    this.positions.put(new Position('d', 8), new Queen(PieceColor.B));
-    this.positions.put(new Position('e', 1), new King(PieceColor.W));
-    this.positions.put(new Position('e', 8), new King(PieceColor.B));
+      this.put(new Position(c, 2), new Pawn(PieceColor.W));
+      this.put(new Position(c, 7), new Pawn(PieceColor.B));
+    }
+    this.put(new Position('a', 1), new Rook(PieceColor.W));
+    this.put(new Position('h', 1), new Rook(PieceColor.W));
+    this.put(new Position('a', 8), new Rook(PieceColor.B));
+    this.put(new Position('h', 8), new Rook(PieceColor.B));
+    this.put(new Position('b', 1), new Knight(PieceColor.W));
+    this.put(new Position('g', 1), new Knight(PieceColor.W));
+    this.put(new Position('b', 8), new Knight(PieceColor.B));
+    this.put(new Position('g', 8), new Knight(PieceColor.B));
+    this.put(new Position('c', 1), new Bishop(PieceColor.W));
+    this.put(new Position('f', 1), new Bishop(PieceColor.W));
+    this.put(new Position('c', 8), new Bishop(PieceColor.B));
+    this.put(new Position('f', 8), new Bishop(PieceColor.B));
+    this.put(new Position('d', 1), new Queen(PieceColor.W));
+    this.put(new Position('d', 8), new Queen(PieceColor.B));
+    this.put(new Position('e', 1), new King(PieceColor.W));
+    this.put(new Position('e', 8), new King(PieceColor.B));
+    this.currentTeam = PieceColor.W;
+    this.castlingRights = WHITE_KING_SIDE | WHITE_QUEEN_SIDE | BLACK_KING_SIDE | BLACK_QUEEN_SIDE;
+    this.hash = this.computeZobristKey();
+  }
+
+  /**
+   * Resets the board to an empty board with white to move.
+   */
+  private void clear() {
+    Arrays.fill(this.pieceBitboards, 0L);
+    Arrays.fill(this.teamBitboards, 0L);
+    Arrays.fill(this.squares, EMPTY);
+    this.occupied = 0L;
+    this.castlingRights = 0;
+    this.enPassantSquare = NO_SQUARE;
+    this.currentTeam = PieceColor.W;
+    this.halfMoves = 0;
+    this.fullMoves = 1;
+    this.undoSize = 0;
+    this.hash = 0L;
+    this.pawnKey = 0L;
+    this.midgame = 0;
+    this.endgame = 0;
+    this.phase = 0;
+    this.validAttackMaps = 0;
+    this.changed();
   }
 
   //endregion
@@ -325,8 +860,9 @@ public class Board {
     for (var i = 8; i >= 1; i--) {
       res.append(i).append(" | ");
       for (var c = 'a'; c <= 'h'; c++) {
-        if (this.positions.containsKey(new Position(c, i))) {
-          res.append(this.positions.get(new Position(c, i)));
+        var piece = this.squares[Bitboards.square(c, i)];
+        if (piece != EMPTY) {
+          res.append(this.createPiece(piece));
         } else {
           res.append("\s");
         }
@@ -342,94 +878,206 @@ public class Board {
   }
 
   /**
-   * Tries to move from the given position to the given position with the given team.
+   * Tries to move from the given position to the given position with the given team. Pawns
+   * reaching the last rank are promoted to a queen.
    *
    * @param from the {@link Position} to move from
    * @param to   the {@link  Position} to move to
-   * @return the resulting board
+   * @return the performed move or null if the move is not available
    */
   public Move move(Position from, Position to) {
-    var move = this.getAvailableMoves()
-        .stream()
-        .filter(move1 -> move1.start().equals(from) && move1.end().equals(to))
-        .findFirst()
-        .orElse(null);
+    return this.move(from, to, PieceType.QUEEN);
+  }
 
-    if (move == null) {
+  /**
+   * Tries to move from the given position to the given position with the given team.
+   *
+   * @param from      the {@link Position} to move from
+   * @param to        the {@link  Position} to move to
+   * @param promotion the piece type a pawn reaching the last rank is promoted to
+   * @return the performed move or null if the move is not available
+   */
+  public Move move(Position from, Position to, PieceType promotion) {
+    var code = this.findMove(from.square(), to.square(), promotion);
+    if (code == Moves.NONE) {
       LOGGER.log(Level.WARNING, "There is no move available from: " + from + " to: " + to + "!");
       return null;
     }
+    var move = this.toMove(code);
+    this.makeMove(code);
+    return move;
+  }
 
-    var pieceToMove = this.positions.get(from);
-
-    //region en passant handling
-    if (pieceToMove.getPieceType().equals(PieceType.PAWN)) {
-      if (move.canAttack()) {
-        if (to.equals(this.enPassant)) {
-          this.enPassant = null;
-          switch (pieceToMove.getPieceColor()) {
-            case W -> this.positions.remove(new Position(this.enPassant.file(), 5));
-            case B -> this.positions.remove(new Position(this.enPassant.file(), 4));
-          }
-        }
-      } else if (Math.abs(from.rank() - to.rank()) == 2) {
-        this.enPassant = new Position(from.file(), from.rank() + to.rank() / 2);
+  /**
+   * Finds the encoded legal move between the given squares.
+   *
+   * @param from      the start square
+   * @param to        the end square
+   * @param promotion the piece type a pawn reaching the last rank is promoted to
+   * @return the encoded move or {@link Moves#NONE} if it is not available
+   */
+  public int findMove(int from, int to, PieceType promotion) {
+    this.generateMoves(this.moveList);
+    for (var i = 0; i < this.moveList.size(); i++) {
+      var move = this.moveList.get(i);
+      if (Moves.from(move) == from && Moves.to(move) == to
+          && (!Moves.isPromotion(move) || Moves.promotion(move) == promotion)) {
+        return move;
       }
-      this.halfMoves++;
     }
-    //endregion
+    return Moves.NONE;
+  }
 
-    //region castling handling
-    if (pieceToMove.getPieceType().equals(PieceType.KING)) {
-      if (pieceToMove.isMoved()) {
-        switch (pieceToMove.getPieceColor()) {
-          case B -> {
-            this.setBlackCanCastleKingSide(false);
-            this.setBlackCanCastleQueenSide(false);
-          }
-          case W -> {
-            this.setWhiteCanCastleKingSide(false);
-            this.setWhiteCanCastleQueenSide(false);
-          }
-        }
-      }
+  /**
+   * Performs an encoded move from {@link #generateMoves(MoveList)} without checking if it is
+   * available. The previous state is pushed onto the undo stack, so the move can be taken back
+   * with {@link #unmakeMove()}.
+   *
+   * @param move the encoded move
+   */
+  public void makeMove(int move) {
+    var from = Moves.from(move);
+    var to = Moves.to(move);
+    var flags = Moves.flags(move);
+    var piece = this.squares[from];
+    var color = piece & 1;
+    var captureSquare = flags == Moves.EN_PASSANT ? (color == WHITE ? to - 8 : to + 8) : to;
+    var captured = this.squares[captureSquare];
+    this.pushUndo(move, captured);
+    this.hash ^= Zobrist.CASTLING[this.castlingRights] ^ this.enPassantKey()
+        ^ Zobrist.BLACK_TO_MOVE;
+    if (captured != EMPTY) {
+      this.removePiece(captureSquare);
     }
-    var rookW = new Rook(PieceColor.W);
-    if (this.whiteCanCastleQueenSide &&
-        !this.positions.getOrDefault(new Position('a', 1), null).equals(rookW)) {
-      this.setWhiteCanCastleQueenSide(false);
+    this.removePiece(from);
+    if ((flags & Moves.PROMOTION) != 0) {
+      this.putPiece(to, pieceCode(Moves.promotion(move).ordinal(), color));
+    } else {
+      this.putPiece(to, piece);
     }
-    if (this.whiteCanCastleKingSide &&
-        !this.positions.getOrDefault(new Position('h', 1), null).equals(rookW)) {
-      this.setWhiteCanCastleKingSide(false);
+    if (flags == Moves.KING_CASTLE) {
+      this.movePiece(to + 1, to - 1);
+    } else if (flags == Moves.QUEEN_CASTLE) {
+      this.movePiece(to - 2, to + 1);
     }
-    var rookB = new Rook(PieceColor.B);
-    if (this.blackCanCastleQueenSide &&
-        !this.positions.getOrDefault(new Position('a', 8), null).equals(rookB)) {
-      this.setBlackCanCastleQueenSide(false);
+    this.castlingRights &= CASTLING_MASK[from] & CASTLING_MASK[to];
+    this.enPassantSquare = flags == Moves.DOUBLE_PAWN_PUSH ? (from + to) / 2 : NO_SQUARE;
+    this.halfMoves = piece >>> 1 == PAWN || captured != EMPTY ? 0 : this.halfMoves + 1;
+    if (color != WHITE) {
+      this.fullMoves++;
     }
-    if (this.blackCanCastleKingSide &&
-        !this.positions.getOrDefault(new Position('h', 8), null).equals(rookB)) {
-      this.setBlackCanCastleKingSide(false);
+    this.currentTeam = PIECE_COLORS[color ^ 1];
+    this.hash ^= Zobrist.CASTLING[this.castlingRights] ^ this.enPassantKey();
+    this.changed();
+    if (VERIFY_HASH) {
+      this.verifyZobristKey(move);
     }
-    //endregion
+  }
 
-    //region check handling
-    if (pieceToMove.getPieceType().equals(PieceType.KING)) {
-      switch (pieceToMove.getPieceColor()) {
-        case B -> this.blackChecked = false;
-        case W -> this.whiteChecked = false;
+  /**
+   * Takes back the last move performed with {@link #makeMove(int)} by restoring the state from
+   * the undo stack.
+   *
+   * @throws IllegalStateException if there is no move to take back
+   */
+  public void unmakeMove() {
+    if (this.undoSize == 0) {
+      throw new IllegalStateException("There is no move to take back!");
+    }
+    var index = --this.undoSize;
+    var move = this.undoMoves[index];
+    var state = this.undoStates[index];
+    var from = Moves.from(move);
+    var to = Moves.to(move);
+    var flags = Moves.flags(move);
+    var color = this.currentTeam.ordinal() ^ 1;
+    var piece = (flags & Moves.PROMOTION) != 0 ? pieceCode(PAWN, color) : this.squares[to];
+    this.removePiece(to);
+    this.putPiece(from, piece);
+    var captured = (state & 0xF) - 1;
+    if (captured != EMPTY) {
+      this.putPiece(flags == Moves.EN_PASSANT ? (color == WHITE ? to - 8 : to + 8) : to,
+          captured);
+    }
+    if (flags == Moves.KING_CASTLE) {
+      this.movePiece(to - 1, to + 1);
+    } else if (flags == Moves.QUEEN_CASTLE) {
+      this.movePiece(to + 1, to - 2);
+    }
+    this.castlingRights = state >>> 4 & 0xF;
+    this.enPassantSquare = (state >>> 8 & 0x7F) - 1;
+    this.halfMoves = state >>> 15;
+    if (color != WHITE) {
+      this.fullMoves--;
+    }
+    this.currentTeam = PIECE_COLORS[color];
+    this.hash = this.undoHashes[index];
+    this.changed();
+    if (VERIFY_HASH) {
+      this.verifyZobristKey(move);
+    }
+  }
+
+  /**
+   * Checks if the current position occurred before since the last capture or pawn move.
+   *
+   * @return true if the position is repeated, else false
+   */
+  public boolean isRepetition() {
+    var end = Math.max(this.undoSize - this.halfMoves, 0);
+    for (var i = this.undoSize - 2; i >= end; i -= 2) {
+      if (this.undoHashes[i] == this.hash) {
+        return true;
       }
     }
-    //endregion
+    return false;
+  }
 
-    this.positions.remove(from);
-    pieceToMove.setMoved();
-    this.positions.put(to, pieceToMove);
-    this.fullMoves++;
+  /**
+   * Counts how often the current position occurred before since the last capture or pawn move,
+   * so a count of 2 is a threefold repetition.
+   *
+   * @return the number of earlier occurrences
+   */
+  public int countRepetitions() {
+    var count = 0;
+    var end = Math.max(this.undoSize - this.halfMoves, 0);
+    for (var i = this.undoSize - 2; i >= end; i -= 2) {
+      if (this.undoHashes[i] == this.hash) {
+        count++;
+      }
+    }
+    return count;
+  }
 
-    this.currentTeam = this.currentTeam == PieceColor.W ? PieceColor.B : PieceColor.W;
-    return move;
+  /**
+   * Returns the number of moves which can be taken back with {@link #unmakeMove()}.
+   *
+   * @return the size of the undo stack
+   */
+  public int getUndoSize() {
+    return this.undoSize;
+  }
+
+  /**
+   * Pushes the state which a move cannot restore by itself onto the undo stack. The captured
+   * piece, castling rights, en passant square and half moves are packed into one int, the Zobrist
+   * key is stored separately.
+   *
+   * @param move     the encoded move
+   * @param captured the captured piece code or {@link #EMPTY}
+   */
+  private void pushUndo(int move, int captured) {
+    if (this.undoSize == this.undoMoves.length) {
+      this.undoMoves = Arrays.copyOf(this.undoMoves, this.undoSize * 2);
+      this.undoStates = Arrays.copyOf(this.undoStates, this.undoSize * 2);
+      this.undoHashes = Arrays.copyOf(this.undoHashes, this.undoSize * 2);
+    }
+    this.undoHashes[this.undoSize] = this.hash;
+    this.undoMoves[this.undoSize] = move;
+    this.undoStates[this.undoSize] = (captured + 1) | this.castlingRights << 4
+        | (this.enPassantSquare + 1) << 8 | this.halfMoves << 15;
+    this.undoSize++;
   }
 
   /**
@@ -438,264 +1086,102 @@ public class Board {
    * @return a HashSet of moves
    */
   public HashSet<Move> getAvailableMoves() {
-    if (this.movesGeneratorCounter != this.fullMoves) {
-      this.availableMoves = this.getAllAvailableMoves(this.currentTeam);
-      this.movesGeneratorCounter++;
+    if (this.availableMoves == null) {
+      this.generateMoves(this.moveList);
+      var set = new HashSet<Move>();
+      for (var i = 0; i < this.moveList.size(); i++) {
+        set.add(this.toMove(this.moveList.get(i)));
+      }
+      this.availableMoves = set;
     }
     return this.availableMoves;
   }
 
   /**
-   * Helper to compute all available moves for the current team.
-   * TODO: Add castling
-   * TODO: What happens if pawn is at the end?
+   * Converts an encoded move of the current position to a {@link Move}.
    *
-   * @return a HashSet of moves
+   * @param move the encoded move
+   * @return the move
    */
-  private HashSet<Move> getAllAvailableMoves(PieceColor team) {
-    var set = new HashSet<Move>();
-    this.positions.entrySet()
-        .stream()
-        .filter(entry -> entry.getValue().getPieceColor().equals(team))
-        .forEach(entry -> {
-          var currentPos = entry.getKey();
-          var piece = entry.getValue();
-          char c;
-          int i;
-          Move move;
-          switch (piece.getPieceType()) {
-            case KING -> {
-              for (c = 'a'; c <= 'h'; c++) {
-                for (i = 1; i <= 8; i++) {
-                  if ((char) (currentPos.file() - 1) == c && currentPos.rank() + 1 == i ||
-                      currentPos.file() == c && currentPos.rank() + 1 == i ||
-                      (char) (currentPos.file() + 1) == c && currentPos.rank() + 1 == i ||
-                      (char) (currentPos.file() + 1) == c && currentPos.rank() == i ||
-                      (char) (currentPos.file() - 1) == c && currentPos.rank() - 1 == i ||
-                      currentPos.file() == c && currentPos.rank() == i - 1 ||
-                      (char) (currentPos.file() + 1) == c && currentPos.rank() - 1 == i ||
-                      (char) (currentPos.file() - 1) == c && currentPos.rank() == i) {
-                    move = this.createMoveIfPossible(currentPos, piece,
-                        new Position(c, i));
-                    if (move != null) {
-                      set.add(move);
-                    }
-                  }
-                }
-              }
-            }
-            //region Pawn
-            case PAWN -> {
-              var positionsToAdd = new HashSet<Position>();
-              c = currentPos.file();
-              if (piece.getPieceColor().equals(PieceColor.W)) {
-                i = currentPos.rank() + 1;
-                if (i <= 8) {
-                  positionsToAdd.add(new Position(c, i));
-                  if (currentPos.rank() == 2) {
-                    positionsToAdd.add(new Position(c, 3));
-                  }
-                }
-              } else {
-                i = currentPos.rank() - 1;
-                if (i >= 1) {
-                  positionsToAdd.add(new Position(c, i));
-                  if (currentPos.rank() == 7) {
-                    positionsToAdd.add(new Position(c, 6));
-                  }
-                }
-              }
-              if (i >= 1 && i <= 8) {
-                c = (char) (currentPos.file() + 1);
-                if (c <= 'h') {
-                  positionsToAdd.add(new Position(c, i));
-                }
-                c = (char) (currentPos.file() - 1);
-                if (c >= 'a') {
-                  positionsToAdd.add(new Position(c, i));
-                }
-                for (var position : positionsToAdd) {
-                  move = this.createMoveIfPossible(currentPos, piece, position);
-                  if (move != null) {
-                    set.add(move);
-                  }
-                }
-              }
-            }
-            //endregion
-            case KNIGHT -> {
-              for (c = 'a'; c <= 'h'; c++) {
-                for (i = 1; i <= 8; i++) {
-                  if ((char) (currentPos.file() - 2) == c && currentPos.rank() + 1 == i ||
-                      (char) (currentPos.file() - 1) == c && currentPos.rank() + 2 == i ||
-                      (char) (currentPos.file() + 1) == c && currentPos.rank() + 2 == i ||
-                      (char) (currentPos.file() + 2) == c && currentPos.rank() + 1 == i ||
-                      (char) (currentPos.file() + 2) == c && currentPos.rank() - 1 == i ||
-                      (char) (currentPos.file() + 1) == c && currentPos.rank() - 2 == i ||
-                      (char) (currentPos.file() - 1) == c && currentPos.rank() - 2 == i ||
-                      (char) (currentPos.file() - 2) == c && currentPos.rank() - 1 == i) {
-                    move = this.createMoveIfPossible(currentPos, piece, new Position(c, i));
-                    if (move != null) {
-                      set.add(move);
-                    }
-                  }
-                }
-              }
-            }
-            case BISHOP, ROOK, QUEEN -> {
-              //region Bishop, Queen
-              if (piece.getPieceType().equals(PieceType.BISHOP) ||
-                  piece.getPieceType().equals(PieceType.QUEEN)) {
-                c = (char) (currentPos.file() - 1);
-                i = currentPos.rank() + 1;
-                while (c >= 'a' && i <= 8) {
-                  move = this.createMoveIfPossible(currentPos, piece, new Position(c, i));
-                  if (move != null) {
-                    set.add(move);
-                    if (move.canAttack()) {
-                      break;
-                    }
-                  } else {
-                    break;
-                  }
-                  c--;
-                  i++;
-                }
-                c = (char) (currentPos.file() + 1);
-                i = currentPos.rank() + 1;
-                while (c <= 'h' && i <= 8) {
-                  move = this.createMoveIfPossible(currentPos, piece, new Position(c, i));
-                  if (move != null) {
-                    set.add(move);
-                    if (move.canAttack()) {
-                      break;
-                    }
-                  } else {
-                    break;
-                  }
-                  c++;
-                  i++;
-                }
-                c = (char) (currentPos.file() + 1);
-                i = currentPos.rank() - 1;
-                while (c <= 'h' && i >= 1) {
-                  move = this.createMoveIfPossible(currentPos, piece, new Position(c, i));
-                  if (move != null) {
-                    set.add(move);
-                    if (move.canAttack()) {
-                      break;
-                    }
-                  } else {
-                    break;
-                  }
-                  c++;
-                  i--;
-                }
-                c = (char) (currentPos.file() - 1);
-                i = currentPos.rank() - 1;
-                while (c >= 'a' && i >= 1) {
-                  move = this.createMoveIfPossible(currentPos, piece, new Position(c, i));
-                  if (move != null) {
-                    set.add(move);
-                    if (move.canAttack()) {
-                      break;
-                    }
-                  } else {
-                    break;
-                  }
-                  c--;
-                  i--;
-                }
-              }
-              //endregion
-              //region Rook, Queen
-              if (piece.getPieceType().equals(PieceType.ROOK) ||
-                  piece.getPieceType().equals(PieceType.QUEEN)) {
-                c = (char) (currentPos.file() - 1);
-                i = currentPos.rank();
-                while (c >= 'a') {
-                  move = this.createMoveIfPossible(currentPos, piece, new Position(c, i));
-                  if (move != null) {
-                    set.add(move);
-                    if (move.canAttack()) {
-                      break;
-                    }
-                  } else {
-                    break;
-                  }
-                  c--;
-                }
-                i = currentPos.rank() + 1;
-                c = currentPos.file();
-                while (i <= 8) {
-                  move = this.createMoveIfPossible(currentPos, piece, new Position(c, i));
-                  if (move != null) {
-                    set.add(move);
-                    if (move.canAttack()) {
-                      break;
-                    }
-                  } else {
-                    break;
-                  }
-                  i++;
-                }
-                c = (char) (currentPos.file() + 1);
-                i = currentPos.rank();
-                while (c <= 'h') {
-                  move = this.createMoveIfPossible(currentPos, piece, new Position(c, i));
-                  if (move != null) {
-                    set.add(move);
-                    if (move.canAttack()) {
-                      break;
-                    }
-                  } else {
-                    break;
-                  }
-                  c++;
-                }
-                c = currentPos.file();
-                i = currentPos.rank() - 1;
-                while (i >= 1) {
-                  move = this.createMoveIfPossible(currentPos, piece, new Position(c, i));
-                  if (move != null) {
-                    set.add(move);
-                    if (move.canAttack()) {
-                      break;
-                    }
-                  } else {
-                    break;
-                  }
-                  i--;
-                }
-              }
-              //endregion
-            }
-          }
-        });
-    //region check handling
-    var posKing = this.currentTeam.equals(PieceColor.W) ? this.posKingW : this.posKingB;
-    var attackingPositions = set.stream()
-        .filter(Move::canAttack)
-        .map(Move::end)
-        .filter(position -> position.equals(posKing))
-        .toList();
-    if (!attackingPositions.isEmpty()) {
-      switch (team) {
-        case W -> this.blackChecked = true;
-        case B -> this.whiteChecked = true;
-      }
-    }
-    if (team.equals(PieceColor.W) && this.whiteChecked
-        || team.equals(PieceColor.B) && this.blackChecked) {
-      set.removeIf(move -> !move.piece().getPieceType().equals(PieceType.KING));
-      set.removeIf(move -> attackingPositions.contains(move.end()));
-      if (!set.isEmpty()) {
-        LOGGER.log(Level.WARNING, posKing + " is checked by\n");
-        set.forEach(move -> LOGGER.log(Level.WARNING, move.toString()));
-      }
-    }
-    //endregion
-    return set;
+  public Move toMove(int move) {
+    var from = Moves.from(move);
+    var to = Moves.to(move);
+    var piece = this.squares[from];
+    var captured = Moves.flags(move) == Moves.EN_PASSANT
+        ? pieceCode(PAWN, (piece & 1) ^ 1) : this.squares[to];
+    return new Move(Position.of(from), Position.of(to), this.createPiece(piece),
+        captured != EMPTY ? this.createPiece(captured) : null, Moves.promotion(move));
+  }
+
+  /**
+   * Checks if the king of the given team is attacked.
+   *
+   * @param team the team of the king
+   * @return true if the king is attacked, else false
+   */
+  public boolean isInCheck(PieceColor team) {
+    var king = this.pieceBitboards[pieceCode(KING, team.ordinal())];
+    return king != 0 && this.isSquareAttacked(Long.numberOfTrailingZeros(king),
+        PIECE_COLORS[team.ordinal() ^ 1]);
+  }
+
+  /**
+   * Checks if a square is attacked by any piece of the given team. The attackers are looked up
+   * from the square with the precomputed attack tables, so no moves are generated.
+   *
+   * @param square  the square index
+   * @param byColor the attacking team
+   * @return true if the square is attacked, else false
+   */
+  public boolean isSquareAttacked(int square, PieceColor byColor) {
+    return this.isAttacked(square, byColor.ordinal(), this.occupied, 0L);
+  }
+
+  /**
+   * Checks if a position is attacked by any piece of the given team.
+   *
+   * @param position the position
+   * @param byColor  the attacking team
+   * @return true if the position is attacked, else false
+   */
+  public boolean isSquareAttacked(Position position, PieceColor byColor) {
+    return this.isSquareAttacked(position.square(), byColor);
+  }
+
+  /**
+   * Returns all squares attacked by a team. Sliding pieces attack through the king of the other
+   * team, because the king cannot escape a check by stepping back along the ray, so the map
+   * contains exactly the squares this king must not move to.
+   *
+   * @param color the attacking team
+   * @return the attacked squares
+   */
+  public long getAttackMap(PieceColor color) {
+    return this.attackMap(color.ordinal());
+  }
+
+  /**
+   * Computes the pieces of both teams which attack a square. Sliding pieces are blocked by the
+   * given occupancy, so removing pieces from it reveals the attackers behind them.
+   *
+   * @param square   the square index
+   * @param occupied the occupied squares blocking sliding pieces
+   * @return the attacking pieces of both teams, which may include pieces not in the occupancy
+   */
+  public long attackersTo(int square, long occupied) {
+    var black = PieceColor.B.ordinal();
+    var queens = this.pieceBitboards[pieceCode(QUEEN, WHITE)]
+        | this.pieceBitboards[pieceCode(QUEEN, black)];
+    return Bitboards.PAWN_ATTACKS[black][square] & this.pieceBitboards[pieceCode(PAWN, WHITE)]
+        | Bitboards.PAWN_ATTACKS[WHITE][square] & this.pieceBitboards[pieceCode(PAWN, black)]
+        | Bitboards.KNIGHT_ATTACKS[square] & (this.pieceBitboards[pieceCode(KNIGHT, WHITE)]
+        | this.pieceBitboards[pieceCode(KNIGHT, black)])
+        | Bitboards.KING_ATTACKS[square] & (this.pieceBitboards[pieceCode(KING, WHITE)]
+        | this.pieceBitboards[pieceCode(KING, black)])
+        | Bitboards.bishopAttacks(square, occupied) & (this.pieceBitboards[pieceCode(BISHOP, WHITE)]
+        | this.pieceBitboards[pieceCode(BISHOP, black)] | queens)
+        | Bitboards.rookAttacks(square, occupied) & (this.pieceBitboards[pieceCode(ROOK, WHITE)]
+        | this.pieceBitboards[pieceCode(ROOK, black)] | queens);
   }
 
   /**
@@ -705,7 +1191,7 @@ public class Board {
    * @return the position piece entry if found or null if not found
    */
   public Map.Entry<Position, Piece> findPieceOnBoard(Piece piece) {
-    return this.positions
+    return this.getPositions()
         .entrySet()
         .stream()
         .filter(positionPieceEntry ->
@@ -715,32 +1201,633 @@ public class Board {
   }
 
   /**
-   * Helper method which creates the move if it is possible.
+   * Computes the piece code used as index for the piece bitboards.
    *
-   * @param currentPos   the current position
-   * @param piece        the piece to move
-   * @param neighbourPos the neighbour position to check
-   * @return the move or null
+   * @param pieceType  the type of the piece
+   * @param pieceColor the color of the piece
+   * @return the piece code between 0 and 11
    */
-  private Move createMoveIfPossible(Position currentPos, Piece piece, Position neighbourPos) {
-    var pawn = piece.getPieceType().equals(PieceType.PAWN);
-    if (pawn && this.enPassantPossible() && neighbourPos.equals(this.enPassant)) {
-      return new Move(currentPos, neighbourPos, piece, this.positions.get(this.enPassant));
+  public static int pieceCode(PieceType pieceType, PieceColor pieceColor) {
+    return pieceCode(pieceType.ordinal(), pieceColor.ordinal());
+  }
+
+  private static int pieceCode(int type, int color) {
+    return type << 1 | color;
+  }
+
+  /**
+   * Writes all legal moves of the current team as encoded moves into the given list.
+   *
+   * @param list the list, which is cleared first
+   */
+  public void generateMoves(MoveList list) {
+    list.clear();
+    this.generate(list, true, true);
+  }
+
+  /**
+   * Writes the legal captures, en passant captures and promotions of the current team into the
+   * given list.
+   *
+   * @param list the list, which is cleared first
+   */
+  public void generateCaptures(MoveList list) {
+    list.clear();
+    this.generate(list, true, false);
+  }
+
+  /**
+   * Writes the legal moves of the current team which neither capture nor promote into the given
+   * list, so together with {@link #generateCaptures(MoveList)} every legal move is generated
+   * exactly once.
+   *
+   * @param list the list, which is cleared first
+   */
+  public void generateQuiets(MoveList list) {
+    list.clear();
+    this.generate(list, false, true);
+  }
+
+  /**
+   * Checks if an encoded move, which was not generated for this position like a move of the
+   * transposition table, is legal in the current position.
+   *
+   * @param move the encoded move
+   * @return true if the move is legal, else false
+   */
+  public boolean isLegal(int move) {
+    if (move == Moves.NONE) {
+      return false;
+    }
+    var from = Moves.from(move);
+    var to = Moves.to(move);
+    var piece = this.squares[from];
+    var us = this.currentTeam.ordinal();
+    if (piece == EMPTY || (piece & 1) != us) {
+      return false;
+    }
+    var target = this.squares[to];
+    var flags = Moves.flags(move);
+    if (Moves.isCastling(move)) {
+      var right = to > from ? (us == WHITE ? WHITE_KING_SIDE : BLACK_KING_SIDE)
+          : (us == WHITE ? WHITE_QUEEN_SIDE : BLACK_QUEEN_SIDE);
+      return to == from + (to > from ? 2 : -2)
+          && flags == (to > from ? Moves.KING_CASTLE : Moves.QUEEN_CASTLE)
+          && this.canCastle(right, from, to);
+    }
+    if (target != EMPTY && ((target & 1) == us || !Moves.isCapture(move))) {
+      return false;
     }
-    if (this.positions.containsKey(neighbourPos)) {
-      if (pawn && currentPos.file() == neighbourPos.file()) {
-        return null;
+    if (piece >>> 1 == PAWN) {
+      var forward = us == WHITE ? 8 : -8;
+      if (Moves.isPromotion(move) != ((1L << to & (Bitboards.RANK_1 | Bitboards.RANK_8)) != 0)) {
+        return false;
       }
-      if (!this.positions.get(neighbourPos).getPieceColor().equals(this.currentTeam)) {
-        return new Move(currentPos, neighbourPos, piece, this.positions.get(neighbourPos));
+      // the promotion piece is irrelevant, only if the promotion captures
+      var kind = Moves.isPromotion(move) ? flags & Moves.CAPTURE : flags;
+      boolean valid;
+      if (kind == Moves.EN_PASSANT) {
+        valid = to == this.enPassantSquare && (Bitboards.PAWN_ATTACKS[us][from] & 1L << to) != 0;
+      } else if (kind == Moves.DOUBLE_PAWN_PUSH) {
+        var startRank = us == WHITE ? Bitboards.RANK_2 : Bitboards.RANK_7;
+        valid = to == from + 2 * forward && (startRank & 1L << from) != 0
+            && (this.occupied & (1L << (from + forward) | 1L << to)) == 0;
+      } else if (kind == Moves.CAPTURE) {
+        valid = target != EMPTY && (Bitboards.PAWN_ATTACKS[us][from] & 1L << to) != 0;
+      } else {
+        valid = kind == Moves.QUIET && to == from + forward && target == EMPTY;
       }
-      return null;
+      return valid && this.keepsKingSafe(move);
+    }
+    return (flags == Moves.QUIET && target == EMPTY || flags == Moves.CAPTURE && target != EMPTY)
+        && (this.attacks(piece >>> 1, us, from, this.occupied) & 1L << to) != 0
+        && this.keepsKingSafe(move);
+  }
+
+  /**
+   * Writes the legal moves of the current team into the list. The checkers and the pinned pieces
+   * are computed once, so every move can be added without testing if it leaves the king in check.
+   * Only en passant captures, which remove two pieces from a rank, are still tested.
+   *
+   * @param list     the list to add the moves to
+   * @param captures if captures, en passant captures and promotions are generated
+   * @param quiets   if all other moves are generated
+   */
+  private void generate(MoveList list, boolean captures, boolean quiets) {
+    var us = this.currentTeam.ordinal();
+    var enemy = this.teamBitboards[us ^ 1];
+    var mask = (captures ? enemy : 0L) | (quiets ? ~this.occupied : 0L);
+    var kings = this.pieceBitboards[pieceCode(KING, us)];
+    if (kings == 0) {
+      // boards without a king have no checks and no pins
+      this.generatePawnMoves(list, captures, quiets, -1L, 0L, NO_SQUARE);
+      this.generatePieceMoves(list, mask, 0L, NO_SQUARE);
+      return;
+    }
+    var king = Long.numberOfTrailingZeros(kings);
+    var checkers = this.attackersTo(king, this.occupied) & enemy;
+    var pinned = this.pinned(us, king);
+    if (checkers != 0) {
+      this.generateEvasions(list, mask, captures, quiets, king, checkers, pinned);
+      return;
+    }
+    this.generatePawnMoves(list, captures, quiets, -1L, pinned, king);
+    this.generatePieceMoves(list, mask, pinned, king);
+    this.generateKingMoves(list, mask, king);
+
+    //region Castling
+    if (!quiets) {
+      return;
+    }
+    if (us == WHITE) {
+      this.addCastling(list, WHITE_KING_SIDE, Bitboards.square('e', 1), Bitboards.square('g', 1));
+      this.addCastling(list, WHITE_QUEEN_SIDE, Bitboards.square('e', 1),
+          Bitboards.square('c', 1));
     } else {
-      if (pawn && currentPos.file() != neighbourPos.file()) {
-        return null;
+      this.addCastling(list, BLACK_KING_SIDE, Bitboards.square('e', 8), Bitboards.square('g', 8));
+      this.addCastling(list, BLACK_QUEEN_SIDE, Bitboards.square('e', 8),
+          Bitboards.square('c', 8));
+    }
+    //endregion
+  }
+
+  /**
+   * Writes the legal moves of the current team in check into the list. The king may step out of
+   * the check, and against a single checker the other pieces may capture it or block its ray.
+   * Castling is never allowed.
+   *
+   * @param list     the list to add the moves to
+   * @param mask     the target squares of the generated moves
+   * @param captures if captures, en passant captures and promotions are generated
+   * @param quiets   if all other moves are generated
+   * @param king     the square of the king
+   * @param checkers the pieces giving check
+   * @param pinned   the own pieces pinned to the king
+   */
+  private void generateEvasions(MoveList list, long mask, boolean captures, boolean quiets,
+      int king, long checkers, long pinned) {
+    this.generateKingMoves(list, mask, king);
+    if ((checkers & checkers - 1) != 0) {
+      // a double check can only be answered by a king move
+      return;
+    }
+    var targets = Bitboards.BETWEEN[king][Long.numberOfTrailingZeros(checkers)] | checkers;
+    this.generatePawnMoves(list, captures, quiets, targets, pinned, king);
+    this.generatePieceMoves(list, mask & targets, pinned, king);
+  }
+
+  /**
+   * Writes the legal pawn moves of the current team into the list.
+   *
+   * @param list     the list to add the moves to
+   * @param captures if captures, en passant captures and promotions are generated
+   * @param quiets   if all other moves are generated
+   * @param targets  the squares the pawns may move to, which block or capture a checker
+   * @param pinned   the own pieces pinned to the king
+   * @param king     the square of the king or {@link #NO_SQUARE}
+   */
+  private void generatePawnMoves(MoveList list, boolean captures, boolean quiets, long targets,
+      long pinned, int king) {
+    var us = this.currentTeam.ordinal();
+    var enemy = this.teamBitboards[us ^ 1];
+    var pawns = this.pieceBitboards[pieceCode(PAWN, us)];
+    var forward = us == WHITE ? 8 : -8;
+    var startRank = us == WHITE ? Bitboards.RANK_2 : Bitboards.RANK_7;
+    while (pawns != 0) {
+      var from = Long.numberOfTrailingZeros(pawns);
+      pawns &= pawns - 1;
+      // a pinned pawn may only move along the line of the pin
+      var allowed = (pinned & 1L << from) != 0 ? targets & Bitboards.LINE[king][from] : targets;
+      var to = from + forward;
+      if ((this.occupied & 1L << to) == 0) {
+        // pushes to the last rank are promotions, which are generated with the captures
+        if (((1L << to & (Bitboards.RANK_1 | Bitboards.RANK_8)) != 0 ? captures : quiets)
+            && (allowed & 1L << to) != 0) {
+          this.addPawnMoves(list, from, to, false);
+        }
+        if (quiets && (startRank & 1L << from) != 0
+            && (this.occupied & 1L << (to + forward)) == 0
+            && (allowed & 1L << (to + forward)) != 0) {
+          list.add(Moves.encode(from, to + forward, Moves.DOUBLE_PAWN_PUSH));
+        }
+      }
+      if (!captures) {
+        continue;
+      }
+      var attacks = Bitboards.PAWN_ATTACKS[us][from] & enemy & allowed;
+      while (attacks != 0) {
+        this.addPawnMoves(list, from, Long.numberOfTrailingZeros(attacks), true);
+        attacks &= attacks - 1;
+      }
+      if (this.enPassantSquare != NO_SQUARE
+          && (Bitboards.PAWN_ATTACKS[us][from] & 1L << this.enPassantSquare) != 0) {
+        this.addIfLegal(list, Moves.encode(from, this.enPassantSquare, Moves.EN_PASSANT));
       }
-      return new Move(currentPos, neighbourPos, piece, null);
     }
   }
 
+  /**
+   * Writes the legal moves of the knights, bishops, rooks and queens of the current team into the
+   * list.
+   *
+   * @param list   the list to add the moves to
+   * @param mask   the target squares of the generated moves
+   * @param pinned the own pieces pinned to the king
+   * @param king   the square of the king or {@link #NO_SQUARE}
+   */
+  private void generatePieceMoves(MoveList list, long mask, long pinned, int king) {
+    var us = this.currentTeam.ordinal();
+    var enemy = this.teamBitboards[us ^ 1];
+    for (var type = 0; type < PIECE_TYPES.length; type++) {
+      if (type == PAWN || type == KING) {
+        continue;
+      }
+      var pieces = this.pieceBitboards[pieceCode(type, us)];
+      while (pieces != 0) {
+        var from = Long.numberOfTrailingZeros(pieces);
+        pieces &= pieces - 1;
+        var targets = this.attacks(type, us, from, this.occupied) & mask;
+        if ((pinned & 1L << from) != 0) {
+          targets &= Bitboards.LINE[king][from];
+        }
+        while (targets != 0) {
+          var to = Long.numberOfTrailingZeros(targets);
+          targets &= targets - 1;
+          list.add(Moves.encode(from, to, (enemy & 1L << to) != 0 ? Moves.CAPTURE : Moves.QUIET));
+        }
+      }
+    }
+  }
+
+  /**
+   * Writes the legal king moves of the current team into the list. The king may move to every
+   * square the other team does not attack.
+   *
+   * @param list the list to add the moves to
+   * @param mask the target squares of the generated moves
+   * @param king the square of the king
+   */
+  private void generateKingMoves(MoveList list, long mask, int king) {
+    var us = this.currentTeam.ordinal();
+    var enemy = this.teamBitboards[us ^ 1];
+    var targets = Bitboards.KING_ATTACKS[king] & mask & ~this.attackMap(us ^ 1);
+    while (targets != 0) {
+      var to = Long.numberOfTrailingZeros(targets);
+      targets &= targets - 1;
+      list.add(Moves.encode(king, to, (enemy & 1L << to) != 0 ? Moves.CAPTURE : Moves.QUIET));
+    }
+  }
+
+  /**
+   * Computes the own pieces which are the only piece between the king and a sliding piece of the
+   * other team, so they may not leave the line to the king.
+   *
+   * @param us   the color ordinal of the king
+   * @param king the square of the king
+   * @return the pinned pieces
+   */
+  private long pinned(int us, int king) {
+    var enemy = this.teamBitboards[us ^ 1];
+    var queens = this.pieceBitboards[pieceCode(QUEEN, us ^ 1)];
+    // the pieces of the other team block the rays, so only own pieces can be in between
+    var snipers = Bitboards.rookAttacks(king, enemy)
+        & (this.pieceBitboards[pieceCode(ROOK, us ^ 1)] | queens)
+        | Bitboards.bishopAttacks(king, enemy)
+        & (this.pieceBitboards[pieceCode(BISHOP, us ^ 1)] | queens);
+    var pinned = 0L;
+    while (snipers != 0) {
+      var between = Bitboards.BETWEEN[king][Long.numberOfTrailingZeros(snipers)] & this.occupied;
+      snipers &= snipers - 1;
+      if (between != 0 && (between & between - 1) == 0) {
+        pinned |= between;
+      }
+    }
+    return pinned;
+  }
+
+  private long attackMap(int color) {
+    if ((this.validAttackMaps & 1 << color) == 0) {
+      this.attackMaps[color] = this.computeAttackMap(color);
+      this.validAttackMaps |= 1 << color;
+    }
+    return this.attackMaps[color];
+  }
+
+  /**
+   * Computes the squares attacked by all pieces of a team, see {@link #getAttackMap(PieceColor)}.
+   *
+   * @param color the color ordinal of the attacking team
+   * @return the attacked squares
+   */
+  private long computeAttackMap(int color) {
+    var occupied = this.occupied & ~this.pieceBitboards[pieceCode(KING, color ^ 1)];
+    var pawns = this.pieceBitboards[pieceCode(PAWN, color)];
+    var attacks = color == WHITE
+        ? (pawns << 9 & ~Bitboards.FILE_A) | (pawns << 7 & ~Bitboards.FILE_H)
+        : (pawns >>> 7 & ~Bitboards.FILE_A) | (pawns >>> 9 & ~Bitboards.FILE_H);
+    for (var type = 0; type < PIECE_TYPES.length; type++) {
+      if (type == PAWN) {
+        continue;
+      }
+      var pieces = this.pieceBitboards[pieceCode(type, color)];
+      while (pieces != 0) {
+        attacks |= this.attacks(type, color, Long.numberOfTrailingZeros(pieces), occupied);
+        pieces &= pieces - 1;
+      }
+    }
+    return attacks;
+  }
+
+  /**
+   * Computes the squares attacked by a piece.
+   *
+   * @param type     the piece type ordinal
+   * @param color    the piece color ordinal
+   * @param square   the square of the piece
+   * @param occupied the occupied squares blocking sliding pieces
+   * @return the attacked squares
+   */
+  private long attacks(int type, int color, int square, long occupied) {
+    if (type == PAWN) {
+      return Bitboards.PAWN_ATTACKS[color][square];
+    } else if (type == KNIGHT) {
+      return Bitboards.KNIGHT_ATTACKS[square];
+    } else if (type == KING) {
+      return Bitboards.KING_ATTACKS[square];
+    } else if (type == BISHOP) {
+      return Bitboards.bishopAttacks(square, occupied);
+    } else if (type == ROOK) {
+      return Bitboards.rookAttacks(square, occupied);
+    }
+    return Bitboards.queenAttacks(square, occupied);
+  }
+
+  /**
+   * Checks if a square is attacked by any piece of the given team.
+   *
+   * @param square   the square index
+   * @param by       the color ordinal of the attacking team
+   * @param occupied the occupied squares blocking sliding pieces
+   * @param removed  squares whose pieces do not attack, because they are captured
+   * @return true if the square is attacked, else false
+   */
+  private boolean isAttacked(int square, int by, long occupied, long removed) {
+    var remaining = ~removed;
+    var queens = this.pieceBitboards[pieceCode(QUEEN, by)];
+    var diagonal = (this.pieceBitboards[pieceCode(BISHOP, by)] | queens) & remaining;
+    var straight = (this.pieceBitboards[pieceCode(ROOK, by)] | queens) & remaining;
+    return (Bitboards.PAWN_ATTACKS[by ^ 1][square] & this.pieceBitboards[pieceCode(PAWN, by)]
+        & remaining) != 0
+        || (Bitboards.KNIGHT_ATTACKS[square] & this.pieceBitboards[pieceCode(KNIGHT, by)]
+        & remaining) != 0
+        || (Bitboards.KING_ATTACKS[square] & this.pieceBitboards[pieceCode(KING, by)]) != 0
+        || (Bitboards.bishopAttacks(square, occupied) & diagonal) != 0
+        || (Bitboards.rookAttacks(square, occupied) & straight) != 0;
+  }
+
+  /**
+   * Adds the pawn move and all promotions if the pawn reaches the last rank.
+   *
+   * @param list    the list to add the moves to
+   * @param from    the start square
+   * @param to      the end square
+   * @param capture if the pawn captures a piece
+   */
+  private void addPawnMoves(MoveList list, int from, int to, boolean capture) {
+    if ((1L << to & (Bitboards.RANK_1 | Bitboards.RANK_8)) != 0) {
+      list.add(Moves.encodePromotion(from, to, capture, PieceType.QUEEN));
+      list.add(Moves.encodePromotion(from, to, capture, PieceType.ROOK));
+      list.add(Moves.encodePromotion(from, to, capture, PieceType.BISHOP));
+      list.add(Moves.encodePromotion(from, to, capture, PieceType.KNIGHT));
+    } else {
+      list.add(Moves.encode(from, to, capture ? Moves.CAPTURE : Moves.QUIET));
+    }
+  }
+
+  /**
+   * Adds the castling move if it is allowed, see {@link #canCastle(int, int, int)}.
+   *
+   * @param list  the list to add the move to
+   * @param right the castling right
+   * @param from  the square of the king
+   * @param to    the square the king moves to
+   */
+  private void addCastling(MoveList list, int right, int from, int to) {
+    if (this.canCastle(right, from, to)) {
+      list.add(Moves.encode(from, to, to > from ? Moves.KING_CASTLE : Moves.QUEEN_CASTLE));
+    }
+  }
+
+  /**
+   * Checks if the castling right is still available, the squares between king and rook are empty
+   * and the king neither stands on, passes nor reaches an attacked square.
+   *
+   * @param right the castling right
+   * @param from  the square of the king
+   * @param to    the square the king moves to
+   * @return true if castling is allowed, else false
+   */
+  private boolean canCastle(int right, int from, int to) {
+    if ((this.castlingRights & right) == 0) {
+      return false;
+    }
+    var kingSide = to > from;
+    var rook = kingSide ? from + 3 : from - 4;
+    var between = kingSide ? 3L << (from + 1) : 7L << (rook + 1);
+    var us = this.currentTeam.ordinal();
+    if (this.squares[from] != pieceCode(KING, us) || this.squares[rook] != pieceCode(ROOK, us)
+        || (this.occupied & between) != 0) {
+      return false;
+    }
+    var passed = kingSide ? from + 1 : from - 1;
+    return (this.attackMap(us ^ 1) & (1L << from | 1L << passed | 1L << to)) == 0;
+  }
+
+  /**
+   * Adds the move to the list if it does not leave the own king in check.
+   *
+   * @param list the list to add the move to
+   * @param move the encoded move
+   */
+  private void addIfLegal(MoveList list, int move) {
+    if (this.keepsKingSafe(move)) {
+      list.add(move);
+    }
+  }
+
+  /**
+   * Checks if the move does not leave the own king in check. Instead of performing the move, the
+   * king square is tested for attackers with the occupancy after the move.
+   *
+   * @param move the encoded move
+   * @return true if the king is not attacked after the move, else false
+   */
+  private boolean keepsKingSafe(int move) {
+    var from = Moves.from(move);
+    var to = Moves.to(move);
+    var us = this.squares[from] & 1;
+    var removed = 1L << to;
+    var occupied = this.occupied & ~(1L << from) | removed;
+    if (Moves.flags(move) == Moves.EN_PASSANT) {
+      removed = 1L << (us == WHITE ? to - 8 : to + 8);
+      occupied &= ~removed;
+    }
+    var king = this.squares[from] >>> 1 == KING ? to
+        : Long.numberOfTrailingZeros(this.pieceBitboards[pieceCode(KING, us)]);
+    return king == 64 || !this.isAttacked(king, us ^ 1, occupied, removed);
+  }
+
+  /**
+   * Computes the Zobrist key of the current position from scratch.
+   *
+   * @return the Zobrist key
+   */
+  public long computeZobristKey() {
+    var key = 0L;
+    for (var square = 0; square < 64; square++) {
+      if (this.squares[square] != EMPTY) {
+        key ^= Zobrist.PIECE_SQUARE[this.squares[square]][square];
+      }
+    }
+    key ^= Zobrist.CASTLING[this.castlingRights] ^ this.enPassantKey();
+    if (this.currentTeam != PieceColor.W) {
+      key ^= Zobrist.BLACK_TO_MOVE;
+    }
+    return key;
+  }
+
+  /**
+   * Computes the Zobrist key of the pawns from scratch.
+   *
+   * @return the pawn key
+   */
+  public long computePawnKey() {
+    var key = 0L;
+    for (var square = 0; square < 64; square++) {
+      var piece = this.squares[square];
+      if (piece != EMPTY && piece >>> 1 == PAWN) {
+        key ^= Zobrist.PIECE_SQUARE[piece][square];
+      }
+    }
+    return key;
+  }
+
+  /**
+   * Computes the key of the current position in the Polyglot opening book format, see
+   * {@link Polyglot}. It is not updated with the moves, as books are only probed at the root.
+   *
+   * @return the Polyglot key
+   */
+  public long computePolyglotKey() {
+    var key = 0L;
+    for (var pieces = this.occupied; pieces != 0; pieces &= pieces - 1) {
+      var square = Long.numberOfTrailingZeros(pieces);
+      key ^= Polyglot.PIECE_SQUARE[this.squares[square]][square];
+    }
+    key ^= Polyglot.CASTLING[this.castlingRights];
+    if (this.canCaptureEnPassant()) {
+      key ^= Polyglot.EN_PASSANT[Bitboards.fileOf(this.enPassantSquare)];
+    }
+    if (this.currentTeam == PieceColor.W) {
+      key ^= Polyglot.WHITE_TO_MOVE;
+    }
+    return key;
+  }
+
+  /**
+   * Returns the key of the en passant file. Like in the Polyglot format the file is only part of
+   * the key if a pawn of the current team can capture en passant, so positions which only differ
+   * by an unusable en passant square get the same key.
+   *
+   * @return the key or 0 if no en passant capture is possible
+   */
+  private long enPassantKey() {
+    return this.canCaptureEnPassant() ? Zobrist.EN_PASSANT[Bitboards.fileOf(this.enPassantSquare)]
+        : 0L;
+  }
+
+  private boolean canCaptureEnPassant() {
+    return this.enPassantSquare != NO_SQUARE
+        && (Bitboards.PAWN_ATTACKS[this.currentTeam.ordinal() ^ 1][this.enPassantSquare]
+        & this.pieceBitboards[pieceCode(PAWN, this.currentTeam.ordinal())]) != 0;
+  }
+
+  private void verifyZobristKey(int move) {
+    var expected = this.computeZobristKey();
+    if (this.hash != expected) {
+      throw new IllegalStateException("Zobrist key " + Long.toHexString(this.hash)
+          + " differs from " + Long.toHexString(expected) + " after " + Moves.toString(move));
+    }
+    if (this.pawnKey != this.computePawnKey()) {
+      throw new IllegalStateException("Pawn key differs after " + Moves.toString(move));
+    }
+  }
+
+  /**
+   * Places a piece on the given position.
+   *
+   * @param position the position
+   * @param piece    the piece
+   */
+  private void put(Position position, Piece piece) {
+    this.putPiece(position.square(), pieceCode(piece.getPieceType(), piece.getPieceColor()));
+  }
+
+  private void putPiece(int square, int piece) {
+    var bit = 1L << square;
+    this.hash ^= Zobrist.PIECE_SQUARE[piece][square];
+    if (piece >>> 1 == PAWN) {
+      this.pawnKey ^= Zobrist.PIECE_SQUARE[piece][square];
+    }
+    this.midgame += PieceSquareTables.MIDGAME[piece][square];
+    this.endgame += PieceSquareTables.ENDGAME[piece][square];
+    this.phase += PieceSquareTables.PHASE[piece];
+    this.validAttackMaps = 0;
+    this.pieceBitboards[piece] |= bit;
+    this.teamBitboards[piece & 1] |= bit;
+    this.occupied |= bit;
+    this.squares[square] = piece;
+  }
+
+  private void removePiece(int square) {
+    var piece = this.squares[square];
+    var bit = ~(1L << square);
+    this.hash ^= Zobrist.PIECE_SQUARE[piece][square];
+    if (piece >>> 1 == PAWN) {
+      this.pawnKey ^= Zobrist.PIECE_SQUARE[piece][square];
+    }
+    this.midgame -= PieceSquareTables.MIDGAME[piece][square];
+    this.endgame -= PieceSquareTables.ENDGAME[piece][square];
+    this.phase -= PieceSquareTables.PHASE[piece];
+    this.validAttackMaps = 0;
+    this.pieceBitboards[piece] &= bit;
+    this.teamBitboards[piece & 1] &= bit;
+    this.occupied &= bit;
+    this.squares[square] = EMPTY;
+  }
+
+  private void movePiece(int from, int to) {
+    var piece = this.squares[from];
+    this.removePiece(from);
+    this.putPiece(to, piece);
+  }
+
+  private void setCastlingRight(int right, boolean allowed) {
+    this.castlingRights = allowed ? this.castlingRights | right : this.castlingRights & ~right;
+    this.hash = this.computeZobristKey();
+    this.changed();
+  }
+
+  /**
+   * Invalidates the cached views after the state of the board changed.
+   */
+  private void changed() {
+    this.positions = null;
+    this.availableMoves = null;
+  }
+
+  private Piece createPiece(int piece) {
+    return Piece.create(PIECE_TYPES[piece >>> 1], PIECE_COLORS[piece & 1]);
+  }
+
 }
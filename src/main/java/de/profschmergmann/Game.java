@@ -2,6 +2,8 @@ package de.profschmergmann;
 
 import de.profschmergmann.pieces.Piece;
 import de.profschmergmann.pieces.Piece.PieceColor;
+import de.profschmergmann.pieces.Piece.PieceType;
+import de.profschmergmann.players.Clock;
 import de.profschmergmann.players.Player;
 import java.util.ArrayList;
 import java.util.List;
@@ -35,7 +37,7 @@ public class Game {
   }
 
   public PieceColor getTurn() {
-    return this.turn;
+    return this.currentBoard.getCurrentTeam();
   }
 
   public Result getResult() {
@@ -46,18 +48,29 @@ public class Game {
     return this.checkStatus;
   }
 
+  /**
+   * Getter for the remaining time of a team.
+   *
+   * @param team the team
+   * @return the remaining time in milliseconds or -1 if the game has no time control
+   */
+  public long getRemainingTime(PieceColor team) {
+    return this.remainingTime != null ? this.remainingTime[team.ordinal()] : -1;
+  }
+
   private final List<Move> playedMoves;
+  private final MoveList moveList = new MoveList();
   private final Player player1;
   private final Player player2;
-  private final PieceColor turn;
   private Result result;
   private CheckStatus checkStatus;
+  private long[] remainingTime;
+  private long increment;
 
   public Game(Player player1, Player player2, String startingFEN) {
     this.player1 = player1;
     this.player2 = player2;
     this.playedMoves = new ArrayList<>();
-    this.turn = Piece.PieceColor.W;
     this.result = null;
     this.checkStatus = CheckStatus.NONE;
     if (startingFEN != null) {
@@ -77,7 +90,19 @@ public class Game {
    * @return true if the move worked, else false
    */
   public boolean move(Position from, Position to) {
-    var move = this.currentBoard.move(from, to);
+    return this.move(from, to, PieceType.QUEEN);
+  }
+
+  /**
+   * Method for performing a move inside the current game.
+   *
+   * @param from      the {@link Position} from where the move should be performed
+   * @param to        the {@link Position} to where the move should be performed
+   * @param promotion the piece type a pawn reaching the last rank is promoted to
+   * @return true if the move worked, else false
+   */
+  public boolean move(Position from, Position to, PieceType promotion) {
+    var move = this.currentBoard.move(from, to, promotion);
     if (move != null) {
       LOGGER.log(Level.FINE, "Moved a piece from " + from + " to: " + to);
       this.addMove(move);
@@ -86,8 +111,93 @@ public class Game {
     return false;
   }
 
+  /**
+   * Starts the clocks of both teams with a sudden death time control. The time of the engines is
+   * measured in {@link #playNextMove()}.
+   *
+   * @param millis    the time of each team in milliseconds
+   * @param increment the increment per move in milliseconds
+   */
+  public void setTimeControl(long millis, long increment) {
+    this.remainingTime = new long[]{millis, millis};
+    this.increment = increment;
+  }
+
+  /**
+   * Lets the engine of the player whose turn it is choose a move and performs it. If the clock
+   * of the player runs out, the game is lost on time.
+   *
+   * @return true if a move was performed, else false
+   */
+  public boolean playNextMove() {
+    if (this.isEnded()) {
+      return false;
+    }
+    var team = this.getTurn();
+    var player = this.player1.pieceColor() == team ? this.player1 : this.player2;
+    if (this.remainingTime == null) {
+      var move = player.engine().makeMove(this.currentBoard);
+      return move != null && this.move(move.start(), move.end(), move.promotion());
+    }
+    var start = System.nanoTime();
+    var move = player.engine().makeMove(this.currentBoard,
+        new Clock(this.remainingTime[team.ordinal()], this.increment, 0));
+    var remaining = this.remainingTime[team.ordinal()] - (System.nanoTime() - start) / 1_000_000L;
+    if (remaining <= 0) {
+      LOGGER.log(Level.INFO, team + " lost on time!");
+      this.result = team == PieceColor.W ? Result.BLACK_WIN : Result.WHITE_WIN;
+      return false;
+    }
+    this.remainingTime[team.ordinal()] = remaining + this.increment;
+    return move != null && this.move(move.start(), move.end(), move.promotion());
+  }
+
   private void addMove(Move move) {
     this.playedMoves.add(move);
+    this.updateStatus();
+  }
+
+  /**
+   * Updates the check status after a move and ends the game on checkmate, stalemate, the
+   * fifty-move rule, threefold repetition or insufficient material.
+   */
+  private void updateStatus() {
+    var team = this.getTurn();
+    var white = team == PieceColor.W;
+    var inCheck = this.currentBoard.isInCheck(team);
+    this.currentBoard.generateMoves(this.moveList);
+    if (this.moveList.isEmpty()) {
+      this.checkStatus = !inCheck ? CheckStatus.NONE
+          : white ? CheckStatus.WHITE_CHECKMATED : CheckStatus.BLACK_CHECKMATED;
+      if (this.result == null) {
+        this.result = !inCheck ? Result.DRAW : white ? Result.BLACK_WIN : Result.WHITE_WIN;
+      }
+      return;
+    }
+    this.checkStatus = !inCheck ? CheckStatus.NONE
+        : white ? CheckStatus.WHITE_IN_CHECK : CheckStatus.BLACK_IN_CHECK;
+    if (this.result == null && (this.currentBoard.getHalfMoves() >= 100
+        || this.currentBoard.countRepetitions() >= 2 || this.isInsufficientMaterial())) {
+      this.result = Result.DRAW;
+    }
+  }
+
+  /**
+   * Checks if neither team can mate, which is the case if there are only the kings and at most
+   * one bishop or knight left.
+   */
+  private boolean isInsufficientMaterial() {
+    var board = this.currentBoard;
+    var minors = 0;
+    for (var color : PieceColor.values()) {
+      if ((board.getBitboard(PieceType.PAWN, color) | board.getBitboard(PieceType.ROOK, color)
+          | board.getBitboard(PieceType.QUEEN, color)) != 0) {
+        return false;
+      }
+      minors += Long.bitCount(board.getBitboard(PieceType.BISHOP, color)
+          | board.getBitboard(PieceType.KNIGHT, color));
+    }
+    return minors <= 1;
   }
 
   public boolean isEnded() {
@@ -95,13 +205,13 @@ public class Game {
   }
 
   public boolean isChecked() {
-    return this.turn == Piece.PieceColor.W ?
+    return this.getTurn() == Piece.PieceColor.W ?
         this.checkStatus.equals(CheckStatus.WHITE_IN_CHECK) :
         this.checkStatus.equals(CheckStatus.BLACK_IN_CHECK);
   }
 
   public boolean isCheckmated() {
-    return this.turn == Piece.PieceColor.W ?
+    return this.getTurn() == Piece.PieceColor.W ?
         this.checkStatus.equals(CheckStatus.WHITE_CHECKMATED) :
         this.checkStatus.equals(CheckStatus.BLACK_CHECKMATED);
   }
@@ -113,66 +223,7 @@ public class Game {
    * @return the current game as FEN Notation
    */
   public String getCurrentGameAsFENRecord() {
-    var board = new Piece[8][8];
-    this.currentBoard.getPositions().forEach((position, piece) -> {
-      var column = switch (position.file()) {
-        case 'a' -> 0;
-        case 'b' -> 1;
-        case 'c' -> 2;
-        case 'd' -> 3;
-        case 'e' -> 4;
-        case 'f' -> 5;
-        case 'g' -> 6;
-        case 'h' -> 7;
-        default -> 8;
-      };
-      board[position.rank() - 1][column] = piece;
-    });
-    var res = new StringBuilder();
-    var space = 0;
-    for (var i = 7; i >= 0; i--) {
-      space = 0;
-      for (var j = 0; j < board[i].length; j++) {
-        if (board[i][j] != null) {
-          if (space > 0) {
-            res.append(space);
-            space = 0;
-          }
-          res.append(board[i][j].toString());
-        } else {
-          space++;
-        }
-      }
-      if (space > 0) {
-        res.append(space);
-      }
-      res.append("/");
-    }
-    res.deleteCharAt(res.length() - 1)
-        .append("\s")
-        .append(this.currentBoard.getCurrentTeam().toString().toLowerCase())
-        .append("\s");
-    var castleTmp = "";
-    if (this.currentBoard.canWhiteCastleKingSide()) {
-      castleTmp += "K";
-    }
-    if (this.currentBoard.canWhiteCastleQueenSide()) {
-      castleTmp += "Q";
-    }
-    if (this.currentBoard.canBlackCastleKingSide()) {
-      castleTmp += "k";
-    }
-    if (this.currentBoard.canBlackCastleQueenSide()) {
-      castleTmp += "q";
-    }
-    res.append(!castleTmp.isEmpty() ? castleTmp : "-")
-        .append("\s")
-        .append(this.currentBoard.enPassantPossible() ? this.currentBoard.getEnPassant() : "-")
-        .append("\s")
-        .append(this.currentBoard.getHalfMoves())
-        .append("\s")
-        .append(this.currentBoard.getFullMoves());
-    return res.toString();
+    return this.currentBoard.toFen();
   }
 
   public enum Result {
@@ -0,0 +1,195 @@
+package de.profschmergmann;
+
+/**
+ * Magic bitboard tables for the sliding pieces, see
+ * <a href="https://www.chessprogramming.org/Magic_Bitboards">Magic Bitboards</a>.
+ * <p>
+ * The relevant blockers of a square are multiplied with a magic number, whose upper bits then
+ * form a perfect hash into a table of precomputed attack sets. A rook, bishop or queen attack set
+ * therefore costs one multiplication and one table lookup regardless of the occupancy. The magic
+ * numbers were found by a seeded random search and are hard coded, so only the attack tables are
+ * filled when the class is loaded.
+ */
+final class Magics {
+
+  private static final long[] ROOK_MAGICS = {
+      0x1080004008801020L, 0x0840092002C03000L, 0x1900200010400900L,
+      0x0880100008000480L, 0x4200100420080200L, 0x8100020100080400L,
+      0x0200040110886200L, 0x0200008040220411L, 0x0404800084400220L,
+      0x0000401000402000L, 0x0086001081220440L, 0x0408800800100280L,
+      0x000A001201040820L, 0x8848800200840080L, 0x4001000100040200L,
+      0x0442000102105084L, 0x9080010020804100L, 0x0040404000201009L,
+      0x0000808010002009L, 0x2200090021D00100L, 0x0008008008040080L,
+      0x0004004002010040L, 0x0011040008015042L, 0x00000A0001768104L,
+      0x0000800080204009L, 0x2010004140002001L, 0x9800200280100080L,
+      0x1000100080080080L, 0x0442000A00049020L, 0x2100040080020080L,
+      0x0800120400900148L, 0x0010040A00128541L, 0x2800804000800030L,
+      0x1010002000400041L, 0x4000200011004100L, 0x0610008410800800L,
+      0x0400802402800800L, 0xC100020080800400L, 0x0002000802000401L,
+      0x0182085882000401L, 0x0220204000808000L, 0x2860100040024022L,
+      0x0001002004110040L, 0x99101042000A0020L, 0x0004080004008080L,
+      0x0010040002008080L, 0x2012004881020004L, 0x8300842444820011L,
+      0x0088403882010200L, 0x0820400080210100L, 0x0110910040A00300L,
+      0x0801100280080480L, 0x0242009008200600L, 0x1002000489500200L,
+      0x0040800200010080L, 0x0091800041000080L, 0x0000209300488001L,
+      0x04C1002414824001L, 0x020020000B001041L, 0x7000100004200901L,
+      0x8002002004100802L, 0x30010002084C0007L, 0x0888221800813004L,
+      0x4000002840840112L
+  };
+  private static final long[] BISHOP_MAGICS = {
+      0xA010041108003100L, 0x006082020A002900L, 0x6810010619200000L,
+      0x08281A0520000408L, 0x0001104001000400L, 0x0018901008048400L,
+      0x00040A0210245280L, 0x000200210808A402L, 0x9140048410821200L,
+      0x0800091010820041L, 0x20504804832202C0L, 0x0100091401081000L,
+      0x8021011140000012L, 0x0810020804450400L, 0x208B0542109008A2L,
+      0x0080084A08040204L, 0x0040E2A80811244CL, 0x2505022008008108L,
+      0x0430220100420040L, 0x010A040420220040L, 0x1105000290400000L,
+      0x0093001200822120L, 0x4000A62048043004L, 0x280120048A015004L,
+      0x006090002A020814L, 0x44042000240800D0L, 0x01102800040A4400L,
+      0x1004080080220040L, 0x0001001011004024L, 0x0010044000805040L,
+      0x0914041200820100L, 0x0004821012821480L, 0x0024040500C05021L,
+      0x0088611002080200L, 0x0116080A00040020L, 0x4000020080080080L,
+      0x2450450140840040L, 0x0000880201484100L, 0x0222020404020092L,
+      0x8081110600002E00L, 0x2842101105000801L, 0x1100809008001025L,
+      0x00020202221C0400L, 0x0422014022009020L, 0x0210046102100C00L,
+      0xC004008082029102L, 0x00AA461801101200L, 0x0404080080201108L,
+      0x020542108C205002L, 0x0410544804100100L, 0x0040910841100000L,
+      0x0400200042021100L, 0x00004204850400C0L, 0x0200100410A42102L,
+      0x1040020801210102L, 0x0805040410420000L, 0x2884804130100200L,
+      0x800C262201242000L, 0x1058000194108800L, 0x0014221054420204L,
+      0x0104000012A02200L, 0x0200881003300100L, 0x0140400202840100L,
+      0x0402020801010201L
+  };
+  private static final long[] ROOK_MASKS = new long[64];
+  private static final long[] BISHOP_MASKS = new long[64];
+  private static final int[] ROOK_SHIFTS = new int[64];
+  private static final int[] BISHOP_SHIFTS = new int[64];
+  private static final int[] ROOK_OFFSETS = new int[64];
+  private static final int[] BISHOP_OFFSETS = new int[64];
+  private static final long[] ROOK_TABLE;
+  private static final long[] BISHOP_TABLE;
+
+  static {
+    ROOK_TABLE = init(true, ROOK_MAGICS, ROOK_MASKS, ROOK_SHIFTS, ROOK_OFFSETS);
+    BISHOP_TABLE = init(false, BISHOP_MAGICS, BISHOP_MASKS, BISHOP_SHIFTS, BISHOP_OFFSETS);
+  }
+
+  private Magics() {
+  }
+
+  /**
+   * Looks up the squares attacked by a rook.
+   *
+   * @param square   the square of the rook
+   * @param occupied all occupied squares
+   * @return the attacked squares including the first blocker of every ray
+   */
+  static long rookAttacks(int square, long occupied) {
+    return ROOK_TABLE[ROOK_OFFSETS[square]
+        + (int) ((occupied & ROOK_MASKS[square]) * ROOK_MAGICS[square] >>> ROOK_SHIFTS[square])];
+  }
+
+  /**
+   * Looks up the squares attacked by a bishop.
+   *
+   * @param square   the square of the bishop
+   * @param occupied all occupied squares
+   * @return the attacked squares including the first blocker of every ray
+   */
+  static long bishopAttacks(int square, long occupied) {
+    return BISHOP_TABLE[BISHOP_OFFSETS[square]
+        + (int) ((occupied & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]
+        >>> BISHOP_SHIFTS[square])];
+  }
+
+  /**
+   * Computes masks, shifts and offsets of one piece type and fills its attack table by
+   * enumerating every subset of the relevant blockers of each square.
+   *
+   * @param rook    true for the rook tables, false for the bishop tables
+   * @param magics  the magic numbers
+   * @param masks   the relevant blocker masks to fill
+   * @param shifts  the index shifts to fill
+   * @param offsets the table offsets to fill
+   * @return the attack table
+   */
+  private static long[] init(boolean rook, long[] magics, long[] masks, int[] shifts,
+      int[] offsets) {
+    var size = 0;
+    for (var square = 0; square < 64; square++) {
+      masks[square] = relevantBlockers(square, rook);
+      var bits = Long.bitCount(masks[square]);
+      shifts[square] = 64 - bits;
+      offsets[square] = size;
+      size += 1 << bits;
+    }
+    var table = new long[size];
+    for (var square = 0; square < 64; square++) {
+      var mask = masks[square];
+      var subset = 0L;
+      do {
+        var index = (int) (subset * magics[square] >>> shifts[square]);
+        table[offsets[square] + index] = attacks(square, subset, rook);
+        subset = (subset - mask) & mask;
+      } while (subset != 0);
+    }
+    return table;
+  }
+
+  /**
+   * Computes the squares whose occupancy changes the attack set, which are all ray squares
+   * except the last one on the edge of the board.
+   *
+   * @param square the square of the piece
+   * @param rook   true for a rook, false for a bishop
+   * @return the relevant blocker mask
+   */
+  private static long relevantBlockers(int square, boolean rook) {
+    var attacks = attacks(square, 0L, rook);
+    var edges = ((Bitboards.RANK_1 | Bitboards.RANK_8) & ~rankMask(square))
+        | ((Bitboards.FILE_A | Bitboards.FILE_H) & ~fileMask(square));
+    return attacks & ~edges;
+  }
+
+  private static long rankMask(int square) {
+    return Bitboards.RANK_1 << (Bitboards.rankOf(square) * 8);
+  }
+
+  private static long fileMask(int square) {
+    return Bitboards.FILE_A << Bitboards.fileOf(square);
+  }
+
+  private static long attacks(int square, long occupied, boolean rook) {
+    if (rook) {
+      return slide(square, occupied, 1, 0) | slide(square, occupied, -1, 0)
+          | slide(square, occupied, 0, 1) | slide(square, occupied, 0, -1);
+    }
+    return slide(square, occupied, 1, 1) | slide(square, occupied, 1, -1)
+        | slide(square, occupied, -1, 1) | slide(square, occupied, -1, -1);
+  }
+
+  /**
+   * Walks one ray from the given square until it leaves the board or hits a blocker.
+   *
+   * @param square    the starting square
+   * @param occupied  all occupied squares
+   * @param fileDelta the file step per iteration
+   * @param rankDelta the rank step per iteration
+   * @return the squares on the ray
+   */
+  private static long slide(int square, long occupied, int fileDelta, int rankDelta) {
+    var attacks = 0L;
+    var file = Bitboards.fileOf(square) + fileDelta;
+    var rank = Bitboards.rankOf(square) + rankDelta;
+    while (file >= 0 && file < 8 && rank >= 0 && rank < 8) {
+      var bit = 1L << (rank * 8 + file);
+      attacks |= bit;
+      if ((occupied & bit) != 0) {
+        break;
+      }
+      file += fileDelta;
+      rank += rankDelta;
+    }
+    return attacks;
+  }
+}
@@ -1,6 +1,8 @@
 package de.profschmergmann;
 
 import de.profschmergmann.pieces.Piece;
+import de.profschmergmann.pieces.Piece.PieceType;
+import java.util.Objects;
 
 /**
  * Record move for storing a possible or made move.
@@ -9,8 +11,22 @@ import de.profschmergmann.pieces.Piece;
  * @param end           the position where the move ends
  * @param piece         the moving piece
  * @param capturedPiece the captured piece if there is any
+ * @param promotion     the piece type a pawn is promoted to or null if there is no promotion
  */
-public record Move(Position start, Position end, Piece piece, Piece capturedPiece) {
+public record Move(Position start, Position end, Piece piece, Piece capturedPiece,
+                   PieceType promotion) {
+
+  /**
+   * Constructor for a move without promotion.
+   *
+   * @param start         the position where the move starts
+   * @param end           the position where the move ends
+   * @param piece         the moving piece
+   * @param capturedPiece the captured piece if there is any
+   */
+  public Move(Position start, Position end, Piece piece, Piece capturedPiece) {
+    this(start, end, piece, capturedPiece, null);
+  }
 
   @Override
   public boolean equals(Object o) {
@@ -25,13 +41,20 @@ public record Move(Position start, Position end, Piece piece, Piece capturedPiec
         this.start.equals(move.start) &&
         this.end.equals(move.end) &&
         this.piece.equals(move.piece) &&
-        this.capturedPiece == move.capturedPiece;
+        Objects.equals(this.capturedPiece, move.capturedPiece) &&
+        this.promotion == move.promotion;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.start, this.end, this.piece, this.capturedPiece, this.promotion);
   }
 
   @Override
   public String toString() {
     return (this.canAttack() ? "Can attack " : "Can move ")
-        + this.start + " -> " + this.end + " with " + this.piece;
+        + this.start + " -> " + this.end + " with " + this.piece
+        + (this.promotion != null ? " promoting to " + this.promotion : "");
   }
 
   /**
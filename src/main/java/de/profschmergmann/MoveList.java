@@ -0,0 +1,66 @@
+package de.profschmergmann;
+
+/**
+ * Reusable buffer for encoded moves, see {@link Moves}. A search keeps one list per ply, so
+ * generating moves does not allocate.
+ */
+public class MoveList {
+
+  /**
+   * More than the maximum number of legal moves in any chess position.
+   */
+  public static final int CAPACITY = 256;
+  private final int[] moves;
+  private int size;
+
+  public MoveList() {
+    this.moves = new int[CAPACITY];
+  }
+
+  public void clear() {
+    this.size = 0;
+  }
+
+  public void add(int move) {
+    this.moves[this.size++] = move;
+  }
+
+  public int get(int index) {
+    return this.moves[index];
+  }
+
+  public int size() {
+    return this.size;
+  }
+
+  public boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  /**
+   * Swaps the moves at the given indices.
+   *
+   * @param i the first index
+   * @param j the second index
+   */
+  public void swap(int i, int j) {
+    var move = this.moves[i];
+    this.moves[i] = this.moves[j];
+    this.moves[j] = move;
+  }
+
+  /**
+   * Checks if the list contains the given move.
+   *
+   * @param move the encoded move
+   * @return true if the move is contained, else false
+   */
+  public boolean contains(int move) {
+    for (var i = 0; i < this.size; i++) {
+      if (this.moves[i] == move) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,119 @@
+package de.profschmergmann;
+
+import de.profschmergmann.pieces.Piece.PieceType;
+
+/**
+ * Helper for moves encoded as primitive ints, which the move generator of {@link Board} writes
+ * into a {@link MoveList} without allocating.
+ * <p>
+ * An encoded move uses 16 bits: the start square in bits 0 to 5, the end square in bits 6 to 11
+ * and the flags in bits 12 to 15, see
+ * <a href="https://www.chessprogramming.org/Encoding_Moves">Encoding Moves</a>. The flags
+ * {@link #CAPTURE} and {@link #PROMOTION} are single bits, promotions store the piece to promote
+ * to in the two lowest flag bits.
+ */
+public final class Moves {
+
+  /**
+   * No move, which can never be generated because start and end square are equal.
+   */
+  public static final int NONE = 0;
+  public static final int QUIET = 0;
+  public static final int DOUBLE_PAWN_PUSH = 1;
+  public static final int KING_CASTLE = 2;
+  public static final int QUEEN_CASTLE = 3;
+  public static final int CAPTURE = 4;
+  public static final int EN_PASSANT = 5;
+  public static final int PROMOTION = 8;
+  private static final PieceType[] PROMOTIONS = {PieceType.KNIGHT, PieceType.BISHOP,
+      PieceType.ROOK, PieceType.QUEEN};
+
+  private Moves() {
+  }
+
+  /**
+   * Encodes a move.
+   *
+   * @param from  the start square
+   * @param to    the end square
+   * @param flags the flags of the move
+   * @return the encoded move
+   */
+  public static int encode(int from, int to, int flags) {
+    return from | to << 6 | flags << 12;
+  }
+
+  /**
+   * Encodes a promotion.
+   *
+   * @param from      the start square
+   * @param to        the end square
+   * @param capture   if the promotion captures a piece
+   * @param promotion the piece type to promote to
+   * @return the encoded move
+   */
+  public static int encodePromotion(int from, int to, boolean capture, PieceType promotion) {
+    var flags = PROMOTION | (capture ? CAPTURE : 0) | switch (promotion) {
+      case KNIGHT -> 0;
+      case BISHOP -> 1;
+      case ROOK -> 2;
+      default -> 3;
+    };
+    return encode(from, to, flags);
+  }
+
+  public static int from(int move) {
+    return move & 0x3F;
+  }
+
+  public static int to(int move) {
+    return move >>> 6 & 0x3F;
+  }
+
+  public static int flags(int move) {
+    return move >>> 12 & 0xF;
+  }
+
+  public static boolean isCapture(int move) {
+    return (flags(move) & CAPTURE) != 0;
+  }
+
+  public static boolean isPromotion(int move) {
+    return (flags(move) & PROMOTION) != 0;
+  }
+
+  public static boolean isCastling(int move) {
+    var flags = flags(move);
+    return flags == KING_CASTLE || flags == QUEEN_CASTLE;
+  }
+
+  /**
+   * Returns the piece type a promotion promotes to.
+   *
+   * @param move the encoded move
+   * @return the piece type or null if the move is no promotion
+   */
+  public static PieceType promotion(int move) {
+    return isPromotion(move) ? PROMOTIONS[flags(move) & 3] : null;
+  }
+
+  /**
+   * Returns the move in the long algebraic notation of the UCI protocol, like e2e4 or e7e8q.
+   *
+   * @param move the encoded move
+   * @return the notation
+   */
+  public static String toString(int move) {
+    var res = Position.of(from(move)).toString() + Position.of(to(move));
+    var promotion = promotion(move);
+    if (promotion != null) {
+      res += switch (promotion) {
+        case KNIGHT -> "n";
+        case BISHOP -> "b";
+        case ROOK -> "r";
+        default -> "q";
+      };
+    }
+    return res;
+  }
+}
@@ -0,0 +1,102 @@
+package de.profschmergmann;
+
+import de.profschmergmann.pieces.Piece.PieceColor;
+import de.profschmergmann.pieces.Piece.PieceType;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Scanner;
+
+/**
+ * Piece values and piece-square tables for a
+ * <a href="https://www.chessprogramming.org/Tapered_Eval">tapered evaluation</a>, which blends a
+ * middlegame and an endgame score by the material left on the board. {@link Board} keeps the sums
+ * of all pieces up to date with every move.
+ * <p>
+ * The tables are loaded from the resource {@code pst.txt} next to this class or from the file
+ * given by the system property {@code schachki.pieceSquareTables}, so they can be tuned without
+ * rebuilding.
+ */
+public final class PieceSquareTables {
+
+  /**
+   * Values from the view of white including the piece value, indexed by piece code, see
+   * {@link Board#pieceCode}, and square. Values of black pieces are negative.
+   */
+  public static final int[][] MIDGAME = new int[12][64];
+  /**
+   * Endgame values like {@link #MIDGAME}.
+   */
+  public static final int[][] ENDGAME = new int[12][64];
+  /**
+   * Phase weights indexed by piece code.
+   */
+  public static final int[] PHASE = new int[12];
+  /**
+   * The phase of the starting position, which is a pure middlegame. Phase 0 is a pure endgame.
+   */
+  public static final int MAX_PHASE;
+  private static final String RESOURCE = "pst.txt";
+
+  static {
+    var file = System.getProperty("schachki.pieceSquareTables");
+    try (var in = file != null ? Files.newInputStream(Path.of(file))
+        : PieceSquareTables.class.getResourceAsStream(RESOURCE)) {
+      if (in == null) {
+        throw new IllegalStateException("Missing resource " + RESOURCE);
+      }
+      load(in);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    MAX_PHASE = 16 * PHASE[Board.pieceCode(PieceType.PAWN, PieceColor.W)]
+        + 4 * PHASE[Board.pieceCode(PieceType.KNIGHT, PieceColor.W)]
+        + 4 * PHASE[Board.pieceCode(PieceType.BISHOP, PieceColor.W)]
+        + 4 * PHASE[Board.pieceCode(PieceType.ROOK, PieceColor.W)]
+        + 2 * PHASE[Board.pieceCode(PieceType.QUEEN, PieceColor.W)]
+        + 2 * PHASE[Board.pieceCode(PieceType.KING, PieceColor.W)];
+  }
+
+  private PieceSquareTables() {
+  }
+
+  /**
+   * Reads the values and tables of all pieces, see the format described in the resource file.
+   *
+   * @param in the stream to read
+   */
+  private static void load(InputStream in) {
+    var scanner = new Scanner(new InputStreamReader(in, StandardCharsets.UTF_8));
+    var loaded = 0;
+    while (scanner.hasNextLine()) {
+      var line = scanner.nextLine().strip();
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+      var header = line.split("\\s+");
+      var type = PieceType.valueOf(header[0].toUpperCase(Locale.ROOT));
+      var white = Board.pieceCode(type, PieceColor.W);
+      var black = Board.pieceCode(type, PieceColor.B);
+      PHASE[white] = PHASE[black] = Integer.parseInt(header[3]);
+      for (var table = 0; table < 2; table++) {
+        var value = Integer.parseInt(header[1 + table]);
+        var values = table == 0 ? MIDGAME : ENDGAME;
+        // the rows are written from rank 8 down, so the first entry belongs to a8 = 56
+        for (var i = 0; i < 64; i++) {
+          var score = value + scanner.nextInt();
+          values[white][i ^ 56] = score;
+          values[black][i] = -score;
+        }
+      }
+      loaded |= 1 << type.ordinal();
+    }
+    if (loaded != (1 << PieceType.values().length) - 1) {
+      throw new IllegalStateException("Piece-square tables are incomplete!");
+    }
+  }
+}
@@ -9,6 +9,13 @@ import java.util.logging.Logger;
 public record Position(char file, int rank) implements Comparable<Position> {
 
   private static final Logger LOGGER = Logger.getLogger(Position.class.getName());
+  private static final Position[] SQUARES = new Position[64];
+
+  static {
+    for (var square = 0; square < 64; square++) {
+      SQUARES[square] = new Position((char) ('a' + (square & 7)), (square >>> 3) + 1);
+    }
+  }
 
   /**
    * Constructor which checks for file and rank and logs if they are out of bounds.
@@ -25,6 +32,25 @@ public record Position(char file, int rank) implements Comparable<Position> {
     }
   }
 
+  /**
+   * Returns the cached position of a square index.
+   *
+   * @param square the square index between 0 (a1) and 63 (h8)
+   * @return the position of the square
+   */
+  public static Position of(int square) {
+    return SQUARES[square];
+  }
+
+  /**
+   * Returns the square index of this position as used by the bitboards of {@link Board}.
+   *
+   * @return the square index between 0 (a1) and 63 (h8)
+   */
+  public int square() {
+    return Bitboards.square(this.file, this.rank);
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
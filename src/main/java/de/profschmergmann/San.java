@@ -0,0 +1,188 @@
+package de.profschmergmann;
+
+import de.profschmergmann.pieces.Piece.PieceType;
+
+/**
+ * Conversion between encoded moves and the
+ * <a href="https://www.chessprogramming.org/Algebraic_Chess_Notation#SAN">Standard Algebraic
+ * Notation</a> used by PGN and EPD files, like {@code Nbd7}, {@code exd8=Q+} or {@code O-O}.
+ */
+public final class San {
+
+  /**
+   * The letters of the piece types indexed by their ordinal.
+   */
+  private static final String PIECE_LETTERS = "PKQRBN";
+  private static final PieceType[] PIECE_TYPES = PieceType.values();
+
+  private San() {
+  }
+
+  /**
+   * Finds the legal move of the board which is written in SAN. Check and annotation symbols at
+   * the end are ignored, castling may also be written with zeros.
+   *
+   * @param board the board, which is not changed
+   * @param san   the move in SAN
+   * @return the encoded move or {@link Moves#NONE} if the move is invalid, illegal or ambiguous
+   */
+  public static int parse(Board board, CharSequence san) {
+    return parse(board, san, 0, san.length(), new MoveList());
+  }
+
+  /**
+   * Finds the legal move of the board which is written in SAN in a part of the characters, see
+   * {@link #parse(Board, CharSequence)}. Nothing is allocated, so games can be replayed quickly.
+   *
+   * @param board the board, which is not changed
+   * @param san   the characters containing the move
+   * @param start the index of the first character of the move
+   * @param end   the index after the last character of the move
+   * @param list  the list used to generate the legal moves
+   * @return the encoded move or {@link Moves#NONE} if the move is invalid, illegal or ambiguous
+   */
+  public static int parse(Board board, CharSequence san, int start, int end, MoveList list) {
+    while (end > start && "+#!?".indexOf(san.charAt(end - 1)) >= 0) {
+      end--;
+    }
+    if (end - start < 2) {
+      return Moves.NONE;
+    }
+    board.generateMoves(list);
+    var first = san.charAt(start);
+    if (first == 'O' || first == '0') {
+      var queenSide = end - start == 5;
+      if (!queenSide && end - start != 3) {
+        return Moves.NONE;
+      }
+      for (var i = 0; i < list.size(); i++) {
+        var move = list.get(i);
+        if (Moves.flags(move) == (queenSide ? Moves.QUEEN_CASTLE : Moves.KING_CASTLE)) {
+          return move;
+        }
+      }
+      return Moves.NONE;
+    }
+    PieceType promotion = null;
+    var last = san.charAt(end - 1);
+    if ("QRBN".indexOf(last) >= 0) {
+      promotion = PIECE_TYPES[PIECE_LETTERS.indexOf(last)];
+      end -= san.charAt(end - 2) == '=' ? 2 : 1;
+    }
+    var type = PIECE_LETTERS.indexOf(first);
+    if (type >= 0) {
+      start++;
+    } else {
+      type = PieceType.PAWN.ordinal();
+    }
+    if (end - start < 2) {
+      return Moves.NONE;
+    }
+    var file = san.charAt(end - 2);
+    var rank = san.charAt(end - 1);
+    if (file < 'a' || file > 'h' || rank < '1' || rank > '8') {
+      return Moves.NONE;
+    }
+    var to = Bitboards.square(file, rank - '0');
+    // the characters before the target square may give the file and rank of the start square
+    var fromFile = -1;
+    var fromRank = -1;
+    for (var i = start; i < end - 2; i++) {
+      var ch = san.charAt(i);
+      if (ch >= 'a' && ch <= 'h') {
+        fromFile = ch - 'a';
+      } else if (ch >= '1' && ch <= '8') {
+        fromRank = ch - '1';
+      } else if (ch != 'x' && ch != ':' && ch != '-') {
+        return Moves.NONE;
+      }
+    }
+    var found = Moves.NONE;
+    for (var i = 0; i < list.size(); i++) {
+      var move = list.get(i);
+      var from = Moves.from(move);
+      if (Moves.to(move) != to || board.getPieceCode(from) >>> 1 != type
+          || Moves.isCastling(move)
+          || fromFile >= 0 && Bitboards.fileOf(from) != fromFile
+          || fromRank >= 0 && Bitboards.rankOf(from) != fromRank
+          || (Moves.isPromotion(move) ? Moves.promotion(move) != promotion : promotion != null)) {
+        continue;
+      }
+      if (found != Moves.NONE) {
+        return Moves.NONE;
+      }
+      found = move;
+    }
+    return found;
+  }
+
+  /**
+   * Writes a legal move of the board in SAN including the check and mate symbols.
+   *
+   * @param board the board, which is the same again afterwards
+   * @param move  the encoded legal move
+   * @return the move in SAN
+   */
+  public static String toString(Board board, int move) {
+    var san = new StringBuilder(8);
+    var from = Moves.from(move);
+    var to = Moves.to(move);
+    var type = board.getPieceCode(from) >>> 1;
+    if (Moves.isCastling(move)) {
+      san.append(Moves.flags(move) == Moves.KING_CASTLE ? "O-O" : "O-O-O");
+    } else {
+      if (type == PieceType.PAWN.ordinal()) {
+        if (Moves.isCapture(move)) {
+          san.append((char) ('a' + Bitboards.fileOf(from)));
+        }
+      } else {
+        san.append(PIECE_LETTERS.charAt(type));
+        appendDisambiguation(board, move, type, san);
+      }
+      if (Moves.isCapture(move)) {
+        san.append('x');
+      }
+      san.append((char) ('a' + Bitboards.fileOf(to))).append(Bitboards.rankOf(to) + 1);
+      if (Moves.isPromotion(move)) {
+        san.append('=').append(PIECE_LETTERS.charAt(Moves.promotion(move).ordinal()));
+      }
+    }
+    board.makeMove(move);
+    if (board.isInCheck(board.getCurrentTeam())) {
+      var replies = new MoveList();
+      board.generateMoves(replies);
+      san.append(replies.size() == 0 ? '#' : '+');
+    }
+    board.unmakeMove();
+    return san.toString();
+  }
+
+  /**
+   * Appends the file, rank or both of the start square if another piece of the same type can
+   * move to the same square.
+   */
+  private static void appendDisambiguation(Board board, int move, int type, StringBuilder san) {
+    var from = Moves.from(move);
+    var list = new MoveList();
+    board.generateMoves(list);
+    var sameFile = false;
+    var sameRank = false;
+    var ambiguous = false;
+    for (var i = 0; i < list.size(); i++) {
+      var other = Moves.from(list.get(i));
+      if (Moves.to(list.get(i)) != Moves.to(move) || other == from
+          || board.getPieceCode(other) >>> 1 != type) {
+        continue;
+      }
+      ambiguous = true;
+      sameFile |= Bitboards.fileOf(other) == Bitboards.fileOf(from);
+      sameRank |= Bitboards.rankOf(other) == Bitboards.rankOf(from);
+    }
+    if (ambiguous && (!sameFile || sameRank)) {
+      san.append((char) ('a' + Bitboards.fileOf(from)));
+    }
+    if (sameFile) {
+      san.append(Bitboards.rankOf(from) + 1);
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package de.profschmergmann;
+
+/**
+ * Random keys for <a href="https://www.chessprogramming.org/Zobrist_Hashing">Zobrist
+ * hashing</a>. The key of a position is the XOR of the keys of all its pieces, the castling rights,
+ * the en passant file and the side to move, so {@link Board} can update it with a few XORs per
+ * move.
+ * <p>
+ * The keys come from a generator with a fixed seed, so keys stay the same between runs and can
+ * be stored in files like opening books.
+ */
+public final class Zobrist {
+
+  /**
+   * Keys indexed by piece code, see {@link Board#pieceCode}, and square.
+   */
+  public static final long[][] PIECE_SQUARE = new long[12][64];
+  /**
+   * Keys indexed by the castling rights bit set.
+   */
+  public static final long[] CASTLING = new long[16];
+  /**
+   * Keys indexed by the file of the en passant square.
+   */
+  public static final long[] EN_PASSANT = new long[8];
+  /**
+   * Key which is part of the hash when black has to move.
+   */
+  public static final long BLACK_TO_MOVE;
+  private static long seed = 0x5C4AC41L;
+
+  static {
+    for (var keys : PIECE_SQUARE) {
+      for (var i = 0; i < keys.length; i++) {
+        keys[i] = next();
+      }
+    }
+    // the castling keys are combined from the single rights, so removing one right is one XOR
+    var rights = new long[4];
+    for (var i = 0; i < rights.length; i++) {
+      rights[i] = next();
+    }
+    for (var i = 0; i < CASTLING.length; i++) {
+      for (var right = 0; right < rights.length; right++) {
+        if ((i & 1 << right) != 0) {
+          CASTLING[i] ^= rights[right];
+        }
+      }
+    }
+    for (var i = 0; i < EN_PASSANT.length; i++) {
+      EN_PASSANT[i] = next();
+    }
+    BLACK_TO_MOVE = next();
+  }
+
+  private Zobrist() {
+  }
+
+  /**
+   * SplitMix64 generator, see
+   * <a href="https://prng.di.unimi.it/splitmix64.c">splitmix64.c</a>.
+   *
+   * @return the next random key
+   */
+  private static long next() {
+    var z = (seed += 0x9E3779B97F4A7C15L);
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
@@ -0,0 +1,389 @@
+package de.profschmergmann.book;
+
+import de.profschmergmann.pieces.Piece.PieceColor;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds an {@link OpeningBook} from PGN files in bounded memory:
+ * <ol>
+ *   <li>the calling thread reads the games with a {@link PgnReader} and hands them in batches
+ *   to the workers through a bounded queue,</li>
+ *   <li>every worker replays the games with its own {@link PgnParser} and sums the weights of
+ *   the moves in its own {@link MoveStatistics},</li>
+ *   <li>a full map is sorted and written to a run file on disk and cleared,</li>
+ *   <li>all runs are merged into the sorted book file.</li>
+ * </ol>
+ * A move gets two points for every won game of its team and one point for every drawn or
+ * unknown game. The weights of a position are scaled down if they exceed the 16 bits of the
+ * book format, moves without points or with too few games are left out.
+ */
+public final class BookBuilder {
+
+  /**
+   * Default number of recorded plies per game.
+   */
+  public static final int DEFAULT_MAX_PLIES = 30;
+  /**
+   * Default number of entries every worker keeps in memory before it writes a run. The hash table
+   * needs 40 to 80 bytes per entry.
+   */
+  public static final int DEFAULT_RUN_ENTRIES = 1 << 20;
+  /**
+   * Games handed to a worker at once.
+   */
+  private static final int BATCH_SIZE = 64;
+  private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+  private final int maxPlies;
+  private final int minGames;
+  private final int threads;
+  private final int runEntries;
+  private final Path tempDirectory;
+
+  /**
+   * Constructor for a builder.
+   *
+   * @param maxPlies      the number of plies of every game which are added to the book
+   * @param minGames      the minimum number of games a move needs to be added to the book
+   * @param threads       the number of worker threads
+   * @param runEntries    the number of entries every worker keeps in memory
+   * @param tempDirectory the directory for the run files
+   */
+  public BookBuilder(int maxPlies, int minGames, int threads, int runEntries,
+      Path tempDirectory) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("At least one thread is needed: " + threads);
+    }
+    this.maxPlies = maxPlies;
+    this.minGames = minGames;
+    this.threads = threads;
+    this.runEntries = runEntries;
+    this.tempDirectory = tempDirectory;
+  }
+
+  /**
+   * Builds the book from all games of the PGN files.
+   *
+   * @param pgnFiles the PGN files
+   * @param book     the book file, which is replaced
+   * @return the statistics of the build
+   * @throws IOException if a file cannot be read or written
+   */
+  public Statistics build(List<Path> pgnFiles, Path book) throws IOException {
+    var start = System.nanoTime();
+    var queue = new ArrayBlockingQueue<List<String>>(this.threads * 4);
+    var runs = new ConcurrentLinkedQueue<Path>();
+    var pool = POOL_COUNTER.incrementAndGet();
+    var counter = new AtomicInteger();
+    var executor = Executors.newFixedThreadPool(this.threads, runnable -> {
+      var thread = new Thread(runnable, "book-" + pool + "-worker-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    try {
+      var workers = new ArrayList<Future<Worker>>();
+      for (var i = 0; i < this.threads; i++) {
+        workers.add(executor.submit(new Worker(queue, runs)::run));
+      }
+      try {
+        this.readGames(pgnFiles, queue, workers);
+      } finally {
+        // an empty batch tells a worker to finish
+        for (var i = 0; i < this.threads; i++) {
+          putBatch(queue, List.of(), workers);
+        }
+      }
+      var games = 0L;
+      var invalidGames = 0L;
+      var moves = 0L;
+      for (var future : workers) {
+        var worker = future.get();
+        games += worker.games;
+        invalidGames += worker.invalidGames;
+        moves += worker.moves;
+      }
+      var entries = this.merge(List.copyOf(runs), book);
+      return new Statistics(games, invalidGames, moves, runs.size(), entries,
+          System.nanoTime() - start);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while building the book", e);
+    } catch (ExecutionException e) {
+      throw e.getCause() instanceof IOException io ? io
+          : new IOException("Worker failed", e.getCause());
+    } finally {
+      executor.shutdownNow();
+      try {
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      for (var run : runs) {
+        Files.deleteIfExists(run);
+      }
+    }
+  }
+
+  private void readGames(List<Path> pgnFiles, BlockingQueue<List<String>> queue,
+      List<Future<Worker>> workers) throws IOException, InterruptedException {
+    var batch = new ArrayList<String>(BATCH_SIZE);
+    for (var file : pgnFiles) {
+      try (var reader = PgnReader.open(file)) {
+        String game;
+        while ((game = reader.nextGame()) != null) {
+          batch.add(game);
+          if (batch.size() == BATCH_SIZE) {
+            putBatch(queue, batch, workers);
+            batch = new ArrayList<>(BATCH_SIZE);
+          }
+        }
+      }
+    }
+    if (!batch.isEmpty()) {
+      putBatch(queue, batch, workers);
+    }
+  }
+
+  /**
+   * Puts a batch into the queue unless all workers already failed, which would block forever.
+   */
+  private static void putBatch(BlockingQueue<List<String>> queue, List<String> batch,
+      List<Future<Worker>> workers) throws InterruptedException {
+    while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+      if (workers.stream().allMatch(Future::isDone)) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Merges the sorted runs into the book, summing the entries of the same position and move.
+   *
+   * @return the number of book entries
+   */
+  private long merge(List<Path> runs, Path book) throws IOException {
+    var queue = new PriorityQueue<RunReader>((a, b) -> MoveStatistics.compare(a.key, a.move,
+        b.key, b.move));
+    var readers = new ArrayList<RunReader>();
+    try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(book),
+        1 << 16))) {
+      for (var run : runs) {
+        var reader = new RunReader(run);
+        readers.add(reader);
+        if (reader.next()) {
+          queue.add(reader);
+        }
+      }
+      var position = new PositionEntries();
+      while (!queue.isEmpty()) {
+        var reader = queue.poll();
+        var key = reader.key;
+        var move = reader.move;
+        var weight = (long) reader.weight;
+        var count = (long) reader.count;
+        if (reader.next()) {
+          queue.add(reader);
+        }
+        while (!queue.isEmpty() && queue.peek().key == key && queue.peek().move == move) {
+          var other = queue.poll();
+          weight += other.weight;
+          count += other.count;
+          if (other.next()) {
+            queue.add(other);
+          }
+        }
+        if (position.size > 0 && position.key != key) {
+          position.write(out);
+        }
+        if (count >= this.minGames && weight > 0) {
+          position.add(key, move, weight);
+        }
+      }
+      position.write(out);
+      return position.written;
+    } finally {
+      for (var reader : readers) {
+        reader.in.close();
+      }
+    }
+  }
+
+  /**
+   * Statistics of a build.
+   *
+   * @param games        the number of read games
+   * @param invalidGames the number of games with an invalid or illegal move
+   * @param moves        the number of added moves
+   * @param runs         the number of run files
+   * @param bookEntries  the number of entries in the book
+   * @param nanos        the time of the build in nanoseconds
+   */
+  public record Statistics(long games, long invalidGames, long moves, int runs, long bookEntries,
+                           long nanos) {
+
+    public double gamesPerSecond() {
+      return this.games / Math.max(this.nanos / 1e9, 1e-9);
+    }
+  }
+
+  /**
+   * Worker which parses batches of games until it gets an empty batch and writes its statistics
+   * into run files.
+   */
+  private final class Worker {
+
+    private final BlockingQueue<List<String>> queue;
+    private final Collection<Path> runs;
+    private final PgnParser parser = new PgnParser(BookBuilder.this.maxPlies);
+    private final MoveStatistics statistics = new MoveStatistics(BookBuilder.this.runEntries);
+    private long games;
+    private long invalidGames;
+    private long moves;
+
+    private Worker(BlockingQueue<List<String>> queue, Collection<Path> runs) {
+      this.queue = queue;
+      this.runs = runs;
+    }
+
+    private Worker run() throws IOException, InterruptedException {
+      while (true) {
+        var batch = this.queue.take();
+        if (batch.isEmpty()) {
+          break;
+        }
+        for (var game : batch) {
+          this.add(game);
+        }
+      }
+      if (this.statistics.size() > 0) {
+        this.writeRun();
+      }
+      return this;
+    }
+
+    private void add(String game) throws IOException {
+      this.games++;
+      if (!this.parser.parse(game)) {
+        this.invalidGames++;
+      }
+      var result = this.parser.getResult() == PgnParser.UNKNOWN ? PgnParser.DRAW
+          : this.parser.getResult();
+      for (var ply = 0; ply < this.parser.getPlies(); ply++) {
+        if (this.statistics.isFull()) {
+          this.writeRun();
+        }
+        var weight = this.parser.getTeam(ply) == PieceColor.W ? result
+            : PgnParser.WHITE_WINS - result;
+        this.statistics.add(this.parser.getKey(ply),
+            OpeningBook.toPolyglot(this.parser.getMove(ply)), weight);
+        this.moves++;
+      }
+    }
+
+    /**
+     * Writes the sorted entries into a new run file and clears the map. Every entry has the key,
+     * the move, the weight and the number of games.
+     */
+    private void writeRun() throws IOException {
+      var run = Files.createTempFile(BookBuilder.this.tempDirectory, "book-run", ".bin");
+      this.runs.add(run);
+      this.statistics.sort();
+      try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run),
+          1 << 16))) {
+        for (var i = 0; i < this.statistics.size(); i++) {
+          out.writeLong(this.statistics.key(i));
+          out.writeShort(this.statistics.move(i));
+          out.writeInt(this.statistics.weight(i));
+          out.writeInt(this.statistics.count(i));
+        }
+      }
+      this.statistics.clear();
+    }
+  }
+
+  /**
+   * Sequential reader of a run file.
+   */
+  private static final class RunReader {
+
+    private final DataInputStream in;
+    private long key;
+    private int move;
+    private int weight;
+    private int count;
+
+    private RunReader(Path run) throws IOException {
+      this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), 1 << 16));
+    }
+
+    private boolean next() throws IOException {
+      try {
+        this.key = this.in.readLong();
+      } catch (EOFException e) {
+        return false;
+      }
+      this.move = this.in.readUnsignedShort();
+      this.weight = this.in.readInt();
+      this.count = this.in.readInt();
+      return true;
+    }
+  }
+
+  /**
+   * The merged moves of one position, which are written together, so their weights can be
+   * scaled to 16 bits.
+   */
+  private static final class PositionEntries {
+
+    private long key;
+    private int[] moves = new int[64];
+    private long[] weights = new long[64];
+    private int size;
+    private long written;
+
+    private void add(long key, int move, long weight) {
+      if (this.size == this.moves.length) {
+        this.moves = Arrays.copyOf(this.moves, this.size * 2);
+        this.weights = Arrays.copyOf(this.weights, this.size * 2);
+      }
+      this.key = key;
+      this.moves[this.size] = move;
+      this.weights[this.size++] = weight;
+    }
+
+    private void write(DataOutputStream out) throws IOException {
+      var max = 0L;
+      for (var i = 0; i < this.size; i++) {
+        max = Math.max(max, this.weights[i]);
+      }
+      for (var i = 0; i < this.size; i++) {
+        var weight = max > 0xFFFF ? Math.max(this.weights[i] * 0xFFFF / max, 1) : this.weights[i];
+        out.writeLong(this.key);
+        out.writeShort(this.moves[i]);
+        out.writeShort((int) weight);
+        out.writeInt(0);
+      }
+      this.written += this.size;
+      this.size = 0;
+    }
+  }
+}
@@ -0,0 +1,162 @@
+package de.profschmergmann.book;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from a position key and a Polyglot move to the summed weight and the number of games
+ * of the move. It uses open addressing on primitive arrays, so adding a move allocates nothing,
+ * and it holds at most a fixed number of entries, after which the {@link BookBuilder} writes them
+ * to a sorted run and clears the map.
+ */
+final class MoveStatistics {
+
+  private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+  private final long[] keys;
+  /**
+   * The Polyglot moves, 0 marks an empty slot because no move starts and ends on a1.
+   */
+  private final int[] moves;
+  private final int[] weights;
+  private final int[] counts;
+  private final int maxEntries;
+  private final int shift;
+  private int size;
+
+  /**
+   * Constructor for a map with a fixed maximum number of entries.
+   *
+   * @param maxEntries the maximum number of entries, the table has at least twice as many slots
+   */
+  MoveStatistics(int maxEntries) {
+    var slots = Integer.highestOneBit(Math.max(maxEntries, 1)) << 2;
+    this.keys = new long[slots];
+    this.moves = new int[slots];
+    this.weights = new int[slots];
+    this.counts = new int[slots];
+    this.maxEntries = maxEntries;
+    this.shift = 64 - Integer.numberOfTrailingZeros(slots);
+  }
+
+  /**
+   * Adds the weight of one game to the move of a position.
+   *
+   * @param key    the Polyglot key of the position
+   * @param move   the Polyglot move
+   * @param weight the weight of the game
+   */
+  void add(long key, int move, int weight) {
+    var mask = this.moves.length - 1;
+    var slot = (int) ((key ^ move * GOLDEN) * GOLDEN >>> this.shift);
+    while (this.moves[slot] != 0) {
+      if (this.keys[slot] == key && this.moves[slot] == move) {
+        this.weights[slot] += weight;
+        this.counts[slot]++;
+        return;
+      }
+      slot = slot + 1 & mask;
+    }
+    this.keys[slot] = key;
+    this.moves[slot] = move;
+    this.weights[slot] = weight;
+    this.counts[slot] = 1;
+    this.size++;
+  }
+
+  int size() {
+    return this.size;
+  }
+
+  boolean isFull() {
+    return this.size >= this.maxEntries;
+  }
+
+  /**
+   * Moves all entries to the front of the arrays and sorts them by their unsigned key and move.
+   * Afterwards the entries can be read by their index until the map is cleared.
+   */
+  void sort() {
+    var next = 0;
+    for (var slot = 0; slot < this.moves.length; slot++) {
+      if (this.moves[slot] != 0) {
+        this.keys[next] = this.keys[slot];
+        this.moves[next] = this.moves[slot];
+        this.weights[next] = this.weights[slot];
+        this.counts[next] = this.counts[slot];
+        next++;
+      }
+    }
+    this.sort(0, this.size - 1);
+  }
+
+  long key(int index) {
+    return this.keys[index];
+  }
+
+  int move(int index) {
+    return this.moves[index];
+  }
+
+  int weight(int index) {
+    return this.weights[index];
+  }
+
+  int count(int index) {
+    return this.counts[index];
+  }
+
+  void clear() {
+    Arrays.fill(this.moves, 0);
+    this.size = 0;
+  }
+
+  /**
+   * Quicksort of the entries between both indices, recursing into the smaller part only.
+   */
+  private void sort(int low, int high) {
+    while (high - low > 0) {
+      var middle = low + high >>> 1;
+      var pivotKey = this.keys[middle];
+      var pivotMove = this.moves[middle];
+      var i = low;
+      var j = high;
+      while (i <= j) {
+        while (compare(this.keys[i], this.moves[i], pivotKey, pivotMove) < 0) {
+          i++;
+        }
+        while (compare(this.keys[j], this.moves[j], pivotKey, pivotMove) > 0) {
+          j--;
+        }
+        if (i <= j) {
+          this.swap(i++, j--);
+        }
+      }
+      if (j - low < high - i) {
+        this.sort(low, j);
+        low = i;
+      } else {
+        this.sort(i, high);
+        high = j;
+      }
+    }
+  }
+
+  static int compare(long key, int move, long otherKey, int otherMove) {
+    var result = Long.compareUnsigned(key, otherKey);
+    return result != 0 ? result : Integer.compare(move, otherMove);
+  }
+
+  private void swap(int i, int j) {
+    var key = this.keys[i];
+    this.keys[i] = this.keys[j];
+    this.keys[j] = key;
+    var move = this.moves[i];
+    this.moves[i] = this.moves[j];
+    this.moves[j] = move;
+    var weight = this.weights[i];
+    this.weights[i] = this.weights[j];
+    this.weights[j] = weight;
+    var count = this.counts[i];
+    this.counts[i] = this.counts[j];
+    this.counts[j] = count;
+  }
+}
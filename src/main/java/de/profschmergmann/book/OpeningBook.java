@@ -0,0 +1,206 @@
+package de.profschmergmann.book;
+
+import de.profschmergmann.Bitboards;
+import de.profschmergmann.Board;
+import de.profschmergmann.Moves;
+import de.profschmergmann.pieces.Piece.PieceType;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.random.RandomGenerator;
+
+/**
+ * Opening book in the <a href="http://hgm.nubati.net/book_format.html">Polyglot</a> binary
+ * format. Every entry has 16 bytes in big endian order: the 64-bit key of the position, the
+ * 16-bit move, the 16-bit weight and 32 bits of learning data, which are ignored. The entries are
+ * sorted by their unsigned key.
+ * <p>
+ * The file is memory-mapped, so opening a book is instant and the entries stay off the heap. A
+ * lookup is a binary search on the mapped bytes and allocates nothing.
+ * <p>
+ * The keys are the Polyglot keys of {@link Board#computePolyglotKey()}, so books written by other
+ * programs can be used.
+ */
+public final class OpeningBook {
+
+  /**
+   * Size of one entry in bytes.
+   */
+  public static final int ENTRY_SIZE = 16;
+  /**
+   * Entries per mapped segment, a single mapping is limited to 2 GB.
+   */
+  private static final int SEGMENT_SHIFT = 26;
+  private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+  /**
+   * Promotion pieces by their Polyglot code, 0 means no promotion.
+   */
+  private static final PieceType[] PROMOTIONS = {null, PieceType.KNIGHT, PieceType.BISHOP,
+      PieceType.ROOK, PieceType.QUEEN};
+  private final MappedByteBuffer[] segments;
+  private final long entries;
+
+  private OpeningBook(MappedByteBuffer[] segments, long entries) {
+    this.segments = segments;
+    this.entries = entries;
+  }
+
+  /**
+   * Memory-maps a book file.
+   *
+   * @param file the book file
+   * @return the book
+   * @throws IOException if the file cannot be mapped or its size is no multiple of the entry size
+   */
+  public static OpeningBook open(Path file) throws IOException {
+    try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      var size = channel.size();
+      if (size % ENTRY_SIZE != 0) {
+        throw new IOException("Size of " + file + " is no multiple of " + ENTRY_SIZE + " bytes");
+      }
+      var entries = size / ENTRY_SIZE;
+      var segments = new MappedByteBuffer[(int) ((entries + SEGMENT_MASK) >>> SEGMENT_SHIFT)];
+      for (var i = 0; i < segments.length; i++) {
+        var start = (long) i << SEGMENT_SHIFT;
+        var count = Math.min(entries - start, 1L << SEGMENT_SHIFT);
+        // the mapping stays valid after the channel is closed
+        segments[i] = channel.map(MapMode.READ_ONLY, start * ENTRY_SIZE, count * ENTRY_SIZE);
+      }
+      return new OpeningBook(segments, entries);
+    }
+  }
+
+  /**
+   * Getter for the number of entries.
+   *
+   * @return the number of entries
+   */
+  public long size() {
+    return this.entries;
+  }
+
+  /**
+   * Chooses a book move for the position with a probability proportional to its weight.
+   *
+   * @param board  the board, which is not changed
+   * @param random the random generator
+   * @return the encoded legal move or {@link Moves#NONE} if the position is not in the book
+   */
+  public int probe(Board board, RandomGenerator random) {
+    var key = board.computePolyglotKey();
+    var first = this.findFirst(key);
+    var total = 0L;
+    for (var i = first; i < this.entries && this.key(i) == key; i++) {
+      total += this.weight(i);
+    }
+    if (total == 0) {
+      return Moves.NONE;
+    }
+    var chosen = random.nextLong(total);
+    for (var i = first; ; i++) {
+      chosen -= this.weight(i);
+      if (chosen < 0) {
+        return toMove(board, this.move(i));
+      }
+    }
+  }
+
+  /**
+   * Returns the book move with the highest weight.
+   *
+   * @param board the board, which is not changed
+   * @return the encoded legal move or {@link Moves#NONE} if the position is not in the book
+   */
+  public int bestMove(Board board) {
+    var key = board.computePolyglotKey();
+    var best = -1L;
+    var bestWeight = 0;
+    for (var i = this.findFirst(key); i < this.entries && this.key(i) == key; i++) {
+      if (this.weight(i) > bestWeight) {
+        best = i;
+        bestWeight = this.weight(i);
+      }
+    }
+    return best < 0 ? Moves.NONE : toMove(board, this.move(best));
+  }
+
+  /**
+   * Converts an encoded move into a Polyglot move, where castling is written as the king
+   * capturing its own rook.
+   *
+   * @param move the encoded move
+   * @return the Polyglot move
+   */
+  public static int toPolyglot(int move) {
+    var from = Moves.from(move);
+    var to = Moves.to(move);
+    if (Moves.isCastling(move)) {
+      to = Moves.flags(move) == Moves.KING_CASTLE ? from + 3 : from - 4;
+    }
+    var promotion = 0;
+    if (Moves.isPromotion(move)) {
+      promotion = switch (Moves.promotion(move)) {
+        case KNIGHT -> 1;
+        case BISHOP -> 2;
+        case ROOK -> 3;
+        default -> 4;
+      };
+    }
+    return promotion << 12 | from << 6 | to;
+  }
+
+  /**
+   * Finds the legal move of the board which belongs to a Polyglot move.
+   *
+   * @param board    the board
+   * @param polyglot the Polyglot move
+   * @return the encoded move or {@link Moves#NONE} if it is not legal on the board
+   */
+  public static int toMove(Board board, int polyglot) {
+    var from = polyglot >>> 6 & 63;
+    var to = polyglot & 63;
+    var promotion = polyglot >>> 12 & 7;
+    // the king capturing its own rook on the first rank is castling
+    if (board.getPieceCode(from) >>> 1 == PieceType.KING.ordinal()
+        && Bitboards.fileOf(from) == 4 && Bitboards.rankOf(from) == Bitboards.rankOf(to)
+        && (Bitboards.fileOf(to) == 0 || Bitboards.fileOf(to) == 7)) {
+      to = Bitboards.fileOf(to) == 7 ? from + 2 : from - 2;
+    }
+    return board.findMove(from, to, promotion < PROMOTIONS.length ? PROMOTIONS[promotion] : null);
+  }
+
+  /**
+   * Finds the index of the first entry whose key is not less than the given key.
+   */
+  private long findFirst(long key) {
+    var low = 0L;
+    var high = this.entries;
+    while (low < high) {
+      var middle = (low + high) >>> 1;
+      if (Long.compareUnsigned(this.key(middle), key) < 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private long key(long index) {
+    return this.segments[(int) (index >>> SEGMENT_SHIFT)]
+        .getLong((int) (index & SEGMENT_MASK) * ENTRY_SIZE);
+  }
+
+  private int move(long index) {
+    return this.segments[(int) (index >>> SEGMENT_SHIFT)]
+        .getShort((int) (index & SEGMENT_MASK) * ENTRY_SIZE + 8) & 0xFFFF;
+  }
+
+  private int weight(long index) {
+    return this.segments[(int) (index >>> SEGMENT_SHIFT)]
+        .getShort((int) (index & SEGMENT_MASK) * ENTRY_SIZE + 10) & 0xFFFF;
+  }
+}
@@ -0,0 +1,255 @@
+package de.profschmergmann.book;
+
+import de.profschmergmann.Board;
+import de.profschmergmann.MoveList;
+import de.profschmergmann.Moves;
+import de.profschmergmann.San;
+import de.profschmergmann.pieces.Piece.PieceColor;
+
+/**
+ * Parser of the text of one PGN game, see {@link PgnReader}. The SAN moves are replayed on a
+ * board, which starts from the position of the {@code FEN} tag if there is one, and the moves
+ * with the Polyglot keys of the positions before them are recorded up to a maximum number of
+ * plies. Comments, variations and numeric annotations are skipped.
+ * <p>
+ * A parser reuses its board and arrays for every game, so it is not thread-safe.
+ */
+public final class PgnParser {
+
+  /**
+   * Results in points for white counted in half points.
+   */
+  public static final int BLACK_WINS = 0;
+  public static final int DRAW = 1;
+  public static final int WHITE_WINS = 2;
+  public static final int UNKNOWN = -1;
+  private final Board board = new Board();
+  private final MoveList list = new MoveList();
+  private final int[] moves;
+  private final long[] keys;
+  private int plies;
+  private int result;
+  private PieceColor startTeam;
+
+  /**
+   * Constructor for a parser which records the given number of plies of every game.
+   *
+   * @param maxPlies the maximum number of recorded plies, the rest of the moves is skipped
+   */
+  public PgnParser(int maxPlies) {
+    this.moves = new int[maxPlies];
+    this.keys = new long[maxPlies];
+  }
+
+  /**
+   * Parses the text of a game. Moves after an invalid or illegal move are skipped, the moves
+   * before it stay recorded.
+   *
+   * @param game the text of the game
+   * @return true if all recorded moves were valid, else false
+   */
+  public boolean parse(CharSequence game) {
+    this.board.setFen(null);
+    this.startTeam = PieceColor.W;
+    this.plies = 0;
+    this.result = UNKNOWN;
+    var valid = true;
+    var stopped = false;
+    var length = game.length();
+    var i = 0;
+    while (i < length) {
+      var ch = game.charAt(i);
+      if (ch == '[') {
+        i = this.parseTag(game, i + 1);
+      } else if (ch == '{') {
+        i = skipTo(game, i, '}');
+      } else if (ch == ';') {
+        i = skipTo(game, i, '\n');
+      } else if (ch == '(') {
+        i = skipVariation(game, i);
+      } else if (Character.isWhitespace(ch) || ch == ')' || ch == '}') {
+        i++;
+      } else {
+        var end = i;
+        while (end < length && !isDelimiter(game.charAt(end))) {
+          end++;
+        }
+        if (matches(game, i, end, "1-0")) {
+          this.result = WHITE_WINS;
+        } else if (matches(game, i, end, "0-1")) {
+          this.result = BLACK_WINS;
+        } else if (matches(game, i, end, "1/2-1/2")) {
+          this.result = DRAW;
+        } else if (!stopped && ch != '$' && ch != '*') {
+          // annotations and the unknown result are skipped, a move number may precede the move
+          var start = ch >= '1' && ch <= '9' ? skipMoveNumber(game, i, end) : i;
+          if (start < end && this.plies < this.moves.length) {
+            var move = San.parse(this.board, game, start, end, this.list);
+            if (move == Moves.NONE) {
+              valid = false;
+              stopped = true;
+            } else {
+              this.keys[this.plies] = this.board.computePolyglotKey();
+              this.moves[this.plies++] = move;
+              this.board.makeMove(move);
+            }
+          } else if (start < end) {
+            stopped = true;
+          }
+        }
+        i = end;
+      }
+    }
+    return valid;
+  }
+
+  /**
+   * Getter for the number of recorded plies of the last game.
+   *
+   * @return the number of plies
+   */
+  public int getPlies() {
+    return this.plies;
+  }
+
+  /**
+   * Returns a recorded move of the last game.
+   *
+   * @param ply the ply starting with 0
+   * @return the encoded move
+   */
+  public int getMove(int ply) {
+    return this.moves[ply];
+  }
+
+  /**
+   * Returns the Polyglot key of the position before a recorded move, see
+   * {@link Board#computePolyglotKey()}.
+   *
+   * @param ply the ply starting with 0
+   * @return the Polyglot key
+   */
+  public long getKey(int ply) {
+    return this.keys[ply];
+  }
+
+  /**
+   * Getter for the result of the last game from the result tag or the end of the move text.
+   *
+   * @return the points of white in half points or {@link #UNKNOWN}
+   */
+  public int getResult() {
+    return this.result;
+  }
+
+  /**
+   * Returns the team which made the move of a ply.
+   *
+   * @param ply the ply starting with 0
+   * @return the team
+   */
+  public PieceColor getTeam(int ply) {
+    return (ply & 1) == 0 ? this.startTeam
+        : this.startTeam == PieceColor.W ? PieceColor.B : PieceColor.W;
+  }
+
+  /**
+   * Parses a tag pair and returns the index after it. Only the {@code FEN} and {@code Result}
+   * tags are used.
+   */
+  private int parseTag(CharSequence game, int i) {
+    var length = game.length();
+    var nameStart = i;
+    while (i < length && !Character.isWhitespace(game.charAt(i)) && game.charAt(i) != ']') {
+      i++;
+    }
+    var nameEnd = i;
+    while (i < length && game.charAt(i) != '"' && game.charAt(i) != ']') {
+      i++;
+    }
+    var valueStart = ++i;
+    while (i < length && game.charAt(i) != '"') {
+      i += game.charAt(i) == '\\' ? 2 : 1;
+    }
+    var valueEnd = Math.min(i, length);
+    if (matches(game, nameStart, nameEnd, "FEN") && valueStart < valueEnd) {
+      this.board.setFen(game.subSequence(valueStart, valueEnd));
+    } else if (matches(game, nameStart, nameEnd, "Result")) {
+      if (matches(game, valueStart, valueEnd, "1-0")) {
+        this.result = WHITE_WINS;
+      } else if (matches(game, valueStart, valueEnd, "0-1")) {
+        this.result = BLACK_WINS;
+      } else if (matches(game, valueStart, valueEnd, "1/2-1/2")) {
+        this.result = DRAW;
+      }
+    }
+    this.startTeam = this.board.getCurrentTeam();
+    return skipTo(game, i, ']');
+  }
+
+  private static boolean isDelimiter(char ch) {
+    return Character.isWhitespace(ch) || ch == '{' || ch == '}' || ch == '(' || ch == ')'
+        || ch == ';' || ch == '[';
+  }
+
+  /**
+   * Skips the digits and dots of a move number like {@code 12.} or {@code 12...}.
+   */
+  private static int skipMoveNumber(CharSequence game, int start, int end) {
+    var i = start;
+    while (i < end && Character.isDigit(game.charAt(i))) {
+      i++;
+    }
+    if (i == end || game.charAt(i) != '.') {
+      // castling written with zeros starts with a digit as well
+      return start;
+    }
+    while (i < end && game.charAt(i) == '.') {
+      i++;
+    }
+    return i;
+  }
+
+  /**
+   * Returns the index after the next occurrence of the character.
+   */
+  private static int skipTo(CharSequence game, int i, char end) {
+    while (i < game.length() && game.charAt(i) != end) {
+      i++;
+    }
+    return i + 1;
+  }
+
+  /**
+   * Returns the index after a variation, which may contain nested variations and comments.
+   */
+  private static int skipVariation(CharSequence game, int i) {
+    var depth = 0;
+    while (i < game.length()) {
+      var ch = game.charAt(i);
+      if (ch == '{') {
+        i = skipTo(game, i, '}');
+        continue;
+      }
+      if (ch == '(') {
+        depth++;
+      } else if (ch == ')' && --depth == 0) {
+        return i + 1;
+      }
+      i++;
+    }
+    return i;
+  }
+
+  private static boolean matches(CharSequence game, int start, int end, String literal) {
+    if (end - start != literal.length()) {
+      return false;
+    }
+    for (var i = 0; i < literal.length(); i++) {
+      if (game.charAt(start + i) != literal.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
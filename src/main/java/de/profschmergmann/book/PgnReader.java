@@ -0,0 +1,86 @@
+package de.profschmergmann.book;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Streaming reader which splits a file in the
+ * <a href="https://www.chessprogramming.org/Portable_Game_Notation">PGN</a> format into the texts
+ * of its games, so only one game is held in memory at a time. The games are parsed by a
+ * {@link PgnParser}.
+ */
+public final class PgnReader implements Closeable {
+
+  private final BufferedReader reader;
+  /**
+   * The first tag line of the next game, which was read while looking for the end of a game.
+   */
+  private String pending;
+
+  /**
+   * Constructor for a reader of PGN text.
+   *
+   * @param reader the reader of the text
+   */
+  public PgnReader(Reader reader) {
+    this.reader = reader instanceof BufferedReader buffered ? buffered
+        : new BufferedReader(reader, 1 << 16);
+  }
+
+  /**
+   * Opens a PGN file. The file is decoded as ISO-8859-1 like the PGN standard demands, which
+   * never fails and keeps the ASCII move text intact for files in other encodings.
+   *
+   * @param file the file
+   * @return the reader
+   * @throws IOException if the file cannot be opened
+   */
+  public static PgnReader open(Path file) throws IOException {
+    return new PgnReader(new InputStreamReader(Files.newInputStream(file),
+        StandardCharsets.ISO_8859_1));
+  }
+
+  /**
+   * Reads the text of the next game, which consists of its tag pairs and its move text.
+   *
+   * @return the text of the game or null at the end of the input
+   * @throws IOException if reading fails
+   */
+  public String nextGame() throws IOException {
+    var game = new StringBuilder(1024);
+    if (this.pending != null) {
+      game.append(this.pending).append('\n');
+      this.pending = null;
+    }
+    var moveText = false;
+    String line;
+    while ((line = this.reader.readLine()) != null) {
+      if (line.startsWith("%")) {
+        // escaped lines are ignored
+        continue;
+      }
+      if (line.startsWith("[")) {
+        if (moveText) {
+          this.pending = line;
+          break;
+        }
+      } else if (!line.isBlank()) {
+        moveText = true;
+      }
+      game.append(line).append('\n');
+    }
+    var text = game.toString();
+    return text.isBlank() ? null : text;
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.reader.close();
+  }
+}
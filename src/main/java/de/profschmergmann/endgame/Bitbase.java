@@ -0,0 +1,312 @@
+package de.profschmergmann.endgame;
+
+import de.profschmergmann.Bitboards;
+import de.profschmergmann.Board;
+import de.profschmergmann.pieces.Piece.PieceColor;
+import de.profschmergmann.pieces.Piece.PieceType;
+import java.util.Arrays;
+
+/**
+ * Win/draw table of one endgame in which a strong team with its king and up to two further pieces
+ * plays against a lone king, see
+ * <a href="https://www.chessprogramming.org/Endgame_Bitbases">Endgame Bitbases</a>. The lone
+ * king can never win, so one bit per position tells if the strong team wins.
+ * <p>
+ * The positions are indexed from the view of white as the strong team with symmetry reduction:
+ * without pawns the strong king is mirrored into the triangle a1-d1-d4, which leaves 10 of 64
+ * squares, and with a pawn the pawn is mirrored onto the files a to d and the ranks 2 to 7, which
+ * leaves 24 squares. Every further piece adds a factor of 64 and the team to move a factor of 2,
+ * so KRK has 81,920 positions in 10 KB and KPK 196,608 positions in 24 KB. Squares which hold two
+ * pieces and other illegal positions are indexed as well and count as draws.
+ * <p>
+ * A table is filled once by the {@link BitbaseGenerator} or loaded by {@link Bitbases} and is
+ * immutable afterwards, so it can be probed by any number of threads.
+ */
+public final class Bitbase {
+
+  /**
+   * The number of the squares of the strong king in the triangle a1-d1-d4 for every square or -1.
+   */
+  private static final int[] TRIANGLE = new int[64];
+  /**
+   * The squares of the triangle a1-d1-d4 in the order of their numbers.
+   */
+  private static final int[] TRIANGLE_SQUARES = new int[10];
+  /**
+   * Symmetry flags, which are applied in this order.
+   */
+  private static final int FLIP_FILES = 1;
+  private static final int FLIP_RANKS = 2;
+  private static final int TRANSPOSE = 4;
+  private static final String PIECE_LETTERS = "PKQRBN";
+
+  static {
+    var count = 0;
+    for (var square = 0; square < 64; square++) {
+      var file = Bitboards.fileOf(square);
+      var rank = Bitboards.rankOf(square);
+      if (file < 4 && rank <= file) {
+        TRIANGLE_SQUARES[count] = square;
+        TRIANGLE[square] = count++;
+      } else {
+        TRIANGLE[square] = -1;
+      }
+    }
+  }
+
+  private final String name;
+  private final PieceType[] pieces;
+  private final boolean pawns;
+  private final int size;
+  private final long[] bits;
+  private long generationNanos;
+
+  /**
+   * Constructor for an empty table, in which every position is a draw.
+   *
+   * @param pieces the different pieces of the strong team besides its king, a pawn must be the
+   *               only piece
+   */
+  Bitbase(PieceType... pieces) {
+    if (pieces.length < 1 || pieces.length > 2) {
+      throw new IllegalArgumentException("One or two pieces are supported: " + pieces.length);
+    }
+    this.pawns = pieces[0] == PieceType.PAWN;
+    for (var i = 0; i < pieces.length; i++) {
+      if (pieces[i] == PieceType.KING
+          || i > 0 && (pieces[i] == PieceType.PAWN || this.pawns || pieces[i] == pieces[0])) {
+        throw new IllegalArgumentException("Unsupported material: " + Arrays.toString(pieces));
+      }
+    }
+    var name = new StringBuilder("K");
+    for (var piece : pieces) {
+      name.append(PIECE_LETTERS.charAt(piece.ordinal()));
+    }
+    this.name = name.append('K').toString();
+    this.pieces = pieces.clone();
+    this.size = (this.pawns ? 24 : 10) * 64 * (pieces.length == 2 ? 64 * 64 : 64) * 2;
+    this.bits = new long[(this.size + 63) / 64];
+  }
+
+  /**
+   * Creates an empty table for a name like {@code KRK} or {@code KBNK}.
+   *
+   * @param name the name
+   * @return the table
+   * @throws IllegalArgumentException if the name is no supported endgame
+   */
+  static Bitbase forName(String name) {
+    if (name.length() < 3 || name.length() > 4 || name.charAt(0) != 'K'
+        || name.charAt(name.length() - 1) != 'K') {
+      throw new IllegalArgumentException("Invalid bitbase name: " + name);
+    }
+    var pieces = new PieceType[name.length() - 2];
+    for (var i = 0; i < pieces.length; i++) {
+      var type = PIECE_LETTERS.indexOf(name.charAt(i + 1));
+      if (type < 0) {
+        throw new IllegalArgumentException("Invalid bitbase name: " + name);
+      }
+      pieces[i] = PieceType.values()[type];
+    }
+    return new Bitbase(pieces);
+  }
+
+  public String getName() {
+    return this.name;
+  }
+
+  /**
+   * Getter for the number of indexed positions.
+   *
+   * @return the number of positions
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Getter for the memory of the bits of the table.
+   *
+   * @return the size in bytes
+   */
+  public long getMemory() {
+    return this.bits.length * 8L;
+  }
+
+  /**
+   * Getter for the time the generation of this table took.
+   *
+   * @return the time in nanoseconds or 0 if the table was loaded
+   */
+  public long getGenerationNanos() {
+    return this.generationNanos;
+  }
+
+  void setGenerationNanos(long generationNanos) {
+    this.generationNanos = generationNanos;
+  }
+
+  /**
+   * Counts the positions which the strong team wins.
+   *
+   * @return the number of won positions
+   */
+  public long countWins() {
+    var wins = 0L;
+    for (var word : this.bits) {
+      wins += Long.bitCount(word);
+    }
+    return wins;
+  }
+
+  /**
+   * Checks if the board has the material of this table with the strong team of the given color.
+   *
+   * @param board  the board
+   * @param strong the color of the strong team
+   * @return true if the table covers the board
+   */
+  boolean matches(Board board, PieceColor strong) {
+    if (board.getBitboard(PieceType.KING, strong) == 0) {
+      return false;
+    }
+    var count = 1;
+    for (var piece : this.pieces) {
+      if (board.getBitboard(piece, strong) == 0) {
+        return false;
+      }
+      count++;
+    }
+    // distinct pieces were found, so the team has no other pieces if the count is the same
+    return Long.bitCount(board.getTeamBitboard(strong)) == count;
+  }
+
+  /**
+   * Checks if the strong team wins the position of the board, which must match the table.
+   *
+   * @param board  the board
+   * @param strong the color of the strong team
+   * @return true if the strong team wins, false if the position is a draw
+   */
+  boolean isWin(Board board, PieceColor strong) {
+    var weak = strong == PieceColor.W ? PieceColor.B : PieceColor.W;
+    // the ranks are flipped if black is the strong team, so the pawn moves up
+    var flip = strong == PieceColor.W ? 0 : 56;
+    var extra1 = Long.numberOfTrailingZeros(board.getBitboard(this.pieces[0], strong)) ^ flip;
+    var extra2 = this.pieces.length == 1 ? -1
+        : Long.numberOfTrailingZeros(board.getBitboard(this.pieces[1], strong)) ^ flip;
+    return this.isWin(this.index(
+        Long.numberOfTrailingZeros(board.getBitboard(PieceType.KING, strong)) ^ flip,
+        Long.numberOfTrailingZeros(board.getBitboard(PieceType.KING, weak)) ^ flip,
+        extra1, extra2, board.getCurrentTeam() == strong));
+  }
+
+  boolean isWin(int index) {
+    return (this.bits[index >>> 6] & 1L << index) != 0;
+  }
+
+  void setWin(int index) {
+    this.bits[index >>> 6] |= 1L << index;
+  }
+
+  long[] getBits() {
+    return this.bits;
+  }
+
+  PieceType getPiece(int i) {
+    return this.pieces[i];
+  }
+
+  int getPieceCount() {
+    return this.pieces.length;
+  }
+
+  boolean hasPawns() {
+    return this.pawns;
+  }
+
+  /**
+   * Computes the index of a position with white as the strong team.
+   *
+   * @param strongKing   the square of the strong king
+   * @param weakKing     the square of the weak king
+   * @param extra1       the square of the first piece, which is the pawn in a table with pawns
+   * @param extra2       the square of the second piece or -1 if the table has only one
+   * @param strongToMove if the strong team moves
+   * @return the index
+   */
+  int index(int strongKing, int weakKing, int extra1, int extra2, boolean strongToMove) {
+    int symmetry;
+    int index;
+    if (this.pawns) {
+      symmetry = Bitboards.fileOf(extra1) > 3 ? FLIP_FILES : 0;
+      var pawn = transform(extra1, symmetry);
+      index = ((Bitboards.rankOf(pawn) - 1) * 4 + Bitboards.fileOf(pawn)) * 64
+          + transform(strongKing, symmetry);
+      index = index * 64 + transform(weakKing, symmetry);
+    } else {
+      symmetry = (Bitboards.fileOf(strongKing) > 3 ? FLIP_FILES : 0)
+          | (Bitboards.rankOf(strongKing) > 3 ? FLIP_RANKS : 0);
+      var king = transform(strongKing, symmetry);
+      if (Bitboards.rankOf(king) > Bitboards.fileOf(king)) {
+        symmetry |= TRANSPOSE;
+        king = transform(strongKing, symmetry);
+      }
+      index = (TRIANGLE[king] * 64 + transform(weakKing, symmetry)) * 64
+          + transform(extra1, symmetry);
+    }
+    if (extra2 >= 0) {
+      index = index * 64 + transform(extra2, symmetry);
+    }
+    return index * 2 + (strongToMove ? 0 : 1);
+  }
+
+  /**
+   * Computes the squares of the position with an index, which is the reverse of
+   * {@link #index(int, int, int, int, boolean)}.
+   *
+   * @param index   the index
+   * @param squares filled with the squares of the strong king, the weak king and the pieces,
+   *                -1 for a missing second piece
+   * @return true if the strong team moves
+   */
+  boolean decode(int index, int[] squares) {
+    var strongToMove = (index & 1) == 0;
+    index >>>= 1;
+    if (this.pieces.length == 2) {
+      squares[3] = index & 63;
+      index >>>= 6;
+    } else {
+      squares[3] = -1;
+    }
+    if (this.pawns) {
+      squares[1] = index & 63;
+      squares[0] = index >>> 6 & 63;
+      var pawn = index >>> 12;
+      squares[2] = (pawn / 4 + 1) * 8 + pawn % 4;
+    } else {
+      squares[2] = index & 63;
+      squares[1] = index >>> 6 & 63;
+      squares[0] = TRIANGLE_SQUARES[index >>> 12];
+    }
+    return strongToMove;
+  }
+
+  private static int transform(int square, int symmetry) {
+    if ((symmetry & FLIP_FILES) != 0) {
+      square ^= 7;
+    }
+    if ((symmetry & FLIP_RANKS) != 0) {
+      square ^= 56;
+    }
+    if ((symmetry & TRANSPOSE) != 0) {
+      square = (square & 7) << 3 | square >>> 3;
+    }
+    return square;
+  }
+
+  @Override
+  public String toString() {
+    return this.name;
+  }
+}
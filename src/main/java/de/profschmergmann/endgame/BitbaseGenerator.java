@@ -0,0 +1,264 @@
+package de.profschmergmann.endgame;
+
+import de.profschmergmann.Bitboards;
+import de.profschmergmann.pieces.Piece.PieceColor;
+import de.profschmergmann.pieces.Piece.PieceType;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fills a {@link Bitbase} by
+ * <a href="https://www.chessprogramming.org/Retrograde_Analysis">retrograde analysis</a>. The
+ * first pass marks the mates as wins and the stalemates, illegal positions and positions in which
+ * the lone king can capture a piece as draws. Every further pass marks a position as won if the
+ * strong team has a move to a won position or if all moves of the lone king lead to won
+ * positions, until a pass finds no new wins. The remaining positions are draws.
+ * <p>
+ * The moves are generated with the attack tables of {@link Bitboards}, because the positions are
+ * only given by their squares. A pawn which promotes is looked up in the tables with a queen and a
+ * rook, which must be generated before; the other promotions never win against a lone king.
+ * <p>
+ * The passes are split into chunks of positions, which the threads take one by one. Results are
+ * only ever changed from unknown to won in a pass, so a thread reading a result which another
+ * thread is just writing at most delays a win to the next pass.
+ */
+final class BitbaseGenerator {
+
+  private static final byte UNKNOWN = 0;
+  private static final byte WIN = 1;
+  private static final byte DRAW = 2;
+  private static final int CHUNK_SIZE = 1 << 12;
+  private static final int WHITE = PieceColor.W.ordinal();
+  private final Bitbase table;
+  private final Bitbase[] promotions;
+  private final byte[] results;
+
+  /**
+   * Constructor for a generator of an empty table.
+   *
+   * @param table      the table to fill
+   * @param promotions the filled tables with the pawn replaced by a queen or rook
+   */
+  BitbaseGenerator(Bitbase table, Bitbase... promotions) {
+    this.table = table;
+    this.promotions = promotions;
+    this.results = new byte[table.size()];
+  }
+
+  /**
+   * Fills the table with all threads of the executor.
+   *
+   * @param executor the executor
+   * @param threads  the number of tasks run in parallel per pass
+   * @throws InterruptedException if the thread is interrupted while waiting for a pass
+   */
+  void generate(ExecutorService executor, int threads) throws InterruptedException {
+    var start = System.nanoTime();
+    this.runPass(executor, threads, true);
+    while (this.runPass(executor, threads, false)) {
+      // every pass adds the wins which are one ply longer
+    }
+    for (var index = 0; index < this.results.length; index++) {
+      if (this.results[index] == WIN) {
+        this.table.setWin(index);
+      }
+    }
+    this.table.setGenerationNanos(System.nanoTime() - start);
+  }
+
+  /**
+   * Runs a pass over all positions.
+   *
+   * @return true if a result changed
+   */
+  private boolean runPass(ExecutorService executor, int threads, boolean first)
+      throws InterruptedException {
+    var nextChunk = new AtomicInteger();
+    var tasks = new ArrayList<Callable<Boolean>>(threads);
+    for (var i = 0; i < threads; i++) {
+      tasks.add(() -> {
+        var squares = new int[4];
+        var changed = false;
+        int start;
+        while ((start = nextChunk.getAndIncrement() * CHUNK_SIZE) < this.results.length) {
+          var end = Math.min(start + CHUNK_SIZE, this.results.length);
+          for (var index = start; index < end; index++) {
+            changed |= first ? this.classify(index, squares) : this.update(index, squares);
+          }
+        }
+        return changed;
+      });
+    }
+    var changed = false;
+    for (var future : executor.invokeAll(tasks)) {
+      try {
+        changed |= future.get();
+      } catch (ExecutionException e) {
+        throw new IllegalStateException("Generation of " + this.table + " failed", e.getCause());
+      }
+    }
+    return changed;
+  }
+
+  /**
+   * Finds the results which do not depend on other positions.
+   *
+   * @return true if the result is known
+   */
+  private boolean classify(int index, int[] squares) {
+    var strongToMove = this.table.decode(index, squares);
+    var strongKing = squares[0];
+    var weakKing = squares[1];
+    var occupied = occupied(squares);
+    if (Long.bitCount(occupied) != this.table.getPieceCount() + 2
+        || (Bitboards.KING_ATTACKS[strongKing] & 1L << weakKing) != 0
+        || strongToMove && this.isAttacked(squares, weakKing, occupied, -1)) {
+      this.results[index] = DRAW;
+      return true;
+    }
+    if (strongToMove) {
+      return false;
+    }
+    var legalMoves = false;
+    var targets = Bitboards.KING_ATTACKS[weakKing] & ~Bitboards.KING_ATTACKS[strongKing];
+    for (; targets != 0; targets &= targets - 1) {
+      var to = Long.numberOfTrailingZeros(targets);
+      if (!this.isAttacked(squares, to, occupied ^ 1L << weakKing | 1L << to, to)) {
+        if ((occupied & 1L << to) != 0) {
+          // the remaining material cannot win
+          this.results[index] = DRAW;
+          return true;
+        }
+        legalMoves = true;
+      }
+    }
+    if (!legalMoves) {
+      this.results[index] = this.isAttacked(squares, weakKing, occupied, -1) ? WIN : DRAW;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Marks an unknown position as won if its moves lead to won positions.
+   *
+   * @return true if the position is won now
+   */
+  private boolean update(int index, int[] squares) {
+    if (this.results[index] != UNKNOWN) {
+      return false;
+    }
+    var strongToMove = this.table.decode(index, squares);
+    var win = strongToMove ? this.hasWinningMove(squares) : this.hasOnlyLosingMoves(squares);
+    if (win) {
+      this.results[index] = WIN;
+    }
+    return win;
+  }
+
+  private boolean hasWinningMove(int[] squares) {
+    var strongKing = squares[0];
+    var weakKing = squares[1];
+    var extra1 = squares[2];
+    var extra2 = squares[3];
+    var occupied = occupied(squares);
+    var targets = Bitboards.KING_ATTACKS[strongKing] & ~occupied
+        & ~Bitboards.KING_ATTACKS[weakKing];
+    for (; targets != 0; targets &= targets - 1) {
+      if (this.isWin(Long.numberOfTrailingZeros(targets), weakKing, extra1, extra2)) {
+        return true;
+      }
+    }
+    if (this.table.hasPawns()) {
+      var to = extra1 + 8;
+      if ((occupied & 1L << to) != 0) {
+        return false;
+      }
+      if (Bitboards.rankOf(to) == 7) {
+        for (var promotion : this.promotions) {
+          if (promotion.isWin(promotion.index(strongKing, weakKing, to, -1, false))) {
+            return true;
+          }
+        }
+        return false;
+      }
+      return this.isWin(strongKing, weakKing, to, extra2)
+          || Bitboards.rankOf(extra1) == 1 && (occupied & 1L << to + 8) == 0
+          && this.isWin(strongKing, weakKing, to + 8, extra2);
+    }
+    targets = attacks(this.table.getPiece(0), extra1, occupied) & ~occupied;
+    for (; targets != 0; targets &= targets - 1) {
+      if (this.isWin(strongKing, weakKing, Long.numberOfTrailingZeros(targets), extra2)) {
+        return true;
+      }
+    }
+    if (extra2 >= 0) {
+      targets = attacks(this.table.getPiece(1), extra2, occupied) & ~occupied;
+      for (; targets != 0; targets &= targets - 1) {
+        if (this.isWin(strongKing, weakKing, extra1, Long.numberOfTrailingZeros(targets))) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private boolean hasOnlyLosingMoves(int[] squares) {
+    var strongKing = squares[0];
+    var weakKing = squares[1];
+    var occupied = occupied(squares);
+    // captures were handled by the first pass, so occupied targets are defended
+    var targets = Bitboards.KING_ATTACKS[weakKing] & ~Bitboards.KING_ATTACKS[strongKing]
+        & ~occupied;
+    for (; targets != 0; targets &= targets - 1) {
+      var to = Long.numberOfTrailingZeros(targets);
+      if (!this.isAttacked(squares, to, occupied ^ 1L << weakKing | 1L << to, -1)
+          && this.results[this.table.index(strongKing, to, squares[2], squares[3], true)]
+          != WIN) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Checks if the position after a move of the strong team is won.
+   */
+  private boolean isWin(int strongKing, int weakKing, int extra1, int extra2) {
+    return this.results[this.table.index(strongKing, weakKing, extra1, extra2, false)] == WIN;
+  }
+
+  /**
+   * Checks if a square is attacked by the pieces of the strong team other than the king.
+   *
+   * @param captured the square of a captured piece, which does not attack, or -1
+   */
+  private boolean isAttacked(int[] squares, int square, long occupied, int captured) {
+    for (var i = 2; i < 2 + this.table.getPieceCount(); i++) {
+      if (squares[i] != captured
+          && (attacks(this.table.getPiece(i - 2), squares[i], occupied) & 1L << square) != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static long occupied(int[] squares) {
+    var occupied = 1L << squares[0] | 1L << squares[1] | 1L << squares[2];
+    return squares[3] >= 0 ? occupied | 1L << squares[3] : occupied;
+  }
+
+  private static long attacks(PieceType type, int square, long occupied) {
+    return switch (type) {
+      case PAWN -> Bitboards.PAWN_ATTACKS[WHITE][square];
+      case KING -> Bitboards.KING_ATTACKS[square];
+      case QUEEN -> Bitboards.queenAttacks(square, occupied);
+      case ROOK -> Bitboards.rookAttacks(square, occupied);
+      case BISHOP -> Bitboards.bishopAttacks(square, occupied);
+      case KNIGHT -> Bitboards.KNIGHT_ATTACKS[square];
+    };
+  }
+}
@@ -0,0 +1,196 @@
+package de.profschmergmann.endgame;
+
+import de.profschmergmann.Board;
+import de.profschmergmann.pieces.Piece.PieceColor;
+import de.profschmergmann.pieces.Piece.PieceType;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Set of {@link Bitbase} tables, which are generated at startup or loaded from a file and probed
+ * by the search. All tables are immutable, so a set can be shared by all search threads.
+ */
+public final class Bitbases {
+
+  /**
+   * Results of a probe from the view of the team to move.
+   */
+  public static final int LOSS = 0;
+  public static final int DRAW = 1;
+  public static final int WIN = 2;
+  public static final int UNKNOWN = -1;
+  /**
+   * The tables which are small enough to be generated at every start, about 120 KB together.
+   */
+  public static final List<String> DEFAULT_TABLES = List.of("KQK", "KRK", "KPK");
+  private static final int MAGIC = 0x4B42_4231;
+  private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+  private final List<Bitbase> tables;
+  private final int maxPieces;
+
+  private Bitbases(Collection<Bitbase> tables) {
+    this.tables = List.copyOf(tables);
+    this.maxPieces = this.tables.stream().mapToInt(table -> table.getPieceCount() + 2).max()
+        .orElse(0);
+  }
+
+  /**
+   * Generates tables in parallel. The tables with a queen and a rook instead of the pawn are
+   * generated as well for a table with a pawn.
+   *
+   * @param names   the names of the tables like {@code KPK} or {@code KBNK}
+   * @param threads the number of threads
+   * @return the generated tables
+   * @throws InterruptedException     if the thread is interrupted while waiting for a thread
+   * @throws IllegalArgumentException if a name is no supported endgame
+   */
+  public static Bitbases generate(Collection<String> names, int threads)
+      throws InterruptedException {
+    if (threads < 1) {
+      throw new IllegalArgumentException("At least one thread is needed: " + threads);
+    }
+    var tables = new LinkedHashMap<String, Bitbase>();
+    for (var name : names) {
+      var table = Bitbase.forName(name);
+      if (table.hasPawns()) {
+        // the promotions are looked up, so these tables come first
+        tables.computeIfAbsent("KQK", Bitbase::forName);
+        tables.computeIfAbsent("KRK", Bitbase::forName);
+      }
+      tables.putIfAbsent(name, table);
+    }
+    var pool = POOL_COUNTER.incrementAndGet();
+    var counter = new AtomicInteger();
+    var executor = Executors.newFixedThreadPool(threads, runnable -> {
+      var thread = new Thread(runnable,
+          "bitbase-" + pool + "-worker-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    try {
+      for (var table : tables.values()) {
+        var generator = table.hasPawns()
+            ? new BitbaseGenerator(table, tables.get("KQK"), tables.get("KRK"))
+            : new BitbaseGenerator(table);
+        generator.generate(executor, threads);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    return new Bitbases(tables.values());
+  }
+
+  /**
+   * Loads the tables from a file written by {@link #save(Path)}.
+   *
+   * @param file the file
+   * @return the loaded tables
+   * @throws IOException if the file cannot be read or is no bitbase file
+   */
+  public static Bitbases load(Path file) throws IOException {
+    try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file),
+        1 << 16))) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException("No bitbase file: " + file);
+      }
+      var count = in.readInt();
+      var tables = new ArrayList<Bitbase>(count);
+      for (var i = 0; i < count; i++) {
+        var name = in.readUTF();
+        Bitbase table;
+        try {
+          table = Bitbase.forName(name);
+        } catch (IllegalArgumentException e) {
+          throw new IOException("Unsupported bitbase in " + file + ": " + name, e);
+        }
+        if (in.readInt() != table.size()) {
+          throw new IOException("Wrong size of " + name + " in " + file);
+        }
+        var bits = table.getBits();
+        for (var j = 0; j < bits.length; j++) {
+          bits[j] = in.readLong();
+        }
+        tables.add(table);
+      }
+      return new Bitbases(tables);
+    }
+  }
+
+  /**
+   * Saves all tables into a file.
+   *
+   * @param file the file, which is replaced
+   * @throws IOException if the file cannot be written
+   */
+  public void save(Path file) throws IOException {
+    try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file),
+        1 << 16))) {
+      out.writeInt(MAGIC);
+      out.writeInt(this.tables.size());
+      for (var table : this.tables) {
+        out.writeUTF(table.getName());
+        out.writeInt(table.size());
+        for (var bits : table.getBits()) {
+          out.writeLong(bits);
+        }
+      }
+    }
+  }
+
+  /**
+   * Looks up the position of the board. Castling rights and the halfmove clock are ignored.
+   *
+   * @param board the board
+   * @return {@link #WIN}, {@link #DRAW} or {@link #LOSS} for the team to move or
+   * {@link #UNKNOWN} if no table has the material of the board
+   */
+  public int probe(Board board) {
+    if (Long.bitCount(board.getOccupied()) > this.maxPieces) {
+      return UNKNOWN;
+    }
+    PieceColor strong;
+    if (isLoneKing(board, PieceColor.B)) {
+      strong = PieceColor.W;
+    } else if (isLoneKing(board, PieceColor.W)) {
+      strong = PieceColor.B;
+    } else {
+      return UNKNOWN;
+    }
+    for (var table : this.tables) {
+      if (table.matches(board, strong)) {
+        return !table.isWin(board, strong) ? DRAW
+            : board.getCurrentTeam() == strong ? WIN : LOSS;
+      }
+    }
+    return UNKNOWN;
+  }
+
+  private static boolean isLoneKing(Board board, PieceColor color) {
+    var team = board.getTeamBitboard(color);
+    return Long.bitCount(team) == 1 && team == board.getBitboard(PieceType.KING, color);
+  }
+
+  public List<Bitbase> getTables() {
+    return this.tables;
+  }
+
+  /**
+   * Getter for the number of pieces of the largest table including both kings.
+   *
+   * @return the number of pieces
+   */
+  public int getMaxPieces() {
+    return this.maxPieces;
+  }
+}
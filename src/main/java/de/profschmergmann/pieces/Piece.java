@@ -1,5 +1,7 @@
 package de.profschmergmann.pieces;
 
+import java.util.Objects;
+
 public abstract class Piece {
 
   protected final PieceColor pieceColor;
@@ -28,6 +30,41 @@ public abstract class Piece {
     this.moved = true;
   }
 
+  /**
+   * Creates a new piece of the given type and color.
+   *
+   * @param pieceType  the type of the piece
+   * @param pieceColor the color of the piece
+   * @return the new piece
+   */
+  public static Piece create(PieceType pieceType, PieceColor pieceColor) {
+    return switch (pieceType) {
+      case PAWN -> new Pawn(pieceColor);
+      case KING -> new King(pieceColor);
+      case QUEEN -> new Queen(pieceColor);
+      case ROOK -> new Rook(pieceColor);
+      case BISHOP -> new Bishop(pieceColor);
+      case KNIGHT -> new Knight(pieceColor);
+    };
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || this.getClass() != o.getClass()) {
+      return false;
+    }
+    var piece = (Piece) o;
+    return this.pieceColor == piece.pieceColor && this.pieceType == piece.pieceType;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.pieceColor, this.pieceType);
+  }
+
   public abstract String toString();
 
   public enum PieceType {
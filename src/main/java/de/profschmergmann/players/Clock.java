@@ -0,0 +1,12 @@
+package de.profschmergmann.players;
+
+/**
+ * Record for the clock of the team to move, as sent by the server before every move.
+ *
+ * @param remaining the remaining time in milliseconds
+ * @param increment the increment per move in milliseconds
+ * @param movesToGo the number of moves until the next time control or 0 for sudden death
+ */
+public record Clock(long remaining, long increment, int movesToGo) {
+
+}
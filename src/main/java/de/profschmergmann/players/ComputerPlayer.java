@@ -1,9 +1,150 @@
 package de.profschmergmann.players;
 
+import de.profschmergmann.Board;
+import de.profschmergmann.Move;
+import de.profschmergmann.Moves;
+import de.profschmergmann.book.OpeningBook;
+import de.profschmergmann.endgame.Bitbases;
+import de.profschmergmann.search.LazySmpSearch;
+import de.profschmergmann.search.Search;
+import de.profschmergmann.search.SearchResult;
+import de.profschmergmann.search.TimeManager;
+import de.profschmergmann.search.TranspositionTable;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Player which chooses its moves with an iterative deepening alpha-beta {@link Search}, running
+ * on several threads with a {@link LazySmpSearch} if configured.
+ */
 public class ComputerPlayer implements PlayerEngine {
 
+  public static final int DEFAULT_HASH_SIZE = 64;
+  public static final long DEFAULT_MOVE_TIME = 1000L;
+  private static final Logger LOGGER = Logger.getLogger(ComputerPlayer.class.getName());
+  private final int maxDepth;
+  private final long moveTime;
+  private final int hashSize;
+  private final int threads;
+  private volatile LazySmpSearch search;
+  private SearchResult lastResult;
+  private OpeningBook openingBook;
+  private Bitbases bitbases;
+
+  /**
+   * Constructor for a computer player with the default hash size and time per move.
+   */
+  public ComputerPlayer() {
+    this(Search.MAX_PLY, DEFAULT_MOVE_TIME, DEFAULT_HASH_SIZE, 1);
+  }
+
+  /**
+   * Constructor for a computer player.
+   *
+   * @param maxDepth the maximum search depth in plies
+   * @param moveTime the time per move in milliseconds or 0 for no limit
+   * @param hashSize the size of the transposition table in MB
+   */
+  public ComputerPlayer(int maxDepth, long moveTime, int hashSize) {
+    this(maxDepth, moveTime, hashSize, 1);
+  }
+
+  /**
+   * Constructor for a computer player searching with several threads.
+   *
+   * @param maxDepth the maximum search depth in plies
+   * @param moveTime the time per move in milliseconds or 0 for no limit
+   * @param hashSize the size of the transposition table in MB
+   * @param threads  the number of search threads
+   */
+  public ComputerPlayer(int maxDepth, long moveTime, int hashSize, int threads) {
+    this.maxDepth = maxDepth;
+    this.moveTime = moveTime;
+    this.hashSize = hashSize;
+    this.threads = threads;
+  }
+
+  @Override
+  public Move makeMove(Board board) {
+    return this.makeMove(board, TimeManager.fixed(this.moveTime));
+  }
+
+  /**
+   * Chooses the next move with the time given by the clock. The fixed time per move of this
+   * player is only used if there is no clock.
+   *
+   * @param board the current board, which must not be changed
+   * @param clock the clock of the current team or null if there is no time control
+   * @return the chosen move or null if there is no legal move
+   */
   @Override
-  public void makeMove() {
+  public Move makeMove(Board board, Clock clock) {
+    if (clock == null) {
+      return this.makeMove(board);
+    }
+    return this.makeMove(board,
+        TimeManager.forClock(clock.remaining(), clock.increment(), clock.movesToGo()));
+  }
+
+  private Move makeMove(Board board, TimeManager timeManager) {
+    if (this.openingBook != null) {
+      var bookMove = this.openingBook.probe(board, ThreadLocalRandom.current());
+      if (bookMove != Moves.NONE) {
+        LOGGER.log(Level.FINE, "Book move {0}", Moves.toString(bookMove));
+        return board.toMove(bookMove);
+      }
+    }
+    // the table and threads are created with the first search, so idle players stay small
+    if (this.search == null) {
+      this.search = new LazySmpSearch(new TranspositionTable(this.hashSize), this.threads);
+      this.search.setBitbases(this.bitbases);
+    }
+    this.lastResult = this.search.search(board, this.maxDepth, timeManager, null);
+    LOGGER.log(Level.FINE, "Search finished with " + this.lastResult);
+    return this.lastResult.bestMove() != Moves.NONE ? board.toMove(this.lastResult.bestMove())
+        : null;
+  }
+
+  /**
+   * Sets the opening book, whose moves are played without searching as long as the position is
+   * in the book.
+   *
+   * @param openingBook the book or null to always search
+   */
+  public void setOpeningBook(OpeningBook openingBook) {
+    this.openingBook = openingBook;
+  }
+
+  /**
+   * Sets the endgame tables, which the search probes in positions with few pieces.
+   *
+   * @param bitbases the tables or null to search without them
+   */
+  public void setBitbases(Bitbases bitbases) {
+    this.bitbases = bitbases;
+    var search = this.search;
+    if (search != null) {
+      search.setBitbases(bitbases);
+    }
+  }
+
+  /**
+   * Stops a running search, which then returns the best move found so far.
+   */
+  public void stop() {
+    var search = this.search;
+    if (search != null) {
+      search.stop();
+    }
+  }
 
+  /**
+   * Getter for the result of the last search.
+   *
+   * @return the result or null if there was no search yet
+   */
+  public SearchResult getLastResult() {
+    return this.lastResult;
   }
 }
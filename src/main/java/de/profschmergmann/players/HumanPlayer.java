@@ -1,9 +1,18 @@
 package de.profschmergmann.players;
 
+import de.profschmergmann.Board;
+import de.profschmergmann.Move;
+
 public class HumanPlayer implements PlayerEngine {
 
+  /**
+   * Human players perform their moves with {@link de.profschmergmann.Game#move}.
+   *
+   * @param board the current board
+   * @return always null
+   */
   @Override
-  public void makeMove() {
-
+  public Move makeMove(Board board) {
+    return null;
   }
 }
@@ -1,6 +1,27 @@
 package de.profschmergmann.players;
 
+import de.profschmergmann.Board;
+import de.profschmergmann.Move;
+
 public interface PlayerEngine {
 
-  void makeMove();
+  /**
+   * Chooses the next move for the current team of the board.
+   *
+   * @param board the current board, which must not be changed
+   * @return the chosen move or null if the engine does not choose moves by itself
+   */
+  Move makeMove(Board board);
+
+  /**
+   * Chooses the next move for the current team of the board, which must be made before the clock
+   * runs out.
+   *
+   * @param board the current board, which must not be changed
+   * @param clock the clock of the current team or null if there is no time control
+   * @return the chosen move or null if the engine does not choose moves by itself
+   */
+  default Move makeMove(Board board, Clock clock) {
+    return this.makeMove(board);
+  }
 }
@@ -0,0 +1,98 @@
+package de.profschmergmann.search;
+
+import de.profschmergmann.Board;
+import de.profschmergmann.PieceSquareTables;
+import de.profschmergmann.pieces.Piece.PieceColor;
+import de.profschmergmann.pieces.Piece.PieceType;
+
+/**
+ * Static evaluation of a position in centipawns from the view of the current team.
+ * <p>
+ * The score is the material and the {@link PieceSquareTables} plus the {@link PawnStructure},
+ * tapered between the middlegame and the endgame values by the game phase. The tables are kept up
+ * to date by the board with every move and the pawn structure is cached in a
+ * {@link PawnHashTable}, so the evaluation rarely looks at the pieces.
+ */
+public final class Evaluation {
+
+  /**
+   * Material values indexed by {@link PieceType#ordinal()}, used to compare captures.
+   */
+  public static final int[] PIECE_VALUES = {100, 0, 900, 500, 330, 320};
+
+  private Evaluation() {
+  }
+
+  /**
+   * Evaluates the board without a pawn hash table.
+   *
+   * @param board the board
+   * @return the score, positive if the current team is better
+   */
+  public static int evaluate(Board board) {
+    return evaluate(board, PawnStructure.evaluate(board) + PawnStructure.shields(board));
+  }
+
+  /**
+   * Evaluates the board with the pawn structure score from the given table.
+   *
+   * @param board         the board
+   * @param pawnHashTable the pawn hash table of the calling thread
+   * @return the score, positive if the current team is better
+   */
+  public static int evaluate(Board board, PawnHashTable pawnHashTable) {
+    return evaluate(board, pawnHashTable.probe(board) + PawnStructure.shields(board));
+  }
+
+  /**
+   * Evaluates a position which the strong team wins against a lone king, so the search makes
+   * progress towards the mate: the lone king is driven to the edge, or to a corner of the color
+   * of a single bishop, the strong king approaches it and pawns advance and promote.
+   *
+   * @param board  the board
+   * @param strong the winning team
+   * @return the score from the view of the strong team
+   */
+  public static int evaluateKnownWin(Board board, PieceColor strong) {
+    var weak = strong == PieceColor.W ? PieceColor.B : PieceColor.W;
+    var strongKing = Long.numberOfTrailingZeros(board.getBitboard(PieceType.KING, strong));
+    var weakKing = Long.numberOfTrailingZeros(board.getBitboard(PieceType.KING, weak));
+    var score = 0;
+    for (var type : PieceType.values()) {
+      score += PIECE_VALUES[type.ordinal()] * Long.bitCount(board.getBitboard(type, strong));
+    }
+    for (var pawns = board.getBitboard(PieceType.PAWN, strong); pawns != 0;
+        pawns &= pawns - 1) {
+      var rank = Long.numberOfTrailingZeros(pawns) >>> 3;
+      score += 20 * (strong == PieceColor.W ? rank : 7 - rank);
+    }
+    var file = weakKing & 7;
+    var rank = weakKing >>> 3;
+    var bishops = board.getBitboard(PieceType.BISHOP, strong);
+    if (Long.bitCount(bishops) == 1) {
+      // only the corners of the color of the bishop can be mated
+      var darkBishop = (Long.numberOfTrailingZeros(bishops) + (Long.numberOfTrailingZeros(bishops)
+          >>> 3) & 1) == 0;
+      var corner = darkBishop ? Math.min(Math.max(file, rank), Math.max(7 - file, 7 - rank))
+          : Math.min(Math.max(7 - file, rank), Math.max(file, 7 - rank));
+      score += 20 * (7 - corner);
+    } else {
+      score += 10 * (Math.max(3 - file, file - 4) + Math.max(3 - rank, rank - 4));
+    }
+    var kingDistance = Math.max(Math.abs(file - (strongKing & 7)),
+        Math.abs(rank - (strongKing >>> 3)));
+    return score + 10 * (7 - kingDistance);
+  }
+
+  /**
+   * Evaluates the board with the given packed pawn structure and shield scores.
+   */
+  private static int evaluate(Board board, int pawns) {
+    var phase = Math.min(board.getPhase(), PieceSquareTables.MAX_PHASE);
+    var midgame = board.getMidgameScore() + PawnStructure.midgame(pawns);
+    var endgame = board.getEndgameScore() + PawnStructure.endgame(pawns);
+    var score = (midgame * phase + endgame * (PieceSquareTables.MAX_PHASE - phase))
+        / PieceSquareTables.MAX_PHASE;
+    return board.getCurrentTeam() == PieceColor.W ? score : -score;
+  }
+}
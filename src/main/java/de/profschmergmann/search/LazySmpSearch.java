@@ -0,0 +1,177 @@
+package de.profschmergmann.search;
+
+import de.profschmergmann.Board;
+import de.profschmergmann.endgame.Bitbases;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Multi-threaded search with the <a href="https://www.chessprogramming.org/Lazy_SMP">Lazy SMP</a>
+ * approach: helper threads search the same root position on their own copy of the board and only
+ * share the {@link TranspositionTable}, which lets the main thread reach the same depth faster.
+ * Only the result of the main thread is reported, with the nodes of all threads. The searches of
+ * the threads are kept from move to move, so their pawn hash tables and move ordering statistics
+ * stay warm, and only one search may run at a time.
+ */
+public class LazySmpSearch implements AutoCloseable {
+
+  private static final Logger LOGGER = Logger.getLogger(LazySmpSearch.class.getName());
+  private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+  private final TranspositionTable transpositionTable;
+  private final int threads;
+  private final ExecutorService helpers;
+  /**
+   * Search and board of every thread, which are created with the first search and reused for the
+   * following ones.
+   */
+  private Search[] searches;
+  private Board[] boards;
+  private volatile Search[] currentSearches;
+  private Bitbases bitbases;
+
+  /**
+   * Constructor for a search with the given number of threads.
+   *
+   * @param transpositionTable the transposition table shared by all threads
+   * @param threads            the number of threads including the main thread, at least 1
+   */
+  public LazySmpSearch(TranspositionTable transpositionTable, int threads) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("At least one thread is needed: " + threads);
+    }
+    this.transpositionTable = transpositionTable;
+    this.threads = threads;
+    if (threads > 1) {
+      var pool = POOL_COUNTER.incrementAndGet();
+      var counter = new AtomicInteger();
+      this.helpers = Executors.newFixedThreadPool(threads - 1, runnable -> {
+        var thread = new Thread(runnable,
+            "search-" + pool + "-helper-" + counter.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+    } else {
+      this.helpers = null;
+    }
+  }
+
+  /**
+   * Searches the position of the board with all threads. The calling thread runs the main
+   * search.
+   *
+   * @param board    the board, which is not changed
+   * @param maxDepth the maximum depth in plies
+   * @param millis   the time limit in milliseconds or 0 for no limit
+   * @param listener called with the result of every completed iteration of the main search, may
+   *                 be null
+   * @return the result of the main search with the nodes of all threads
+   */
+  public SearchResult search(Board board, int maxDepth, long millis,
+      Consumer<SearchResult> listener) {
+    return this.search(board, maxDepth, TimeManager.fixed(millis), listener);
+  }
+
+  /**
+   * Searches the position of the board with all threads until the time manager stops the main
+   * search, which then stops the helpers.
+   *
+   * @param board       the board, which is not changed
+   * @param maxDepth    the maximum depth in plies
+   * @param timeManager the time manager of the main search
+   * @param listener    called with the result of every completed iteration of the main search,
+   *                    may be null
+   * @return the result of the main search with the nodes of all threads
+   */
+  public SearchResult search(Board board, int maxDepth, TimeManager timeManager,
+      Consumer<SearchResult> listener) {
+    if (maxDepth < 1) {
+      throw new IllegalArgumentException("Depth must be at least 1: " + maxDepth);
+    }
+    // the searches are kept, so their pawn hash tables, killers and history outlive the move
+    if (this.searches == null) {
+      this.boards = new Board[this.threads];
+      this.searches = new Search[this.threads];
+      for (var i = 0; i < this.threads; i++) {
+        this.boards[i] = new Board(board);
+        this.searches[i] = new Search(this.boards[i], this.transpositionTable);
+        this.searches[i].setHelperId(i);
+      }
+    }
+    var searches = this.searches;
+    for (var i = 0; i < searches.length; i++) {
+      this.boards[i].copyFrom(board);
+      searches[i].setBitbases(this.bitbases);
+      // cleared here and not by the threads, so a stop before a helper starts is not lost
+      searches[i].reset();
+    }
+    this.currentSearches = searches;
+    var futures = new ArrayList<Future<SearchResult>>();
+    for (var i = 1; i < searches.length; i++) {
+      var helper = searches[i];
+      // the helpers never search longer than the main search may
+      var helperTime = TimeManager.fixed(timeManager.getHardLimit());
+      futures.add(this.helpers.submit(() -> helper.resume(maxDepth, helperTime, null)));
+    }
+    SearchResult result;
+    try {
+      result = searches[0].resume(maxDepth, timeManager, listener);
+    } finally {
+      for (var i = 1; i < searches.length; i++) {
+        searches[i].stop();
+      }
+      this.currentSearches = null;
+    }
+    var nodes = searches[0].getNodes();
+    for (var i = 0; i < futures.size(); i++) {
+      try {
+        futures.get(i).get();
+        nodes += searches[i + 1].getNodes();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (ExecutionException e) {
+        LOGGER.log(Level.SEVERE, "Helper search failed!", e.getCause());
+      }
+    }
+    return new SearchResult(result.bestMove(), result.score(), result.depth(), nodes,
+        result.millis(), result.pv());
+  }
+
+  /**
+   * Signals the main search and all helpers to stop as soon as possible.
+   */
+  public void stop() {
+    var searches = this.currentSearches;
+    if (searches != null) {
+      for (var search : searches) {
+        search.stop();
+      }
+    }
+  }
+
+  /**
+   * Sets the endgame tables of all threads for the following searches.
+   *
+   * @param bitbases the tables or null to search without them
+   */
+  public void setBitbases(Bitbases bitbases) {
+    this.bitbases = bitbases;
+  }
+
+  public int getThreads() {
+    return this.threads;
+  }
+
+  @Override
+  public void close() {
+    if (this.helpers != null) {
+      this.helpers.shutdownNow();
+    }
+  }
+}
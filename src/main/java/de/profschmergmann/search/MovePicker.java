@@ -0,0 +1,188 @@
+package de.profschmergmann.search;
+
+import de.profschmergmann.Board;
+import de.profschmergmann.MoveList;
+import de.profschmergmann.Moves;
+import de.profschmergmann.pieces.Piece.PieceType;
+
+/**
+ * Staged move generation for one ply of the search, which hands out the moves in the order they
+ * most likely cause a cutoff and only generates the next group of moves when it is needed:
+ * <ol>
+ *   <li>the move of the transposition table</li>
+ *   <li>captures and promotions, best first by MVV-LVA</li>
+ *   <li>the two killer moves of the ply</li>
+ *   <li>quiet moves, best first by their history score</li>
+ * </ol>
+ * See <a href="https://www.chessprogramming.org/Move_Ordering">Move Ordering</a>.
+ */
+final class MovePicker {
+
+  private static final int HASH_MOVE = 0;
+  private static final int GENERATE_CAPTURES = 1;
+  private static final int CAPTURES = 2;
+  private static final int FIRST_KILLER = 3;
+  private static final int SECOND_KILLER = 4;
+  private static final int GENERATE_QUIETS = 5;
+  private static final int QUIETS = 6;
+  private static final int DONE = 7;
+  private static final int PAWN = PieceType.PAWN.ordinal();
+  private final MoveList moves = new MoveList();
+  private final int[] scores = new int[MoveList.CAPACITY];
+  private Board board;
+  private int[] history;
+  private int ttMove;
+  private int firstKiller;
+  private int secondKiller;
+  private int stage;
+  private int index;
+  private boolean capturesOnly;
+
+  /**
+   * Prepares the picker for a new node. Nothing is generated yet.
+   *
+   * @param board        the board of the search
+   * @param ttMove       the move of the transposition table or {@link Moves#NONE}
+   * @param firstKiller  the first killer move of the ply or {@link Moves#NONE}
+   * @param secondKiller the second killer move of the ply or {@link Moves#NONE}
+   * @param history      the history scores indexed by piece code * 64 + end square
+   */
+  void init(Board board, int ttMove, int firstKiller, int secondKiller, int[] history) {
+    this.board = board;
+    this.history = history;
+    this.ttMove = ttMove;
+    this.firstKiller = firstKiller;
+    this.secondKiller = secondKiller;
+    this.stage = HASH_MOVE;
+    this.capturesOnly = false;
+  }
+
+  /**
+   * Prepares the picker for a node of the quiescence search, which only gets the captures and
+   * promotions.
+   *
+   * @param board the board of the search
+   */
+  void initCaptures(Board board) {
+    this.board = board;
+    this.ttMove = Moves.NONE;
+    this.stage = GENERATE_CAPTURES;
+    this.capturesOnly = true;
+  }
+
+  /**
+   * Returns the next legal move.
+   *
+   * @return the encoded move or {@link Moves#NONE} if all moves were returned
+   */
+  int next() {
+    while (true) {
+      switch (this.stage) {
+        case HASH_MOVE -> {
+          this.stage = GENERATE_CAPTURES;
+          if (this.board.isLegal(this.ttMove)) {
+            return this.ttMove;
+          }
+        }
+        case GENERATE_CAPTURES -> {
+          this.board.generateCaptures(this.moves);
+          for (var i = 0; i < this.moves.size(); i++) {
+            this.scores[i] = this.mvvLva(this.moves.get(i));
+          }
+          this.index = 0;
+          this.stage = CAPTURES;
+        }
+        case CAPTURES -> {
+          var move = this.pickBest();
+          if (move == Moves.NONE) {
+            this.stage = this.capturesOnly ? DONE : FIRST_KILLER;
+          } else if (move != this.ttMove) {
+            return move;
+          }
+        }
+        case FIRST_KILLER -> {
+          this.stage = SECOND_KILLER;
+          if (this.isKiller(this.firstKiller)) {
+            return this.firstKiller;
+          }
+        }
+        case SECOND_KILLER -> {
+          this.stage = GENERATE_QUIETS;
+          if (this.isKiller(this.secondKiller)) {
+            return this.secondKiller;
+          }
+        }
+        case GENERATE_QUIETS -> {
+          this.board.generateQuiets(this.moves);
+          for (var i = 0; i < this.moves.size(); i++) {
+            var move = this.moves.get(i);
+            this.scores[i] = this.history[
+                this.board.getPieceCode(Moves.from(move)) * 64 + Moves.to(move)];
+          }
+          this.index = 0;
+          this.stage = QUIETS;
+        }
+        case QUIETS -> {
+          var move = this.pickBest();
+          if (move == Moves.NONE) {
+            this.stage = DONE;
+          } else if (move != this.ttMove && move != this.firstKiller
+              && move != this.secondKiller) {
+            return move;
+          }
+        }
+        default -> {
+          return Moves.NONE;
+        }
+      }
+    }
+  }
+
+  /**
+   * Checks if a killer move can be played in this position and was not returned yet. Killers are
+   * quiet moves, so they are not returned with the captures.
+   */
+  private boolean isKiller(int killer) {
+    return killer != Moves.NONE && killer != this.ttMove && !Moves.isCapture(killer)
+        && !Moves.isPromotion(killer) && this.board.isLegal(killer);
+  }
+
+  /**
+   * Moves the remaining move with the best score to the current index and returns it. Sorting
+   * only as far as the moves are used is cheaper than sorting the whole list before a cutoff.
+   *
+   * @return the best remaining move or {@link Moves#NONE} if there is none
+   */
+  private int pickBest() {
+    if (this.index >= this.moves.size()) {
+      return Moves.NONE;
+    }
+    var best = this.index;
+    for (var i = this.index + 1; i < this.moves.size(); i++) {
+      if (this.scores[i] > this.scores[best]) {
+        best = i;
+      }
+    }
+    this.moves.swap(this.index, best);
+    var score = this.scores[this.index];
+    this.scores[this.index] = this.scores[best];
+    this.scores[best] = score;
+    return this.moves.get(this.index++);
+  }
+
+  /**
+   * Scores a capture by the most valuable victim first and the least valuable attacker second,
+   * promotions additionally by the value of the new piece.
+   */
+  private int mvvLva(int move) {
+    var victim = Moves.flags(move) == Moves.EN_PASSANT ? PAWN
+        : this.board.getPieceCode(Moves.to(move)) >>> 1;
+    var attacker = this.board.getPieceCode(Moves.from(move)) >>> 1;
+    var score = Moves.isCapture(move)
+        ? Evaluation.PIECE_VALUES[victim] * 16 - Evaluation.PIECE_VALUES[attacker] : 0;
+    if (Moves.isPromotion(move)) {
+      score += Evaluation.PIECE_VALUES[Moves.promotion(move).ordinal()] * 16;
+    }
+    return score;
+  }
+}
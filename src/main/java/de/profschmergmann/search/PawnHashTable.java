@@ -0,0 +1,78 @@
+package de.profschmergmann.search;
+
+import de.profschmergmann.Board;
+import java.util.Arrays;
+
+/**
+ * Small cache of {@link PawnStructure} scores indexed by the pawn key of the board, see
+ * <a href="https://www.chessprogramming.org/Pawn_Hash_Table">Pawn Hash Table</a>. The pawn
+ * structure changes only with pawn moves, so most evaluations find their score here.
+ * <p>
+ * Every search thread has its own table, so it is neither synchronized nor shared.
+ */
+public class PawnHashTable {
+
+  /**
+   * Default number of entries, 12 bytes each for the key and the score.
+   */
+  public static final int DEFAULT_ENTRIES = 1 << 14;
+  private final long[] keys;
+  private final int[] scores;
+  private final int mask;
+  private long probes;
+  private long hits;
+
+  /**
+   * Constructor for a table with the given number of entries.
+   *
+   * @param entries the number of entries, rounded down to a power of two
+   */
+  public PawnHashTable(int entries) {
+    if (entries < 1) {
+      throw new IllegalArgumentException("At least one entry is needed: " + entries);
+    }
+    var size = Integer.highestOneBit(entries);
+    this.keys = new long[size];
+    this.scores = new int[size];
+    this.mask = size - 1;
+    // a zero key belongs to a board without pawns, so mark all entries as empty
+    Arrays.fill(this.keys, -1L);
+  }
+
+  /**
+   * Returns the packed pawn structure score of the board from the table or evaluates and stores
+   * it.
+   *
+   * @param board the board
+   * @return the packed middlegame and endgame scores from the view of white
+   */
+  public int probe(Board board) {
+    var key = board.getPawnKey();
+    var index = (int) key & this.mask;
+    this.probes++;
+    if (this.keys[index] == key) {
+      this.hits++;
+      return this.scores[index];
+    }
+    var score = PawnStructure.evaluate(board);
+    this.keys[index] = key;
+    this.scores[index] = score;
+    return score;
+  }
+
+  public long getProbes() {
+    return this.probes;
+  }
+
+  public long getHits() {
+    return this.hits;
+  }
+
+  /**
+   * Resets the probe and hit counters, the entries are kept.
+   */
+  public void resetStatistics() {
+    this.probes = 0;
+    this.hits = 0;
+  }
+}
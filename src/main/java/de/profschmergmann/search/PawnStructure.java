@@ -0,0 +1,167 @@
+package de.profschmergmann.search;
+
+import de.profschmergmann.Bitboards;
+import de.profschmergmann.Board;
+import de.profschmergmann.pieces.Piece.PieceColor;
+import de.profschmergmann.pieces.Piece.PieceType;
+
+/**
+ * Evaluation of the pawn structure and the pawn shields of the kings, see
+ * <a href="https://www.chessprogramming.org/Pawn_Structure">Pawn Structure</a>. The structure
+ * only depends on the pawns, so it is cached by the {@link PawnHashTable} under the pawn key of
+ * the board. The shields also depend on the kings and are cheap enough to score every time.
+ * <p>
+ * Middlegame and endgame scores are packed into one int, see {@link #pack(int, int)}.
+ */
+public final class PawnStructure {
+
+  private static final int DOUBLED_MIDGAME = -10;
+  private static final int DOUBLED_ENDGAME = -20;
+  private static final int ISOLATED_MIDGAME = -10;
+  private static final int ISOLATED_ENDGAME = -15;
+  /**
+   * Bonus for passed pawns indexed by the rank seen from their own team.
+   */
+  private static final int[] PASSED_MIDGAME = {0, 0, 5, 10, 20, 35, 60, 0};
+  private static final int[] PASSED_ENDGAME = {0, 10, 15, 25, 45, 75, 120, 0};
+  /**
+   * Middlegame scores for every file next to and in front of a king on its first two ranks, for
+   * a shield pawn one or two ranks in front of the king or no pawn at all.
+   */
+  private static final int SHIELD_CLOSE = 15;
+  private static final int SHIELD_FAR = 8;
+  private static final int SHIELD_MISSING = -12;
+  private static final long[] FILES = new long[8];
+  private static final long[] ADJACENT_FILES = new long[8];
+  /**
+   * Squares in front of a pawn on the same and the adjacent files, indexed by color ordinal and
+   * square. A pawn without enemy pawns there is passed.
+   */
+  private static final long[][] PASSED_SPANS = new long[2][64];
+  private static final int WHITE = PieceColor.W.ordinal();
+
+  static {
+    for (var file = 0; file < 8; file++) {
+      FILES[file] = Bitboards.FILE_A << file;
+    }
+    for (var file = 0; file < 8; file++) {
+      ADJACENT_FILES[file] =
+          (file > 0 ? FILES[file - 1] : 0L) | (file < 7 ? FILES[file + 1] : 0L);
+    }
+    for (var square = 0; square < 64; square++) {
+      var file = Bitboards.fileOf(square);
+      var span = FILES[file] | ADJACENT_FILES[file];
+      var rank = Bitboards.rankOf(square);
+      PASSED_SPANS[WHITE][square] = rank < 7 ? span & -1L << (rank + 1) * 8 : 0L;
+      PASSED_SPANS[WHITE ^ 1][square] = rank > 0 ? span & -1L >>> (8 - rank) * 8 : 0L;
+    }
+  }
+
+  private PawnStructure() {
+  }
+
+  /**
+   * Evaluates the doubled, isolated and passed pawns of both teams.
+   *
+   * @param board the board
+   * @return the packed middlegame and endgame scores from the view of white
+   */
+  public static int evaluate(Board board) {
+    var whitePawns = board.getBitboard(PieceType.PAWN, PieceColor.W);
+    var blackPawns = board.getBitboard(PieceType.PAWN, PieceColor.B);
+    return evaluate(WHITE, whitePawns, blackPawns) - evaluate(WHITE ^ 1, blackPawns, whitePawns);
+  }
+
+  /**
+   * Evaluates the pawn shields in front of both kings.
+   *
+   * @param board the board
+   * @return the packed middlegame and endgame scores from the view of white
+   */
+  public static int shields(Board board) {
+    var whiteKing = board.getBitboard(PieceType.KING, PieceColor.W);
+    var blackKing = board.getBitboard(PieceType.KING, PieceColor.B);
+    var midgame = 0;
+    if (whiteKing != 0) {
+      midgame += shield(WHITE, board.getBitboard(PieceType.PAWN, PieceColor.W),
+          Long.numberOfTrailingZeros(whiteKing));
+    }
+    if (blackKing != 0) {
+      midgame -= shield(WHITE ^ 1, board.getBitboard(PieceType.PAWN, PieceColor.B),
+          Long.numberOfTrailingZeros(blackKing));
+    }
+    return pack(midgame, 0);
+  }
+
+  /**
+   * Packs a middlegame and an endgame score into one int. The endgame score is stored in the
+   * lower 16 bits and the middlegame score is added to the upper ones, so packed scores can be
+   * added and subtracted like numbers.
+   *
+   * @param midgame the middlegame score
+   * @param endgame the endgame score
+   * @return the packed scores
+   */
+  public static int pack(int midgame, int endgame) {
+    return (midgame << 16) + endgame;
+  }
+
+  public static int midgame(int packed) {
+    return (packed + 0x8000) >> 16;
+  }
+
+  public static int endgame(int packed) {
+    return (short) packed;
+  }
+
+  private static int evaluate(int us, long own, long enemy) {
+    var midgame = 0;
+    var endgame = 0;
+    for (var file = 0; file < 8; file++) {
+      var count = Long.bitCount(own & FILES[file]);
+      if (count > 1) {
+        midgame += DOUBLED_MIDGAME * (count - 1);
+        endgame += DOUBLED_ENDGAME * (count - 1);
+      }
+    }
+    var pawns = own;
+    while (pawns != 0) {
+      var square = Long.numberOfTrailingZeros(pawns);
+      pawns &= pawns - 1;
+      if ((own & ADJACENT_FILES[Bitboards.fileOf(square)]) == 0) {
+        midgame += ISOLATED_MIDGAME;
+        endgame += ISOLATED_ENDGAME;
+      }
+      if ((enemy & PASSED_SPANS[us][square]) == 0) {
+        var rank = us == WHITE ? Bitboards.rankOf(square) : 7 - Bitboards.rankOf(square);
+        midgame += PASSED_MIDGAME[rank];
+        endgame += PASSED_ENDGAME[rank];
+      }
+    }
+    return pack(midgame, endgame);
+  }
+
+  /**
+   * Scores the pawns in front of a king which stays on its first two ranks.
+   */
+  private static int shield(int us, long own, int king) {
+    var rank = us == WHITE ? Bitboards.rankOf(king) : 7 - Bitboards.rankOf(king);
+    if (rank > 1) {
+      return 0;
+    }
+    var forward = us == WHITE ? 8 : -8;
+    var score = 0;
+    var kingFile = Bitboards.fileOf(king);
+    for (var file = Math.max(kingFile - 1, 0); file <= Math.min(kingFile + 1, 7); file++) {
+      var square = king - kingFile + file;
+      if ((own & 1L << (square + forward)) != 0) {
+        score += SHIELD_CLOSE;
+      } else if ((own & 1L << (square + 2 * forward)) != 0) {
+        score += SHIELD_FAR;
+      } else {
+        score += SHIELD_MISSING;
+      }
+    }
+    return score;
+  }
+}
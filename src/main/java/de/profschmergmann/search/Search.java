@@ -0,0 +1,512 @@
+package de.profschmergmann.search;
+
+import de.profschmergmann.Board;
+import de.profschmergmann.MoveList;
+import de.profschmergmann.Moves;
+import de.profschmergmann.endgame.Bitbases;
+import de.profschmergmann.pieces.Piece.PieceColor;
+import de.profschmergmann.pieces.Piece.PieceType;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Iterative deepening negamax search with alpha-beta pruning, see
+ * <a href="https://www.chessprogramming.org/Alpha-Beta">Alpha-Beta</a>.
+ * <p>
+ * The search runs on a single {@link Board} with {@link Board#makeMove(int)} and
+ * {@link Board#unmakeMove()} and shares results between iterations through a
+ * {@link TranspositionTable}. It can be stopped from any thread with {@link #stop()}, in which case
+ * the result of the last completed iteration is returned. Moves are generated lazily in stages by
+ * a {@link MovePicker} per ply, which uses killer moves and history scores collected by the search.
+ * The leaves are resolved by a quiescence search over captures and promotions. Endgames with few
+ * pieces are looked up in {@link Bitbases} if they are set.
+ */
+public class Search {
+
+  public static final int INFINITY = 32000;
+  public static final int MATE = 31000;
+  public static final int MAX_PLY = 128;
+  /**
+   * Base score of a position which a {@link Bitbases} table shows as won. It stays below the mate
+   * scores, so a found mate is preferred, and {@link Evaluation#evaluateKnownWin} is added, so
+   * the search still makes progress towards the mate.
+   */
+  public static final int KNOWN_WIN = 20000;
+  private static final Logger LOGGER = Logger.getLogger(Search.class.getName());
+  /**
+   * Number of nodes between two checks of the clock.
+   */
+  private static final int CHECK_INTERVAL = 2048;
+  /**
+   * History scores are halved when one of them exceeds this value, so recent cutoffs count more.
+   */
+  private static final int MAX_HISTORY = 1 << 20;
+  private final Board board;
+  private final TranspositionTable transpositionTable;
+  private final PawnHashTable pawnHashTable;
+  private final MoveList rootMoves;
+  private final MovePicker[] movePickers;
+  private final int[][] killers;
+  private final int[] history;
+  private final int[][] pvTable;
+  private final int[] pvLength;
+  private volatile boolean stopped;
+  private long deadline;
+  private long nodes;
+  private long cutoffs;
+  private long firstMoveCutoffs;
+  private int helperId;
+  private Bitbases bitbases;
+  /**
+   * If the root position is in the bitbases, in which case the search has to find the way to the
+   * mate instead of stopping at the next won position.
+   */
+  private boolean rootInBitbases;
+
+  /**
+   * Constructor for a search on the given board.
+   *
+   * @param board              the board to search, which is the same again after the search
+   * @param transpositionTable the transposition table
+   */
+  public Search(Board board, TranspositionTable transpositionTable) {
+    this.board = board;
+    this.transpositionTable = transpositionTable;
+    this.pawnHashTable = new PawnHashTable(PawnHashTable.DEFAULT_ENTRIES);
+    this.rootMoves = new MoveList();
+    this.movePickers = new MovePicker[MAX_PLY + 1];
+    for (var i = 0; i < this.movePickers.length; i++) {
+      this.movePickers[i] = new MovePicker();
+    }
+    this.killers = new int[MAX_PLY + 1][2];
+    this.history = new int[12 * 64];
+    this.pvTable = new int[MAX_PLY + 1][MAX_PLY + 1];
+    this.pvLength = new int[MAX_PLY + 1];
+  }
+
+  /**
+   * Searches the current position with iterative deepening.
+   *
+   * @param maxDepth the maximum depth in plies
+   * @param millis   the time limit in milliseconds or 0 for no limit
+   * @param listener called with the result of every completed iteration, may be null
+   * @return the result of the last completed iteration
+   */
+  public SearchResult search(int maxDepth, long millis, Consumer<SearchResult> listener) {
+    return this.search(maxDepth, TimeManager.fixed(millis), listener);
+  }
+
+  /**
+   * Searches the current position with iterative deepening until the time manager stops it.
+   *
+   * @param maxDepth    the maximum depth in plies
+   * @param timeManager the time manager of this search
+   * @param listener    called with the result of every completed iteration, may be null
+   * @return the result of the last completed iteration
+   */
+  public SearchResult search(int maxDepth, TimeManager timeManager,
+      Consumer<SearchResult> listener) {
+    this.stopped = false;
+    return this.resume(maxDepth, timeManager, listener);
+  }
+
+  /**
+   * Searches like {@link #search(int, TimeManager, Consumer)}, but keeps the stop signal. The
+   * caller clears it with {@link #reset()} before it hands the search to another thread, so a
+   * {@link #stop()} in between is not lost.
+   */
+  SearchResult resume(int maxDepth, TimeManager timeManager, Consumer<SearchResult> listener) {
+    if (maxDepth < 1) {
+      throw new IllegalArgumentException("Depth must be at least 1: " + maxDepth);
+    }
+    var start = System.nanoTime();
+    var hardLimit = timeManager.getHardLimit();
+    this.deadline = hardLimit > 0 ? start + hardLimit * 1_000_000L : Long.MAX_VALUE;
+    this.board.generateMoves(this.rootMoves);
+    this.rootInBitbases = this.bitbases != null
+        && this.bitbases.probe(this.board) != Bitbases.UNKNOWN;
+    this.nodes = 0;
+    this.cutoffs = 0;
+    this.firstMoveCutoffs = 0;
+    this.pawnHashTable.resetStatistics();
+    for (var killers : this.killers) {
+      killers[0] = Moves.NONE;
+      killers[1] = Moves.NONE;
+    }
+    this.ageHistory();
+    if (this.helperId == 0) {
+      this.transpositionTable.newSearch();
+    }
+    SearchResult result = null;
+    // every second helper skips the first depth, so the threads do not search in lockstep
+    for (var depth = Math.min(1 + (this.helperId & 1), maxDepth);
+        depth <= Math.min(maxDepth, MAX_PLY - 1); depth++) {
+      var score = this.negamax(depth, 0, -INFINITY, INFINITY);
+      if (this.stopped && result != null) {
+        break;
+      }
+      var pv = new int[this.pvLength[0]];
+      System.arraycopy(this.pvTable[0], 0, pv, 0, pv.length);
+      result = new SearchResult(pv.length > 0 ? pv[0] : Moves.NONE, score, depth, this.nodes,
+          (System.nanoTime() - start) / 1_000_000L, pv);
+      LOGGER.log(Level.FINE, result.toString());
+      if (listener != null) {
+        listener.accept(result);
+      }
+      if (this.stopped || pv.length == 0 || result.isMate()) {
+        break;
+      }
+      // the time manager sees every iteration, so it can follow the stability of the best move
+      if (timeManager.shouldStop(result)
+          || timeManager.isAdaptive() && this.rootMoves.size() == 1) {
+        break;
+      }
+    }
+    LOGGER.log(Level.FINE, this.getStatistics().toString());
+    if (result == null) {
+      result = new SearchResult(Moves.NONE, 0, 0, this.nodes,
+          (System.nanoTime() - start) / 1_000_000L, new int[0]);
+    }
+    if (result.bestMove() == Moves.NONE) {
+      // stopped before the first iteration found a move, so any legal move is better than none
+      if (!this.rootMoves.isEmpty()) {
+        var move = this.rootMoves.get(0);
+        result = new SearchResult(move, result.score(), 0, this.nodes, result.millis(),
+            new int[]{move});
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Signals the search to stop as soon as possible.
+   */
+  public void stop() {
+    this.stopped = true;
+  }
+
+  /**
+   * Clears the stop signal before the next {@link #resume}.
+   */
+  void reset() {
+    this.stopped = false;
+  }
+
+  public long getNodes() {
+    return this.nodes;
+  }
+
+  /**
+   * Returns the statistics of the last search.
+   *
+   * @return the statistics
+   */
+  public Statistics getStatistics() {
+    return new Statistics(this.nodes, this.cutoffs, this.firstMoveCutoffs,
+        this.pawnHashTable.getProbes(), this.pawnHashTable.getHits());
+  }
+
+  /**
+   * Sets the endgame tables, which are probed in all positions below the root with few pieces.
+   *
+   * @param bitbases the tables or null to search without them
+   */
+  public void setBitbases(Bitbases bitbases) {
+    this.bitbases = bitbases;
+  }
+
+  /**
+   * Marks this search as helper of a {@link LazySmpSearch}, which fills the shared
+   * transposition table for the main search.
+   *
+   * @param helperId the id of the helper, at least 1
+   */
+  void setHelperId(int helperId) {
+    this.helperId = helperId;
+  }
+
+  /**
+   * Searches the current position with a negamax alpha-beta search.
+   *
+   * @param depth the remaining depth in plies
+   * @param ply   the distance to the root
+   * @param alpha the lower bound
+   * @param beta  the upper bound
+   * @return the score from the view of the current team
+   */
+  private int negamax(int depth, int ply, int alpha, int beta) {
+    this.pvLength[ply] = 0;
+    if ((++this.nodes & (CHECK_INTERVAL - 1)) == 0 && System.nanoTime() >= this.deadline) {
+      this.stopped = true;
+    }
+    if (this.stopped) {
+      return 0;
+    }
+    if (ply > 0 && (this.board.getHalfMoves() >= 100 || this.board.isRepetition())) {
+      return 0;
+    }
+    if (ply > 0 && this.bitbases != null) {
+      // won positions are only cut off once they are reached from a position without a table
+      var result = this.bitbases.probe(this.board);
+      if (result == Bitbases.DRAW || result != Bitbases.UNKNOWN && !this.rootInBitbases) {
+        return this.scoreOf(result);
+      }
+    }
+    var inCheck = this.board.isInCheck(this.board.getCurrentTeam());
+    if (inCheck) {
+      depth++;
+    }
+    if (depth <= 0 || ply >= MAX_PLY) {
+      return this.quiescence(ply, alpha, beta, inCheck);
+    }
+
+    var key = this.board.getZobristKey();
+    var entry = this.transpositionTable.probe(key);
+    var ttMove = Moves.NONE;
+    if (entry != TranspositionTable.NO_ENTRY) {
+      ttMove = TranspositionTable.move(entry);
+      var ttScore = fromTranspositionTable(TranspositionTable.score(entry), ply);
+      if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+        var bound = TranspositionTable.bound(entry);
+        if (bound == TranspositionTable.EXACT
+            || bound == TranspositionTable.LOWER_BOUND && ttScore >= beta
+            || bound == TranspositionTable.UPPER_BOUND && ttScore <= alpha) {
+          return ttScore;
+        }
+      }
+    }
+
+    var picker = this.movePickers[ply];
+    picker.init(this.board, ttMove, this.killers[ply][0], this.killers[ply][1], this.history);
+    var originalAlpha = alpha;
+    var bestScore = -INFINITY;
+    var bestMove = Moves.NONE;
+    var legalMoves = 0;
+    for (var move = picker.next(); move != Moves.NONE; move = picker.next()) {
+      legalMoves++;
+      this.board.makeMove(move);
+      var score = -this.negamax(depth - 1, ply + 1, -beta, -alpha);
+      this.board.unmakeMove();
+      if (this.stopped) {
+        return 0;
+      }
+      if (score > bestScore) {
+        bestScore = score;
+        bestMove = move;
+        if (score > alpha) {
+          alpha = score;
+          this.updatePv(ply, move);
+          if (score >= beta) {
+            this.onCutoff(move, depth, ply, legalMoves);
+            break;
+          }
+        }
+      }
+    }
+    if (legalMoves == 0) {
+      return inCheck ? -MATE + ply : 0;
+    }
+    var bound = bestScore >= beta ? TranspositionTable.LOWER_BOUND
+        : bestScore > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND;
+    this.transpositionTable.store(key, bestMove, toTranspositionTable(bestScore, ply), depth,
+        bound);
+    return bestScore;
+  }
+
+  /**
+   * Searches captures and promotions until the position is quiet, so the static evaluation is not
+   * taken in the middle of an exchange, see
+   * <a href="https://www.chessprogramming.org/Quiescence_Search">Quiescence Search</a>. Captures
+   * losing material by {@link StaticExchange} and underpromotions are skipped. A team in check
+   * cannot stand pat and searches all evasions instead.
+   *
+   * @param ply     the distance to the root
+   * @param alpha   the lower bound
+   * @param beta    the upper bound
+   * @param inCheck if the current team is in check
+   * @return the score from the view of the current team
+   */
+  private int quiescence(int ply, int alpha, int beta, boolean inCheck) {
+    this.pvLength[ply] = 0;
+    if (ply >= MAX_PLY) {
+      return this.evaluate();
+    }
+    var bestScore = -INFINITY;
+    var picker = this.movePickers[ply];
+    if (inCheck) {
+      picker.init(this.board, Moves.NONE, Moves.NONE, Moves.NONE, this.history);
+    } else {
+      bestScore = this.evaluate();
+      if (bestScore >= beta) {
+        return bestScore;
+      }
+      alpha = Math.max(alpha, bestScore);
+      picker.initCaptures(this.board);
+    }
+    var legalMoves = 0;
+    for (var move = picker.next(); move != Moves.NONE; move = picker.next()) {
+      legalMoves++;
+      if (!inCheck && (Moves.isPromotion(move) ? Moves.promotion(move) != PieceType.QUEEN
+          : !StaticExchange.isAtLeast(this.board, move, 0))) {
+        continue;
+      }
+      this.board.makeMove(move);
+      if ((++this.nodes & (CHECK_INTERVAL - 1)) == 0 && System.nanoTime() >= this.deadline) {
+        this.stopped = true;
+      }
+      var score = this.stopped ? 0 : -this.quiescence(ply + 1, -beta, -alpha,
+          this.board.isInCheck(this.board.getCurrentTeam()));
+      this.board.unmakeMove();
+      if (this.stopped) {
+        return 0;
+      }
+      if (score > bestScore) {
+        bestScore = score;
+        if (score > alpha) {
+          alpha = score;
+          if (score >= beta) {
+            break;
+          }
+        }
+      }
+    }
+    if (inCheck && legalMoves == 0) {
+      return -MATE + ply;
+    }
+    return bestScore;
+  }
+
+  private void updatePv(int ply, int move) {
+    this.pvTable[ply][0] = move;
+    System.arraycopy(this.pvTable[ply + 1], 0, this.pvTable[ply], 1, this.pvLength[ply + 1]);
+    this.pvLength[ply] = this.pvLength[ply + 1] + 1;
+  }
+
+  /**
+   * Counts a beta cutoff and remembers a quiet cutoff move as killer of the ply and in the
+   * history, so it is tried early in sibling nodes and later searches.
+   *
+   * @param move       the move which caused the cutoff
+   * @param depth      the remaining depth
+   * @param ply        the distance to the root
+   * @param moveNumber the number of the move at this node, starting with 1
+   */
+  private void onCutoff(int move, int depth, int ply, int moveNumber) {
+    this.cutoffs++;
+    if (moveNumber == 1) {
+      this.firstMoveCutoffs++;
+    }
+    if (Moves.isCapture(move) || Moves.isPromotion(move)) {
+      return;
+    }
+    var killers = this.killers[ply];
+    if (killers[0] != move) {
+      killers[1] = killers[0];
+      killers[0] = move;
+    }
+    var index = this.board.getPieceCode(Moves.from(move)) * 64 + Moves.to(move);
+    this.history[index] += depth * depth;
+    if (this.history[index] > MAX_HISTORY) {
+      this.ageHistory();
+    }
+  }
+
+  private void ageHistory() {
+    for (var i = 0; i < this.history.length; i++) {
+      this.history[i] >>= 1;
+    }
+  }
+
+  /**
+   * Evaluates the current position, with the bitbases if they have its material.
+   *
+   * @return the score from the view of the current team
+   */
+  private int evaluate() {
+    if (this.bitbases != null) {
+      var result = this.bitbases.probe(this.board);
+      if (result != Bitbases.UNKNOWN) {
+        return this.scoreOf(result);
+      }
+    }
+    return Evaluation.evaluate(this.board, this.pawnHashTable);
+  }
+
+  /**
+   * Converts the result of a bitbase probe into a score from the view of the current team.
+   */
+  private int scoreOf(int result) {
+    if (result == Bitbases.DRAW) {
+      return 0;
+    }
+    var team = this.board.getCurrentTeam();
+    return result == Bitbases.WIN ? KNOWN_WIN + Evaluation.evaluateKnownWin(this.board, team)
+        : -KNOWN_WIN - Evaluation.evaluateKnownWin(this.board,
+            team == PieceColor.W ? PieceColor.B : PieceColor.W);
+  }
+
+  /**
+   * Converts a mate score relative to the root into one relative to the current position, so it
+   * stays valid when the position is reached by another path.
+   *
+   * @param score the score
+   * @param ply   the distance to the root
+   * @return the score to store
+   */
+  private static int toTranspositionTable(int score, int ply) {
+    if (score >= MATE - MAX_PLY) {
+      return score + ply;
+    }
+    if (score <= -MATE + MAX_PLY) {
+      return score - ply;
+    }
+    return score;
+  }
+
+  private static int fromTranspositionTable(int score, int ply) {
+    if (score >= MATE - MAX_PLY) {
+      return score - ply;
+    }
+    if (score <= -MATE + MAX_PLY) {
+      return score + ply;
+    }
+    return score;
+  }
+
+  /**
+   * Record for the statistics of a search.
+   *
+   * @param nodes            the number of visited nodes
+   * @param cutoffs          the number of beta cutoffs
+   * @param firstMoveCutoffs the number of beta cutoffs by the first move of a node
+   * @param pawnProbes       the number of probes of the pawn hash table
+   * @param pawnHits         the number of probes which found the pawn structure
+   */
+  public record Statistics(long nodes, long cutoffs, long firstMoveCutoffs, long pawnProbes,
+                           long pawnHits) {
+
+    /**
+     * Returns the share of the cutoffs caused by the first move, which shows how good the move
+     * ordering is.
+     *
+     * @return the rate between 0 and 1
+     */
+    public double firstMoveCutoffRate() {
+      return this.cutoffs == 0 ? 0.0 : (double) this.firstMoveCutoffs / this.cutoffs;
+    }
+
+    public double pawnHitRate() {
+      return this.pawnProbes == 0 ? 0.0 : (double) this.pawnHits / this.pawnProbes;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(Locale.ROOT,
+          "nodes=%d cutoffs=%d first move cutoffs=%d (%.1f%%) pawn hits=%d (%.1f%%)",
+          this.nodes, this.cutoffs, this.firstMoveCutoffs, this.firstMoveCutoffRate() * 100,
+          this.pawnHits, this.pawnHitRate() * 100);
+    }
+  }
+}
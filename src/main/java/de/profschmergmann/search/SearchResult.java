@@ -0,0 +1,45 @@
+package de.profschmergmann.search;
+
+import de.profschmergmann.Moves;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Record for the result of a completed iteration of the search.
+ *
+ * @param bestMove the best encoded move or {@link Moves#NONE} if there is no legal move
+ * @param score    the score in centipawns from the view of the current team
+ * @param depth    the completed depth
+ * @param nodes    the number of visited nodes
+ * @param millis   the elapsed time in milliseconds
+ * @param pv       the principal variation starting with the best move
+ */
+public record SearchResult(int bestMove, int score, int depth, long nodes, long millis,
+                           int[] pv) {
+
+  /**
+   * Checks if the score is a mate score.
+   *
+   * @return true if a mate was found, else false
+   */
+  public boolean isMate() {
+    return Math.abs(this.score) >= Search.MATE - Search.MAX_PLY;
+  }
+
+  public long nodesPerSecond() {
+    return this.nodes * 1000 / Math.max(this.millis, 1);
+  }
+
+  @Override
+  public String toString() {
+    var score = "cp " + this.score;
+    if (this.isMate()) {
+      var plies = Search.MATE - Math.abs(this.score);
+      score = "mate " + (this.score > 0 ? (plies + 1) / 2 : -plies / 2);
+    }
+    return String.format(Locale.ROOT, "depth %d score %s nodes %d time %d nps %d pv %s",
+        this.depth, score, this.nodes, this.millis, this.nodesPerSecond(),
+        Arrays.stream(this.pv).mapToObj(Moves::toString).collect(Collectors.joining(" ")));
+  }
+}
@@ -0,0 +1,109 @@
+package de.profschmergmann.search;
+
+import de.profschmergmann.Bitboards;
+import de.profschmergmann.Board;
+import de.profschmergmann.Moves;
+import de.profschmergmann.pieces.Piece.PieceColor;
+import de.profschmergmann.pieces.Piece.PieceType;
+
+/**
+ * Static exchange evaluation, which decides if a capture wins material by playing out all
+ * captures on the target square with the least valuable attacker first, see
+ * <a href="https://www.chessprogramming.org/Static_Exchange_Evaluation">Static Exchange
+ * Evaluation</a>.
+ * <p>
+ * The exchange only compares the result against a threshold, so it stops as soon as the outcome
+ * is decided and needs no swap list. Pinned pieces are treated as attackers.
+ */
+public final class StaticExchange {
+
+  /**
+   * Attacker types from the least to the most valuable, the king comes last.
+   */
+  private static final PieceType[] ATTACKERS = {PieceType.PAWN, PieceType.KNIGHT,
+      PieceType.BISHOP, PieceType.ROOK, PieceType.QUEEN, PieceType.KING};
+  private static final int PAWN = PieceType.PAWN.ordinal();
+
+  private StaticExchange() {
+  }
+
+  /**
+   * Checks if the exchange started by the move gains at least the threshold in centipawns for
+   * the moving team. Moves which are no captures are evaluated as exchanges of the moved piece on
+   * its target square.
+   *
+   * @param board     the board, which is not changed
+   * @param move      the encoded move of the current team
+   * @param threshold the minimum gain
+   * @return true if the exchange gains at least the threshold, else false
+   */
+  public static boolean isAtLeast(Board board, int move, int threshold) {
+    if (Moves.isCastling(move) || Moves.isPromotion(move)) {
+      return threshold <= 0;
+    }
+    var from = Moves.from(move);
+    var to = Moves.to(move);
+    var enPassant = Moves.flags(move) == Moves.EN_PASSANT;
+    var victim = enPassant ? PAWN : board.getPieceCode(to) >>> 1;
+    var swap = (Moves.isCapture(move) ? Evaluation.PIECE_VALUES[victim] : 0) - threshold;
+    if (swap < 0) {
+      return false;
+    }
+    swap = Evaluation.PIECE_VALUES[board.getPieceCode(from) >>> 1] - swap;
+    if (swap <= 0) {
+      return true;
+    }
+    var occupied = board.getOccupied() ^ 1L << from ^ 1L << to;
+    if (enPassant) {
+      occupied ^= 1L << (Bitboards.rankOf(from) * 8 + Bitboards.fileOf(to));
+    }
+    var diagonal = board.getBitboard(PieceType.BISHOP, PieceColor.W)
+        | board.getBitboard(PieceType.BISHOP, PieceColor.B)
+        | board.getBitboard(PieceType.QUEEN, PieceColor.W)
+        | board.getBitboard(PieceType.QUEEN, PieceColor.B);
+    var straight = board.getBitboard(PieceType.ROOK, PieceColor.W)
+        | board.getBitboard(PieceType.ROOK, PieceColor.B)
+        | board.getBitboard(PieceType.QUEEN, PieceColor.W)
+        | board.getBitboard(PieceType.QUEEN, PieceColor.B);
+    var attackers = board.attackersTo(to, occupied);
+    var side = board.getCurrentTeam();
+    // 1 if the moving team wins the exchange so far, which flips with every recapture
+    var result = 1;
+    while (true) {
+      side = side == PieceColor.W ? PieceColor.B : PieceColor.W;
+      attackers &= occupied;
+      var own = attackers & board.getTeamBitboard(side);
+      if (own == 0) {
+        break;
+      }
+      result ^= 1;
+      PieceType attacker = null;
+      var pieces = 0L;
+      for (var type : ATTACKERS) {
+        pieces = own & board.getBitboard(type, side);
+        if (pieces != 0) {
+          attacker = type;
+          break;
+        }
+      }
+      if (attacker == PieceType.KING) {
+        // the king can only recapture if the square is not defended anymore
+        return ((attackers & ~board.getTeamBitboard(side)) != 0 ? result ^ 1 : result) == 1;
+      }
+      swap = Evaluation.PIECE_VALUES[attacker.ordinal()] - swap;
+      if (swap < result) {
+        break;
+      }
+      occupied ^= Long.lowestOneBit(pieces);
+      // the captured attacker may reveal a sliding piece behind it
+      if (attacker == PieceType.PAWN || attacker == PieceType.BISHOP
+          || attacker == PieceType.QUEEN) {
+        attackers |= Bitboards.bishopAttacks(to, occupied) & diagonal;
+      }
+      if (attacker == PieceType.ROOK || attacker == PieceType.QUEEN) {
+        attackers |= Bitboards.rookAttacks(to, occupied) & straight;
+      }
+    }
+    return result == 1;
+  }
+}
@@ -0,0 +1,119 @@
+package de.profschmergmann.search;
+
+/**
+ * Decides how long a single search may take, either with a fixed time per move or from the
+ * remaining time of a clock, see
+ * <a href="https://www.chessprogramming.org/Time_Management">Time Management</a>.
+ * <p>
+ * A clocked search gets two limits: after the soft limit no new iteration is started, and at the
+ * hard limit the running iteration is aborted. The soft limit is scaled after every iteration,
+ * so a best move which keeps changing or a dropping score gets more time and a stable best move
+ * gets less. A time manager keeps state about the iterations and is used for one search only.
+ */
+public final class TimeManager {
+
+  /**
+   * Time in milliseconds kept back for every move to cover the latency of the server and the
+   * scheduling of the threads.
+   */
+  public static final long MOVE_OVERHEAD = 30L;
+  /**
+   * Number of moves the remaining time is split into if the clock has no moves to go.
+   */
+  public static final int DEFAULT_MOVES_TO_GO = 30;
+  private static final int MAX_MOVES_TO_GO = 50;
+  /**
+   * Score drop in centipawns between two iterations which gives the search more time.
+   */
+  private static final int SCORE_DROP = 50;
+  private final long softLimit;
+  private final long hardLimit;
+  private final boolean adaptive;
+  private int lastBestMove;
+  private int lastScore;
+  private int stableIterations;
+  private double bestMoveChanges;
+
+  private TimeManager(long softLimit, long hardLimit, boolean adaptive) {
+    this.softLimit = softLimit;
+    this.hardLimit = hardLimit;
+    this.adaptive = adaptive;
+    this.lastBestMove = -1;
+  }
+
+  /**
+   * Creates a time manager with a fixed time per move, which always searches until the time is
+   * up or the maximum depth is reached.
+   *
+   * @param millis the time per move in milliseconds or 0 for no limit
+   * @return the time manager
+   */
+  public static TimeManager fixed(long millis) {
+    return new TimeManager(millis, millis, false);
+  }
+
+  /**
+   * Creates a time manager for a clock of the team to move.
+   *
+   * @param remaining the remaining time on the clock in milliseconds
+   * @param increment the increment per move in milliseconds
+   * @param movesToGo the number of moves until the next time control or 0 for sudden death
+   * @return the time manager
+   */
+  public static TimeManager forClock(long remaining, long increment, int movesToGo) {
+    if (remaining <= 0) {
+      throw new IllegalArgumentException("No time left on the clock: " + remaining);
+    }
+    var moves = movesToGo > 0 ? Math.min(movesToGo, MAX_MOVES_TO_GO) : DEFAULT_MOVES_TO_GO;
+    var usable = Math.max(remaining - MOVE_OVERHEAD, remaining / 4);
+    // the increment is only credited after the move, so it never raises the hard limit above
+    // the remaining time
+    var target = usable / moves + Math.max(increment, 0) * 3 / 4;
+    var hardLimit = Math.max(Math.min(target * 4, moves == 1 ? usable * 9 / 10 : usable / 2), 1);
+    var softLimit = Math.max(Math.min(target * 6 / 10, hardLimit), 1);
+    return new TimeManager(softLimit, hardLimit, true);
+  }
+
+  /**
+   * Decides after a completed iteration if the search stops or starts the next iteration.
+   *
+   * @param result the result of the completed iteration
+   * @return true if the search should stop, else false
+   */
+  public boolean shouldStop(SearchResult result) {
+    if (!this.adaptive) {
+      return false;
+    }
+    if (this.lastBestMove >= 0) {
+      var changed = result.bestMove() != this.lastBestMove;
+      this.bestMoveChanges = this.bestMoveChanges / 2 + (changed ? 1 : 0);
+      this.stableIterations = changed ? 0 : this.stableIterations + 1;
+    }
+    var scale = (1.0 + this.bestMoveChanges) * (this.stableIterations >= 4 ? 0.5 : 1.0);
+    if (this.lastBestMove >= 0 && this.lastScore - result.score() >= SCORE_DROP) {
+      scale *= 1.5;
+    }
+    this.lastBestMove = result.bestMove();
+    this.lastScore = result.score();
+    // the next iteration takes at least as long as all completed ones, so it is not started if
+    // it would run into the hard limit anyway
+    return result.millis() >= this.softLimit * scale || result.millis() * 2 >= this.hardLimit;
+  }
+
+  /**
+   * Checks if the limits come from a clock, so the search may stop before the time is up.
+   *
+   * @return true for a clocked search, false for a fixed time per move
+   */
+  public boolean isAdaptive() {
+    return this.adaptive;
+  }
+
+  public long getSoftLimit() {
+    return this.softLimit;
+  }
+
+  public long getHardLimit() {
+    return this.hardLimit;
+  }
+}
@@ -0,0 +1,244 @@
+package de.profschmergmann.search;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Fixed size transposition table, which many search threads can read and write at the same time
+ * without locks, see <a href="https://www.chessprogramming.org/Shared_Hash_Table">Shared Hash
+ * Table</a>.
+ * <p>
+ * Every entry consists of two longs in a {@code long[]}: the Zobrist key XOR the data and the
+ * data itself. A reader only accepts an entry if both longs XOR to the probed key, so an entry
+ * torn by two threads writing at once is treated as a miss instead of returning the data of
+ * another position. Four entries form a bucket of one cache line. When storing, an entry of the
+ * same position is replaced, otherwise the entry with the lowest depth, preferring entries from
+ * older searches.
+ * <p>
+ * The data packs the best move (bits 0 to 15), the score (bits 16 to 31), the depth (bits 32 to
+ * 39), the bound type (bits 40 to 41) and the age of the search (bits 42 to 47).
+ */
+public class TranspositionTable {
+
+  public static final int EXACT = 1;
+  public static final int LOWER_BOUND = 2;
+  public static final int UPPER_BOUND = 3;
+  /**
+   * Returned by {@link #probe(long)} if there is no entry for the key.
+   */
+  public static final long NO_ENTRY = 0L;
+  private static final Logger LOGGER = Logger.getLogger(TranspositionTable.class.getName());
+  private static final int BUCKET_SIZE = 4;
+  private static final int AGE_MASK = 0x3F;
+  private final long[] table;
+  private final int bucketMask;
+  private final LongAdder probes;
+  private final LongAdder hits;
+  private final LongAdder stores;
+  private final LongAdder overwrites;
+  private volatile int age;
+
+  /**
+   * Constructor which allocates the largest power of two of buckets fitting into the given size.
+   *
+   * @param megabytes the size of the table in MB, at least 1
+   */
+  public TranspositionTable(int megabytes) {
+    if (megabytes < 1 || megabytes > 8192) {
+      throw new IllegalArgumentException("Size must be between 1 and 8192 MB: " + megabytes);
+    }
+    var buckets = Long.highestOneBit(megabytes * 1024L * 1024L / (BUCKET_SIZE * 16L));
+    this.table = new long[(int) (buckets * BUCKET_SIZE * 2)];
+    this.bucketMask = (int) buckets - 1;
+    this.probes = new LongAdder();
+    this.hits = new LongAdder();
+    this.stores = new LongAdder();
+    this.overwrites = new LongAdder();
+    LOGGER.log(Level.FINE, "Allocated transposition table with " + this.capacity() + " entries.");
+  }
+
+  //region Entry data
+  public static int move(long data) {
+    return (int) (data & 0xFFFF);
+  }
+
+  public static int score(long data) {
+    return (short) (data >>> 16);
+  }
+
+  public static int depth(long data) {
+    return (int) (data >>> 32 & 0xFF);
+  }
+
+  public static int bound(long data) {
+    return (int) (data >>> 40 & 3);
+  }
+
+  private static int age(long data) {
+    return (int) (data >>> 42 & AGE_MASK);
+  }
+
+  private static long pack(int move, int score, int depth, int bound, int age) {
+    return (move & 0xFFFFL) | (score & 0xFFFFL) << 16 | (long) (depth & 0xFF) << 32
+        | (long) bound << 40 | (long) age << 42;
+  }
+  //endregion
+
+  /**
+   * Looks up the entry of a position.
+   *
+   * @param key the Zobrist key of the position
+   * @return the entry data or {@link #NO_ENTRY}
+   */
+  public long probe(long key) {
+    this.probes.increment();
+    var index = this.bucketIndex(key);
+    for (var i = index; i < index + BUCKET_SIZE * 2; i += 2) {
+      var data = this.table[i + 1];
+      if ((this.table[i] ^ data) == key && data != NO_ENTRY) {
+        this.hits.increment();
+        return data;
+      }
+    }
+    return NO_ENTRY;
+  }
+
+  /**
+   * Stores the result of a search.
+   *
+   * @param key   the Zobrist key of the position
+   * @param move  the best encoded move or 0 if there is none
+   * @param score the score, which must fit into a short
+   * @param depth the searched depth between 0 and 255
+   * @param bound {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}
+   */
+  public void store(long key, int move, int score, int depth, int bound) {
+    this.stores.increment();
+    var index = this.bucketIndex(key);
+    var currentAge = this.age;
+    var replace = index;
+    var replaceValue = Integer.MAX_VALUE;
+    for (var i = index; i < index + BUCKET_SIZE * 2; i += 2) {
+      var data = this.table[i + 1];
+      if (data == NO_ENTRY) {
+        replace = i;
+        break;
+      }
+      if ((this.table[i] ^ data) == key) {
+        // keep the move of a previous search if this one did not find a better one
+        if (move == 0) {
+          move = move(data);
+        }
+        if (bound != EXACT && depth < depth(data) - 2 && age(data) == currentAge) {
+          return;
+        }
+        replace = i;
+        replaceValue = Integer.MIN_VALUE;
+        break;
+      }
+      var value = depth(data) - 8 * ((currentAge - age(data)) & AGE_MASK);
+      if (value < replaceValue) {
+        replace = i;
+        replaceValue = value;
+      }
+    }
+    var old = this.table[replace + 1];
+    if (old != NO_ENTRY && (this.table[replace] ^ old) != key) {
+      this.overwrites.increment();
+    }
+    var data = pack(move, score, depth, bound, currentAge);
+    this.table[replace + 1] = data;
+    this.table[replace] = key ^ data;
+  }
+
+  /**
+   * Starts a new search, so entries of earlier searches are replaced first.
+   */
+  public void newSearch() {
+    this.age = (this.age + 1) & AGE_MASK;
+  }
+
+  /**
+   * Removes all entries and resets the statistics.
+   */
+  public void clear() {
+    Arrays.fill(this.table, 0L);
+    this.age = 0;
+    this.probes.reset();
+    this.hits.reset();
+    this.stores.reset();
+    this.overwrites.reset();
+  }
+
+  /**
+   * Returns the number of entries.
+   *
+   * @return the capacity
+   */
+  public int capacity() {
+    return this.table.length / 2;
+  }
+
+  /**
+   * Estimates the per mille of entries used by the current search from the first thousand
+   * entries, as reported by the {@code hashfull} value of the UCI protocol.
+   *
+   * @return the used entries per mille
+   */
+  public int hashfull() {
+    var sample = Math.min(1000, this.capacity());
+    var used = 0;
+    for (var i = 0; i < sample; i++) {
+      var data = this.table[i * 2 + 1];
+      if (data != NO_ENTRY && age(data) == this.age) {
+        used++;
+      }
+    }
+    return used * 1000 / sample;
+  }
+
+  /**
+   * Returns the statistics since the creation of the table or the last {@link #clear()}.
+   *
+   * @return the statistics
+   */
+  public Statistics getStatistics() {
+    return new Statistics(this.probes.sum(), this.hits.sum(), this.stores.sum(),
+        this.overwrites.sum(), this.hashfull());
+  }
+
+  private int bucketIndex(long key) {
+    return ((int) (key >>> 32) & this.bucketMask) * BUCKET_SIZE * 2;
+  }
+
+  /**
+   * Record for the usage statistics of the table.
+   *
+   * @param probes     the number of probes
+   * @param hits       the number of probes which found an entry
+   * @param stores     the number of stores
+   * @param overwrites the number of stores which replaced an entry of another position
+   * @param hashfull   the used entries per mille, see {@link #hashfull()}
+   */
+  public record Statistics(long probes, long hits, long stores, long overwrites, int hashfull) {
+
+    public double hitRate() {
+      return this.probes == 0 ? 0.0 : (double) this.hits / this.probes;
+    }
+
+    public double overwriteRate() {
+      return this.stores == 0 ? 0.0 : (double) this.overwrites / this.stores;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(Locale.ROOT,
+          "probes=%d hits=%d (%.1f%%) stores=%d overwrites=%d (%.1f%%) hashfull=%d",
+          this.probes, this.hits, this.hitRate() * 100, this.stores, this.overwrites,
+          this.overwriteRate() * 100, this.hashfull);
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package de.profschmergmann.tools;
+
+import de.profschmergmann.Board;
+import de.profschmergmann.search.Search;
+import de.profschmergmann.search.TranspositionTable;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Command line tool which searches a fixed set of positions to a fixed depth with a single thread
+ * and prints the node counts, speed and search statistics like the cutoff rate of the first move,
+ * so changes of the search can be compared.
+ * <p>
+ * Usage: {@code Bench [depth] [hash size in MB]}
+ */
+public final class Bench {
+
+  /**
+   * Positions from the opening to the endgame, including sharp tactical ones.
+   */
+  public static final List<String> POSITIONS = List.of(
+      "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+      "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+      "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+      "r1bq1rk1/pp2bppp/2n1pn2/3p4/2PP4/2N1PN2/PP1B1PPP/R2QKB1R w KQ - 0 8",
+      "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+      "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+      "2r3k1/pp3ppp/2n1b3/3p4/3P4/2NB1N2/PP3PPP/6K1 w - - 0 20",
+      "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1");
+
+  private Bench() {
+  }
+
+  public static void main(String[] args) {
+    var depth = args.length > 0 ? Integer.parseInt(args[0]) : 7;
+    var hashSize = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+    run(depth, hashSize, System.out);
+  }
+
+  /**
+   * Searches all {@link #POSITIONS} to the given depth with a cleared table and prints one line
+   * per position and the totals.
+   *
+   * @param depth    the depth to search
+   * @param hashSize the size of the transposition table in MB
+   * @param out      the stream to print the results to
+   * @return the total number of nodes
+   */
+  public static long run(int depth, int hashSize, PrintStream out) {
+    var transpositionTable = new TranspositionTable(hashSize);
+    var nodes = 0L;
+    var millis = 0L;
+    var cutoffs = 0L;
+    var firstMoveCutoffs = 0L;
+    var pawnProbes = 0L;
+    var pawnHits = 0L;
+    for (var fen : POSITIONS) {
+      transpositionTable.clear();
+      var search = new Search(new Board(fen), transpositionTable);
+      var result = search.search(depth, 0, null);
+      var statistics = search.getStatistics();
+      out.printf(Locale.ROOT, "%s%n  %s%n  %s%n", fen, result, statistics);
+      nodes += result.nodes();
+      millis += result.millis();
+      cutoffs += statistics.cutoffs();
+      firstMoveCutoffs += statistics.firstMoveCutoffs();
+      pawnProbes += statistics.pawnProbes();
+      pawnHits += statistics.pawnHits();
+    }
+    out.printf(Locale.ROOT, "total: %d nodes in %d ms, %d nodes/s, %s%n", nodes, millis,
+        nodes * 1000 / Math.max(millis, 1),
+        new Search.Statistics(nodes, cutoffs, firstMoveCutoffs, pawnProbes, pawnHits));
+    return nodes;
+  }
+}
@@ -0,0 +1,49 @@
+package de.profschmergmann.tools;
+
+import de.profschmergmann.book.BookBuilder;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Locale;
+
+/**
+ * Command line tool which builds an opening book from PGN files, see {@link BookBuilder}.
+ * <p>
+ * Usage: {@code BuildBook [--plies=30] [--min-games=1] [--threads=cores] <book> <pgn>...}
+ */
+public final class BuildBook {
+
+  private BuildBook() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    var plies = BookBuilder.DEFAULT_MAX_PLIES;
+    var minGames = 1;
+    var threads = Runtime.getRuntime().availableProcessors();
+    var files = new ArrayList<Path>();
+    for (var arg : args) {
+      if (arg.startsWith("--plies=")) {
+        plies = Integer.parseInt(arg.substring(8));
+      } else if (arg.startsWith("--min-games=")) {
+        minGames = Integer.parseInt(arg.substring(12));
+      } else if (arg.startsWith("--threads=")) {
+        threads = Integer.parseInt(arg.substring(10));
+      } else {
+        files.add(Path.of(arg));
+      }
+    }
+    if (files.size() < 2) {
+      System.err.println(
+          "Usage: BuildBook [--plies=30] [--min-games=1] [--threads=cores] <book> <pgn>...");
+      System.exit(1);
+    }
+    var book = files.remove(0);
+    var builder = new BookBuilder(plies, minGames, threads, BookBuilder.DEFAULT_RUN_ENTRIES,
+        book.toAbsolutePath().getParent());
+    var statistics = builder.build(files, book);
+    System.out.printf(Locale.ROOT,
+        "%d games (%d invalid), %d moves, %d runs, %d book entries in %.3f s (%.0f games/s)%n",
+        statistics.games(), statistics.invalidGames(), statistics.moves(), statistics.runs(),
+        statistics.bookEntries(), statistics.nanos() / 1e9, statistics.gamesPerSecond());
+  }
+}
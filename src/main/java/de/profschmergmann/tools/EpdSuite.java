@@ -0,0 +1,369 @@
+package de.profschmergmann.tools;
+
+import de.profschmergmann.Board;
+import de.profschmergmann.MoveList;
+import de.profschmergmann.Moves;
+import de.profschmergmann.San;
+import de.profschmergmann.search.Search;
+import de.profschmergmann.search.TranspositionTable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Command line tool which runs a test suite of positions in the
+ * <a href="https://www.chessprogramming.org/Extended_Position_Description">EPD</a> format, like
+ * the Win at Chess suite. A position is solved if the search finds one of the moves of its
+ * {@code bm} operation and none of the moves of its {@code am} operation. The positions are
+ * spread across a pool of workers, each with its own board, search and transposition table, and
+ * the solved positions, nodes and nodes per second of every worker are reported.
+ * <p>
+ * Usage:
+ * {@code EpdSuite [--depth=n] [--time=1000] [--workers=cores] [--hash=16] <file>}, a search
+ * stops at the depth or after the time in milliseconds, whichever comes first. A time of 0
+ * searches to the depth, without a depth or time every position is searched for one second.
+ */
+public final class EpdSuite {
+
+  private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+
+  private EpdSuite() {
+  }
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    var depth = Search.MAX_PLY;
+    var millis = -1L;
+    var workers = Runtime.getRuntime().availableProcessors();
+    var hashSize = 16;
+    Path file = null;
+    for (var arg : args) {
+      if (arg.startsWith("--depth=")) {
+        depth = Integer.parseInt(arg.substring(8));
+      } else if (arg.startsWith("--time=")) {
+        millis = Long.parseLong(arg.substring(7));
+      } else if (arg.startsWith("--workers=")) {
+        workers = Integer.parseInt(arg.substring(10));
+      } else if (arg.startsWith("--hash=")) {
+        hashSize = Integer.parseInt(arg.substring(7));
+      } else {
+        file = Path.of(arg);
+      }
+    }
+    if (file == null) {
+      System.err.println(
+          "Usage: EpdSuite [--depth=n] [--time=1000] [--workers=cores] [--hash=16] <file>");
+      System.exit(1);
+    }
+    if (millis < 0) {
+      millis = depth == Search.MAX_PLY ? 1000 : 0;
+    }
+    var positions = load(file);
+    System.out.printf(Locale.ROOT, "%d positions, depth %d, %d ms per position, %d workers%n",
+        positions.size(), depth, millis, workers);
+    run(positions, depth, millis, workers, hashSize).print(System.out);
+  }
+
+  /**
+   * Reads all positions of an EPD file. Empty lines and lines starting with {@code #} are
+   * skipped.
+   *
+   * @param file the file with one position per line
+   * @return the positions
+   * @throws IOException              if the file cannot be read
+   * @throws IllegalArgumentException if a line is invalid or has neither {@code bm} nor
+   *                                  {@code am}
+   */
+  public static List<Position> load(Path file) throws IOException {
+    var board = new Board();
+    var positions = new ArrayList<Position>();
+    var line = 0;
+    for (var text : Files.readAllLines(file)) {
+      line++;
+      if (text.isBlank() || text.strip().startsWith("#")) {
+        continue;
+      }
+      try {
+        positions.add(Position.parse(text, board));
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Line " + line + ": " + e.getMessage(), e);
+      }
+    }
+    return positions;
+  }
+
+  /**
+   * Searches all positions with a pool of workers. Every worker takes the next position until
+   * none is left, so slow positions do not hold up the other workers.
+   *
+   * @param positions the positions
+   * @param depth     the maximum depth of a search
+   * @param millis    the time of a search in milliseconds or 0 for no limit
+   * @param workers   the number of workers
+   * @param hashSize  the size of the transposition table of every worker in MB
+   * @return the report of the run
+   * @throws InterruptedException if the thread is interrupted while waiting for the workers
+   */
+  public static Report run(List<Position> positions, int depth, long millis, int workers,
+      int hashSize) throws InterruptedException {
+    if (workers < 1) {
+      throw new IllegalArgumentException("At least one worker is needed: " + workers);
+    }
+    var start = System.nanoTime();
+    var next = new AtomicInteger();
+    var solved = new boolean[positions.size()];
+    var pool = POOL_COUNTER.incrementAndGet();
+    var counter = new AtomicInteger();
+    var executor = Executors.newFixedThreadPool(workers, runnable -> {
+      var thread = new Thread(runnable, "epd-" + pool + "-worker-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    try {
+      var tasks = new ArrayList<Callable<WorkerReport>>(workers);
+      for (var i = 0; i < workers; i++) {
+        tasks.add(() -> {
+          var board = new Board();
+          var transpositionTable = new TranspositionTable(hashSize);
+          var search = new Search(board, transpositionTable);
+          var searched = 0;
+          var solvedCount = 0;
+          var nodes = 0L;
+          var workerStart = System.nanoTime();
+          int index;
+          while ((index = next.getAndIncrement()) < positions.size()) {
+            var position = positions.get(index);
+            board.setFen(position.fen());
+            transpositionTable.clear();
+            var result = search.search(depth, millis, null);
+            searched++;
+            nodes += result.nodes();
+            if (position.isSolvedBy(result.bestMove())) {
+              solved[index] = true;
+              solvedCount++;
+            }
+          }
+          return new WorkerReport(Thread.currentThread().getName(), searched, solvedCount, nodes,
+              System.nanoTime() - workerStart);
+        });
+      }
+      var reports = new ArrayList<WorkerReport>(workers);
+      for (var future : executor.invokeAll(tasks)) {
+        try {
+          reports.add(future.get());
+        } catch (ExecutionException e) {
+          throw new IllegalStateException("Worker failed", e.getCause());
+        }
+      }
+      var unsolved = new ArrayList<String>();
+      for (var i = 0; i < solved.length; i++) {
+        if (!solved[i]) {
+          unsolved.add(positions.get(i).id());
+        }
+      }
+      return new Report(reports, unsolved, System.nanoTime() - start);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * A position of a test suite.
+   *
+   * @param id         the value of the {@code id} operation or the position if there is none
+   * @param fen        the position
+   * @param bestMoves  the encoded moves of the {@code bm} operation
+   * @param avoidMoves the encoded moves of the {@code am} operation
+   */
+  public record Position(String id, String fen, int[] bestMoves, int[] avoidMoves) {
+
+    /**
+     * Parses an EPD line. The moves of {@code bm} and {@code am} may be written in SAN or in
+     * coordinate notation, other operations than {@code id} are ignored.
+     *
+     * @param line  the line
+     * @param board the board used to parse the moves, which holds the position afterwards
+     * @return the position
+     * @throws IllegalArgumentException if the line is invalid or has neither {@code bm} nor
+     *                                  {@code am}
+     */
+    public static Position parse(String line, Board board) {
+      // the position has four fields, the operations follow
+      var end = 0;
+      for (var field = 0; field < 4; field++) {
+        while (end < line.length() && Character.isWhitespace(line.charAt(end))) {
+          end++;
+        }
+        while (end < line.length() && !Character.isWhitespace(line.charAt(end))) {
+          end++;
+        }
+      }
+      var fen = line.substring(0, end).strip();
+      board.setFen(fen);
+      String id = null;
+      var bestMoves = new int[0];
+      var avoidMoves = new int[0];
+      for (var operation : splitOperations(line.substring(end))) {
+        var tokens = operation.split("\\s+", 2);
+        var operands = tokens.length > 1 ? tokens[1] : "";
+        switch (tokens[0]) {
+          case "bm" -> bestMoves = parseMoves(board, operands);
+          case "am" -> avoidMoves = parseMoves(board, operands);
+          case "id" -> id = unquote(operands);
+          default -> {
+            // other operations do not affect the test
+          }
+        }
+      }
+      if (bestMoves.length == 0 && avoidMoves.length == 0) {
+        throw new IllegalArgumentException("No bm or am operation: " + line);
+      }
+      return new Position(id != null ? id : fen, fen, bestMoves, avoidMoves);
+    }
+
+    /**
+     * Checks if the move found by a search solves the position.
+     *
+     * @param move the encoded move
+     * @return true if the move is one of the best moves and none of the moves to avoid
+     */
+    public boolean isSolvedBy(int move) {
+      return move != Moves.NONE
+          && (this.bestMoves.length == 0 || contains(this.bestMoves, move))
+          && !contains(this.avoidMoves, move);
+    }
+
+    private static boolean contains(int[] moves, int move) {
+      for (var other : moves) {
+        if (other == move) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Splits the operations at the semicolons which are not inside a quoted string.
+     */
+    private static List<String> splitOperations(String operations) {
+      var result = new ArrayList<String>();
+      var start = 0;
+      var quoted = false;
+      for (var i = 0; i < operations.length(); i++) {
+        var ch = operations.charAt(i);
+        if (ch == '"') {
+          quoted = !quoted;
+        } else if (ch == ';' && !quoted) {
+          addOperation(result, operations.substring(start, i));
+          start = i + 1;
+        }
+      }
+      addOperation(result, operations.substring(start));
+      return result;
+    }
+
+    private static void addOperation(List<String> operations, String operation) {
+      if (!operation.isBlank()) {
+        operations.add(operation.strip());
+      }
+    }
+
+    private static int[] parseMoves(Board board, String operands) {
+      var list = new MoveList();
+      var tokens = operands.strip().split("\\s+");
+      var moves = new int[tokens.length];
+      for (var i = 0; i < tokens.length; i++) {
+        var move = San.parse(board, tokens[i], 0, tokens[i].length(), list);
+        if (move == Moves.NONE) {
+          board.generateMoves(list);
+          for (var j = 0; j < list.size() && move == Moves.NONE; j++) {
+            if (Moves.toString(list.get(j)).equals(tokens[i])) {
+              move = list.get(j);
+            }
+          }
+        }
+        if (move == Moves.NONE) {
+          throw new IllegalArgumentException("Invalid move: " + tokens[i]);
+        }
+        moves[i] = move;
+      }
+      return moves;
+    }
+
+    private static String unquote(String operand) {
+      var value = operand.strip();
+      return value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")
+          ? value.substring(1, value.length() - 1) : value;
+    }
+  }
+
+  /**
+   * Statistics of one worker.
+   *
+   * @param name      the name of the worker thread
+   * @param positions the number of searched positions
+   * @param solved    the number of solved positions
+   * @param nodes     the number of searched nodes
+   * @param nanos     the time the worker ran in nanoseconds
+   */
+  public record WorkerReport(String name, int positions, int solved, long nodes, long nanos) {
+
+    public long nodesPerSecond() {
+      return (long) (this.nodes / Math.max(this.nanos / 1e9, 1e-9));
+    }
+  }
+
+  /**
+   * Result of a run of a test suite.
+   *
+   * @param workers  the statistics of every worker
+   * @param unsolved the ids of the unsolved positions in the order of the suite
+   * @param nanos    the time of the run in nanoseconds
+   */
+  public record Report(List<WorkerReport> workers, List<String> unsolved, long nanos) {
+
+    public int positions() {
+      return this.workers.stream().mapToInt(WorkerReport::positions).sum();
+    }
+
+    public int solved() {
+      return this.workers.stream().mapToInt(WorkerReport::solved).sum();
+    }
+
+    public long nodes() {
+      return this.workers.stream().mapToLong(WorkerReport::nodes).sum();
+    }
+
+    public long nodesPerSecond() {
+      return (long) (this.nodes() / Math.max(this.nanos / 1e9, 1e-9));
+    }
+
+    /**
+     * Prints a table of the workers, the totals and the unsolved positions.
+     *
+     * @param out the stream to print to
+     */
+    public void print(PrintStream out) {
+      out.printf(Locale.ROOT, "%-20s %9s %7s %14s %12s%n", "worker", "positions", "solved",
+          "nodes", "nodes/s");
+      for (var worker : this.workers) {
+        out.printf(Locale.ROOT, "%-20s %9d %7d %14d %12d%n", worker.name(), worker.positions(),
+            worker.solved(), worker.nodes(), worker.nodesPerSecond());
+      }
+      out.printf(Locale.ROOT, "%-20s %9d %7d %14d %12d%n", "total", this.positions(),
+          this.solved(), this.nodes(), this.nodesPerSecond());
+      out.printf(Locale.ROOT, "Solved %d of %d in %.3f s%n", this.solved(), this.positions(),
+          this.nanos / 1e9);
+      if (!this.unsolved.isEmpty()) {
+        out.println("Unsolved: " + String.join(", ", this.unsolved));
+      }
+    }
+  }
+}
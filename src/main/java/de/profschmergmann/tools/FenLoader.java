@@ -0,0 +1,107 @@
+package de.profschmergmann.tools;
+
+import de.profschmergmann.Board;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Command line tool which loads every FEN record of a file and reports how many positions are
+ * parsed per second.
+ * <p>
+ * Usage: {@code FenLoader <file>}. Every line holds one record, empty lines and lines starting with
+ * {@code #} are skipped. EPD lines can be loaded as well, because the operations after the
+ * position are ignored. The file is streamed through one buffer and the records are parsed from
+ * its bytes into the same board, so loading allocates nothing per position.
+ */
+public final class FenLoader {
+
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  private FenLoader() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length == 0) {
+      System.err.println("Usage: FenLoader <file>");
+      System.exit(1);
+    }
+    // the keys are combined, so the parsed positions are actually used
+    var checksum = new long[1];
+    var start = System.nanoTime();
+    var positions = load(Path.of(args[0]), board -> checksum[0] += board.getZobristKey());
+    var seconds = (System.nanoTime() - start) / 1e9;
+    System.out.printf(Locale.ROOT, "%d positions in %.3f s (%.0f positions/s), checksum %016x%n",
+        positions, seconds, positions / Math.max(seconds, 1e-9), checksum[0]);
+  }
+
+  /**
+   * Parses every record of a file into the same board and passes the board to the consumer after
+   * each record.
+   *
+   * @param file     the file with one record per line
+   * @param consumer the consumer of the positions, which must not keep the board
+   * @return the number of parsed positions
+   * @throws IOException              if the file cannot be read
+   * @throws IllegalArgumentException if a record is invalid
+   */
+  public static long load(Path file, Consumer<Board> consumer) throws IOException {
+    var board = new Board();
+    var buffer = new byte[BUFFER_SIZE];
+    var positions = 0L;
+    var line = 0L;
+    try (var in = Files.newInputStream(file)) {
+      var filled = 0;
+      var eof = false;
+      while (!eof) {
+        var read = in.read(buffer, filled, buffer.length - filled);
+        eof = read < 0;
+        filled += Math.max(read, 0);
+        var lineStart = 0;
+        for (var i = 0; i < filled; i++) {
+          if (buffer[i] == '\n' || eof && i == filled - 1) {
+            var lineEnd = buffer[i] == '\n' ? i : filled;
+            line++;
+            if (parseLine(board, buffer, lineStart, lineEnd, line)) {
+              consumer.accept(board);
+              positions++;
+            }
+            lineStart = i + 1;
+          }
+        }
+        // keep the incomplete last line for the next read
+        System.arraycopy(buffer, lineStart, buffer, 0, filled - lineStart);
+        filled -= lineStart;
+        if (filled == buffer.length) {
+          throw new IOException("Line " + (line + 1) + " is longer than " + BUFFER_SIZE + " bytes");
+        }
+      }
+    }
+    return positions;
+  }
+
+  /**
+   * Parses one line of the buffer into the board.
+   *
+   * @return true if the line contained a record, false if it was empty or a comment
+   */
+  private static boolean parseLine(Board board, byte[] buffer, int start, int end, long line) {
+    if (end > start && buffer[end - 1] == '\r') {
+      end--;
+    }
+    while (start < end && (buffer[start] == ' ' || buffer[start] == '\t')) {
+      start++;
+    }
+    if (start == end || buffer[start] == '#') {
+      return false;
+    }
+    try {
+      board.setFen(buffer, start, end);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Line " + line + ": " + e.getMessage(), e);
+    }
+    return true;
+  }
+}
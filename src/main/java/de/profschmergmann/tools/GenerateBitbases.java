@@ -0,0 +1,127 @@
+package de.profschmergmann.tools;
+
+import de.profschmergmann.Bitboards;
+import de.profschmergmann.Board;
+import de.profschmergmann.endgame.Bitbase;
+import de.profschmergmann.endgame.Bitbases;
+import de.profschmergmann.pieces.Piece.PieceColor;
+import de.profschmergmann.pieces.Piece.PieceType;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Command line tool which generates or loads endgame {@link Bitbases} and measures the
+ * generation time and memory of every table and the latency of probes from random positions.
+ * <p>
+ * Usage:
+ * {@code GenerateBitbases [--threads=cores] [--load=file] [--save=file] [table]...}, the
+ * default tables are {@link Bitbases#DEFAULT_TABLES}.
+ */
+public final class GenerateBitbases {
+
+  private static final int POSITIONS = 1024;
+  private static final int PROBES = 10_000_000;
+
+  private GenerateBitbases() {
+  }
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    var threads = Runtime.getRuntime().availableProcessors();
+    Path load = null;
+    Path save = null;
+    var names = new ArrayList<String>();
+    for (var arg : args) {
+      if (arg.startsWith("--threads=")) {
+        threads = Integer.parseInt(arg.substring(10));
+      } else if (arg.startsWith("--load=")) {
+        load = Path.of(arg.substring(7));
+      } else if (arg.startsWith("--save=")) {
+        save = Path.of(arg.substring(7));
+      } else {
+        names.add(arg.toUpperCase(Locale.ROOT));
+      }
+    }
+    var start = System.nanoTime();
+    var bitbases = load != null ? Bitbases.load(load)
+        : Bitbases.generate(names.isEmpty() ? Bitbases.DEFAULT_TABLES : names, threads);
+    var nanos = System.nanoTime() - start;
+    System.out.printf(Locale.ROOT, "%s %d tables in %.3f s with %d threads%n",
+        load != null ? "Loaded" : "Generated", bitbases.getTables().size(), nanos / 1e9,
+        load != null ? 1 : threads);
+    var random = new SplittableRandom(1);
+    for (var table : bitbases.getTables()) {
+      var boards = randomBoards(table, random);
+      var wins = 0;
+      var probeStart = System.nanoTime();
+      for (var i = 0; i < PROBES; i++) {
+        wins += bitbases.probe(boards[i & (POSITIONS - 1)]) == Bitbases.DRAW ? 0 : 1;
+      }
+      var probeNanos = (System.nanoTime() - probeStart) / (double) PROBES;
+      System.out.printf(Locale.ROOT,
+          "%-5s %,11d positions %5.1f%% won %,9d bytes %,9.1f ms %6.1f ns/probe (%d)%n",
+          table.getName(), table.size(), table.countWins() * 100.0 / table.size(),
+          table.getMemory(), table.getGenerationNanos() / 1e6, probeNanos, wins);
+    }
+    if (save != null) {
+      bitbases.save(save);
+      System.out.println("Saved to " + save);
+    }
+  }
+
+  /**
+   * Creates legal positions with the material of a table and random squares and teams.
+   */
+  private static Board[] randomBoards(Bitbase table, SplittableRandom random) {
+    var boards = new Board[POSITIONS];
+    var name = table.getName();
+    for (var i = 0; i < POSITIONS; ) {
+      var strong = random.nextBoolean() ? PieceColor.W : PieceColor.B;
+      var squares = new char[64];
+      var valid = true;
+      for (var j = 0; j < name.length(); j++) {
+        var square = random.nextInt(64);
+        var piece = name.charAt(j);
+        valid &= squares[square] == 0 && (piece != 'P' || square >= 8 && square < 56);
+        // the last king is the lone king of the other team
+        var white = strong == PieceColor.W ^ j == name.length() - 1;
+        squares[square] = white ? piece : Character.toLowerCase(piece);
+      }
+      if (!valid) {
+        continue;
+      }
+      var fen = new StringBuilder(80);
+      for (var rank = 7; rank >= 0; rank--) {
+        var empty = 0;
+        for (var file = 0; file < 8; file++) {
+          var piece = squares[rank * 8 + file];
+          if (piece == 0) {
+            empty++;
+            continue;
+          }
+          if (empty > 0) {
+            fen.append(empty);
+            empty = 0;
+          }
+          fen.append(piece);
+        }
+        if (empty > 0) {
+          fen.append(empty);
+        }
+        fen.append(rank > 0 ? "/" : "");
+      }
+      var board = new Board(fen.append(random.nextBoolean() ? " w" : " b").toString());
+      var other = board.getCurrentTeam() == PieceColor.W ? PieceColor.B : PieceColor.W;
+      var whiteKing = Long.numberOfTrailingZeros(board.getBitboard(PieceType.KING,
+          PieceColor.W));
+      var blackKing = Long.numberOfTrailingZeros(board.getBitboard(PieceType.KING,
+          PieceColor.B));
+      if ((Bitboards.KING_ATTACKS[whiteKing] & 1L << blackKing) == 0 && !board.isInCheck(other)) {
+        boards[i++] = board;
+      }
+    }
+    return boards;
+  }
+}
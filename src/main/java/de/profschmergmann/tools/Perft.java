@@ -0,0 +1,179 @@
+package de.profschmergmann.tools;
+
+import de.profschmergmann.Board;
+import de.profschmergmann.MoveList;
+import de.profschmergmann.Moves;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Command line tool which counts the leaf nodes of the move tree up to a given depth, see
+ * <a href="https://www.chessprogramming.org/Perft">Perft</a>.
+ * <p>
+ * Usage: {@code Perft <depth> [FEN]} prints the divide output, which lists the node count below
+ * every root move, for the given position or the starting position. {@code Perft <depth> suite}
+ * runs the standard positions of {@link #SUITE} and compares the node counts with the expected
+ * ones.
+ */
+public final class Perft {
+
+  /**
+   * The standard perft positions with their node counts for depth 1 upwards, see
+   * <a href="https://www.chessprogramming.org/Perft_Results">Perft Results</a>.
+   */
+  public static final List<PerftPosition> SUITE = List.of(
+      new PerftPosition("start", "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+          20L, 400L, 8902L, 197281L, 4865609L, 119060324L),
+      new PerftPosition("kiwipete",
+          "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+          48L, 2039L, 97862L, 4085603L, 193690690L),
+      new PerftPosition("position 3", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+          14L, 191L, 2812L, 43238L, 674624L, 11030083L),
+      new PerftPosition("position 4",
+          "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+          6L, 264L, 9467L, 422333L, 15833292L),
+      new PerftPosition("position 5",
+          "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+          44L, 1486L, 62379L, 2103487L, 89941194L),
+      new PerftPosition("position 6",
+          "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+          46L, 2079L, 89890L, 3894594L, 164075551L));
+
+  private Perft() {
+  }
+
+  public static void main(String[] args) {
+    if (args.length == 0) {
+      System.err.println("Usage: Perft <depth> [FEN | suite]");
+      System.exit(1);
+    }
+    var depth = Integer.parseInt(args[0]);
+    if (args.length > 1 && args[1].equals("suite")) {
+      System.exit(runSuite(depth, System.out) ? 0 : 1);
+    }
+    var board = args.length > 1
+        ? new Board(String.join(" ", List.of(args).subList(1, args.length)))
+        : new Board();
+    var start = System.nanoTime();
+    var nodes = divide(board, depth, System.out);
+    report("total", nodes, System.nanoTime() - start, System.out);
+  }
+
+  /**
+   * Counts the leaf nodes of the move tree below the given board.
+   *
+   * @param board the board, which is the same again afterwards
+   * @param depth the depth in plies
+   * @return the number of leaf nodes
+   */
+  public static long perft(Board board, int depth) {
+    return perft(board, depth, createMoveLists(depth));
+  }
+
+  /**
+   * Counts the leaf nodes below every root move and prints them.
+   *
+   * @param board the board, which is the same again afterwards
+   * @param depth the depth in plies, at least 1
+   * @param out   the stream to print the divide output to
+   * @return the number of leaf nodes
+   */
+  public static long divide(Board board, int depth, PrintStream out) {
+    var lists = createMoveLists(depth);
+    board.generateMoves(lists[depth]);
+    var moves = new ArrayList<Integer>();
+    for (var i = 0; i < lists[depth].size(); i++) {
+      moves.add(lists[depth].get(i));
+    }
+    moves.sort(Comparator.comparing(Moves::toString));
+    var nodes = 0L;
+    for (var move : moves) {
+      board.makeMove(move);
+      var count = perft(board, depth - 1, lists);
+      board.unmakeMove();
+      out.println(Moves.toString(move) + ": " + count);
+      nodes += count;
+    }
+    return nodes;
+  }
+
+  private static long perft(Board board, int depth, MoveList[] lists) {
+    if (depth == 0) {
+      return 1L;
+    }
+    var list = lists[depth];
+    board.generateMoves(list);
+    if (depth == 1) {
+      return list.size();
+    }
+    var nodes = 0L;
+    for (var i = 0; i < list.size(); i++) {
+      board.makeMove(list.get(i));
+      nodes += perft(board, depth - 1, lists);
+      board.unmakeMove();
+    }
+    return nodes;
+  }
+
+  /**
+   * Creates one move list per ply, so the recursion does not allocate them.
+   *
+   * @param depth the depth in plies
+   * @return the lists indexed by the remaining depth
+   */
+  private static MoveList[] createMoveLists(int depth) {
+    var lists = new MoveList[depth + 1];
+    for (var i = 0; i <= depth; i++) {
+      lists[i] = new MoveList();
+    }
+    return lists;
+  }
+
+  /**
+   * Runs all positions of {@link #SUITE} up to the given depth.
+   *
+   * @param maxDepth the maximum depth, positions without a reference count are skipped deeper
+   * @param out      the stream to print the results to
+   * @return true if all node counts matched the reference counts, else false
+   */
+  public static boolean runSuite(int maxDepth, PrintStream out) {
+    var passed = true;
+    var totalNodes = 0L;
+    var totalTime = 0L;
+    for (var position : SUITE) {
+      var board = new Board(position.fen());
+      for (var depth = 1; depth <= Math.min(maxDepth, position.expected().length); depth++) {
+        var start = System.nanoTime();
+        var nodes = perft(board, depth);
+        var time = System.nanoTime() - start;
+        var expected = position.expected()[depth - 1];
+        passed &= nodes == expected;
+        totalNodes += nodes;
+        totalTime += time;
+        var status = nodes == expected ? " ok" : " FAILED, expected " + expected;
+        report(position.name() + " depth " + depth + status, nodes, time, out);
+      }
+    }
+    report("suite " + (passed ? "passed" : "failed"), totalNodes, totalTime, out);
+    return passed;
+  }
+
+  private static void report(String label, long nodes, long nanos, PrintStream out) {
+    out.printf(Locale.ROOT, "%s: %d nodes in %.3f s (%.0f nodes/s)%n", label, nodes, nanos / 1e9,
+        nodes / Math.max(nanos / 1e9, 1e-9));
+  }
+
+  /**
+   * A named perft position.
+   *
+   * @param name     the name of the position
+   * @param fen      the position as FEN record
+   * @param expected the expected node counts starting with depth 1
+   */
+  public record PerftPosition(String name, String fen, long... expected) {
+
+  }
+}
@@ -0,0 +1,465 @@
+package de.profschmergmann.tools;
+
+import de.profschmergmann.Board;
+import de.profschmergmann.Game;
+import de.profschmergmann.Game.Result;
+import de.profschmergmann.endgame.Bitbases;
+import de.profschmergmann.pieces.Piece.PieceColor;
+import de.profschmergmann.players.ComputerPlayer;
+import de.profschmergmann.players.Player;
+import de.profschmergmann.search.Search;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Command line tool which plays a match between two {@link ComputerPlayer} configurations to find
+ * out if one is stronger. The games are played concurrently on a pool of threads, one game per
+ * thread, with every opening played twice with swapped colors. A {@link Sprt} stops the match
+ * early once the result is significant, the games which are already running are finished. Every
+ * game is written as one line to a log, and the throughput in games per hour and the CPU
+ * utilization of the process are reported.
+ * <p>
+ * Usage: {@code SelfPlay [--games=1000] [--concurrency=cores] [--openings=file]
+ * [--engine1=depth=64,time=100,hash=16,bitbases] [--engine2=...] [--tc=millis+increment]
+ * [--sprt=elo0,elo1,alpha,beta] [--max-plies=400] [--log=selfplay.log]}. With a time control
+ * the engines use their clocks instead of their time per move.
+ */
+public final class SelfPlay {
+
+  public static final int DEFAULT_MAX_PLIES = 400;
+  private static final String START_FEN =
+      "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+  private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+  private final Engine first;
+  private final Engine second;
+  private final List<String> openings;
+  private final int concurrency;
+  private long timeControl;
+  private long increment;
+  private int maxPlies = DEFAULT_MAX_PLIES;
+  private Sprt sprt;
+  private Bitbases bitbases;
+
+  /**
+   * Constructor for a match.
+   *
+   * @param first       the first engine, whose results are counted
+   * @param second      the second engine
+   * @param openings    the FEN records of the start positions
+   * @param concurrency the number of games played at the same time
+   */
+  public SelfPlay(Engine first, Engine second, List<String> openings, int concurrency) {
+    if (concurrency < 1) {
+      throw new IllegalArgumentException("At least one thread is needed: " + concurrency);
+    }
+    if (openings.isEmpty()) {
+      throw new IllegalArgumentException("No openings");
+    }
+    this.first = first;
+    this.second = second;
+    this.openings = List.copyOf(openings);
+    this.concurrency = concurrency;
+  }
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    var games = 1000;
+    var concurrency = Runtime.getRuntime().availableProcessors();
+    var openings = List.of(START_FEN);
+    var first = Engine.parse("engine1", "time=100");
+    var second = Engine.parse("engine2", "time=100");
+    var timeControl = 0L;
+    var increment = 0L;
+    var maxPlies = DEFAULT_MAX_PLIES;
+    Sprt sprt = null;
+    var log = Path.of("selfplay.log");
+    for (var arg : args) {
+      var value = arg.substring(arg.indexOf('=') + 1);
+      if (arg.startsWith("--games=")) {
+        games = Integer.parseInt(value);
+      } else if (arg.startsWith("--concurrency=")) {
+        concurrency = Integer.parseInt(value);
+      } else if (arg.startsWith("--openings=")) {
+        openings = loadOpenings(Path.of(value));
+      } else if (arg.startsWith("--engine1=")) {
+        first = Engine.parse("engine1", value);
+      } else if (arg.startsWith("--engine2=")) {
+        second = Engine.parse("engine2", value);
+      } else if (arg.startsWith("--tc=")) {
+        var plus = value.indexOf('+');
+        timeControl = Long.parseLong(plus < 0 ? value : value.substring(0, plus));
+        increment = plus < 0 ? 0 : Long.parseLong(value.substring(plus + 1));
+      } else if (arg.startsWith("--sprt=")) {
+        var bounds = value.split(",");
+        sprt = new Sprt(Double.parseDouble(bounds[0]), Double.parseDouble(bounds[1]),
+            bounds.length > 2 ? Double.parseDouble(bounds[2]) : 0.05,
+            bounds.length > 3 ? Double.parseDouble(bounds[3]) : 0.05);
+      } else if (arg.startsWith("--max-plies=")) {
+        maxPlies = Integer.parseInt(value);
+      } else if (arg.startsWith("--log=")) {
+        log = Path.of(value);
+      } else {
+        System.err.println("Usage: SelfPlay [--games=1000] [--concurrency=cores] "
+            + "[--openings=file] [--engine1=depth=64,time=100,hash=16,bitbases] [--engine2=...] "
+            + "[--tc=millis+increment] [--sprt=elo0,elo1,alpha,beta] [--max-plies=400] "
+            + "[--log=selfplay.log]");
+        System.exit(1);
+      }
+    }
+    var match = new SelfPlay(first, second, openings, concurrency);
+    match.setTimeControl(timeControl, increment);
+    match.setMaxPlies(maxPlies);
+    match.setSprt(sprt);
+    if (first.bitbases() || second.bitbases()) {
+      match.setBitbases(Bitbases.generate(Bitbases.DEFAULT_TABLES, concurrency));
+    }
+    System.out.printf(Locale.ROOT, "%s against %s, %d games on %d threads, %d openings%n", first,
+        second, games, concurrency, openings.size());
+    Report report;
+    try (var writer = Files.newBufferedWriter(log)) {
+      report = match.run(games, writer, progress -> {
+        if (progress.games() % 10 == 0) {
+          System.out.println(progress);
+        }
+      });
+    }
+    System.out.println(report);
+    System.out.printf(Locale.ROOT, "%.0f games/hour, %.0f%% CPU utilization, log in %s%n",
+        report.gamesPerHour(), report.cpuUtilization() * 100, log);
+  }
+
+  /**
+   * Reads the openings from a file with one FEN or EPD record per line. Empty lines and lines
+   * starting with {@code #} are skipped.
+   *
+   * @param file the file
+   * @return the FEN records
+   * @throws IOException              if the file cannot be read
+   * @throws IllegalArgumentException if a record is invalid
+   */
+  public static List<String> loadOpenings(Path file) throws IOException {
+    var openings = new ArrayList<String>();
+    var board = new Board();
+    var line = 0;
+    for (var text : Files.readAllLines(file)) {
+      line++;
+      var fen = text.strip();
+      if (fen.isEmpty() || fen.startsWith("#")) {
+        continue;
+      }
+      try {
+        board.setFen(fen);
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Line " + line + ": " + e.getMessage(), e);
+      }
+      openings.add(fen);
+    }
+    return openings;
+  }
+
+  /**
+   * Sets the time control of every game.
+   *
+   * @param millis    the time of each engine in milliseconds or 0 to use the time per move of
+   *                  the engines
+   * @param increment the increment per move in milliseconds
+   */
+  public void setTimeControl(long millis, long increment) {
+    this.timeControl = millis;
+    this.increment = increment;
+  }
+
+  /**
+   * Sets the number of plies after which a game is adjudicated as a draw.
+   *
+   * @param maxPlies the maximum number of plies
+   */
+  public void setMaxPlies(int maxPlies) {
+    this.maxPlies = maxPlies;
+  }
+
+  /**
+   * Sets the test which stops the match early.
+   *
+   * @param sprt the test or null to play all games
+   */
+  public void setSprt(Sprt sprt) {
+    this.sprt = sprt;
+  }
+
+  /**
+   * Sets the endgame tables of the engines which use them.
+   *
+   * @param bitbases the tables
+   */
+  public void setBitbases(Bitbases bitbases) {
+    this.bitbases = bitbases;
+  }
+
+  /**
+   * Plays the match. Every game is written to the log as one line with its number, the number of
+   * its opening, the white and black engine, the result, the number of plies and how it ended.
+   *
+   * @param games    the maximum number of games
+   * @param log      the writer of the log
+   * @param progress called after every game with the results so far, may be null
+   * @return the results of the match
+   * @throws IOException          if the log cannot be written
+   * @throws InterruptedException if the thread is interrupted while waiting for the games
+   */
+  public Report run(int games, Writer log, Consumer<Report> progress)
+      throws IOException, InterruptedException {
+    var results = new Results(System.nanoTime(), processCpuNanos());
+    var pool = POOL_COUNTER.incrementAndGet();
+    var counter = new AtomicInteger();
+    var executor = Executors.newFixedThreadPool(this.concurrency, runnable -> {
+      var thread = new Thread(runnable,
+          "selfplay-" + pool + "-worker-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    try {
+      var futures = new ArrayList<Future<?>>(games);
+      for (var i = 0; i < games; i++) {
+        var game = i;
+        futures.add(executor.submit(() -> {
+          // queued games are skipped once the test is decided
+          if (results.decision == Sprt.Decision.CONTINUE) {
+            this.play(game, results, log, progress);
+          }
+          return null;
+        }));
+      }
+      for (var future : futures) {
+        try {
+          future.get();
+        } catch (ExecutionException e) {
+          if (e.getCause() instanceof UncheckedIOException io) {
+            throw io.getCause();
+          }
+          throw new IllegalStateException("Game failed", e.getCause());
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    synchronized (results) {
+      return results.report();
+    }
+  }
+
+  private void play(int number, Results results, Writer log, Consumer<Report> progress) {
+    var opening = number / 2 % this.openings.size();
+    var firstIsWhite = number % 2 == 0;
+    var white = firstIsWhite ? this.first : this.second;
+    var black = firstIsWhite ? this.second : this.first;
+    var game = new Game(new Player(PieceColor.W, white.create(this.bitbases)),
+        new Player(PieceColor.B, black.create(this.bitbases)), this.openings.get(opening));
+    if (this.timeControl > 0) {
+      game.setTimeControl(this.timeControl, this.increment);
+    }
+    var plies = 0;
+    while (plies < this.maxPlies && game.playNextMove()) {
+      plies++;
+    }
+    var result = game.getResult() != null ? game.getResult() : Result.DRAW;
+    var line = String.format(Locale.ROOT, "%d %d %s %s %s %d %s%n", number + 1, opening + 1,
+        white.name(), black.name(), result == Result.WHITE_WIN ? "1-0"
+            : result == Result.BLACK_WIN ? "0-1" : "1/2-1/2", plies, termination(game));
+    synchronized (results) {
+      if (result == Result.DRAW) {
+        results.draws++;
+      } else if (result == Result.WHITE_WIN == firstIsWhite) {
+        results.wins++;
+      } else {
+        results.losses++;
+      }
+      if (this.sprt != null) {
+        results.llr = this.sprt.llr(results.wins, results.draws, results.losses);
+        results.decision = this.sprt.decide(results.wins, results.draws, results.losses);
+      }
+      try {
+        log.write(line);
+        log.flush();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      if (progress != null) {
+        progress.accept(results.report());
+      }
+    }
+  }
+
+  /**
+   * Describes how a game ended.
+   */
+  private static String termination(Game game) {
+    var board = game.getCurrentBoard();
+    if (game.getResult() == null) {
+      return "adjudicated";
+    }
+    if (game.isCheckmated()) {
+      return "mate";
+    }
+    if (game.getResult() != Result.DRAW) {
+      return "time";
+    }
+    if (board.getHalfMoves() >= 100) {
+      return "fifty";
+    }
+    if (board.countRepetitions() >= 2) {
+      return "repetition";
+    }
+    return board.getAvailableMoves().isEmpty() ? "stalemate" : "material";
+  }
+
+  /**
+   * Returns the CPU time of the whole process, which includes helper threads of the searches.
+   *
+   * @return the CPU time in nanoseconds or -1 if the JVM does not measure it
+   */
+  private static long processCpuNanos() {
+    return ManagementFactory.getOperatingSystemMXBean()
+        instanceof com.sun.management.OperatingSystemMXBean os ? os.getProcessCpuTime() : -1;
+  }
+
+  /**
+   * Configuration of an engine, which creates a new {@link ComputerPlayer} for every game.
+   *
+   * @param name     the name in the log
+   * @param depth    the maximum search depth
+   * @param moveTime the time per move in milliseconds if the game has no time control
+   * @param hashSize the size of the transposition table in MB
+   * @param bitbases if the engine probes the endgame tables
+   */
+  public record Engine(String name, int depth, long moveTime, int hashSize, boolean bitbases) {
+
+    /**
+     * Parses a configuration like {@code depth=8,time=100,hash=16,bitbases}. Missing values are
+     * the maximum depth, 100 ms per move and 16 MB without bitbases.
+     *
+     * @param name          the name of the engine
+     * @param configuration the comma separated options
+     * @return the configuration
+     * @throws IllegalArgumentException if an option is unknown
+     */
+    public static Engine parse(String name, String configuration) {
+      var depth = Search.MAX_PLY;
+      var moveTime = 100L;
+      var hashSize = 16;
+      var bitbases = false;
+      for (var option : configuration.split(",")) {
+        var value = option.substring(option.indexOf('=') + 1);
+        if (option.startsWith("depth=")) {
+          depth = Integer.parseInt(value);
+        } else if (option.startsWith("time=")) {
+          moveTime = Long.parseLong(value);
+        } else if (option.startsWith("hash=")) {
+          hashSize = Integer.parseInt(value);
+        } else if (option.equals("bitbases")) {
+          bitbases = true;
+        } else if (!option.isBlank()) {
+          throw new IllegalArgumentException("Unknown engine option: " + option);
+        }
+      }
+      return new Engine(name, depth, moveTime, hashSize, bitbases);
+    }
+
+    private ComputerPlayer create(Bitbases tables) {
+      var player = new ComputerPlayer(this.depth, this.moveTime, this.hashSize, 1);
+      if (this.bitbases) {
+        player.setBitbases(tables);
+      }
+      return player;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(Locale.ROOT, "%s (depth %d, %d ms, %d MB%s)", this.name, this.depth,
+          this.moveTime, this.hashSize, this.bitbases ? ", bitbases" : "");
+    }
+  }
+
+  /**
+   * Results of a match from the view of the first engine.
+   *
+   * @param wins           the number of wins
+   * @param draws          the number of draws
+   * @param losses         the number of losses
+   * @param llr            the log-likelihood ratio of the test or 0 without a test
+   * @param decision       the decision of the test
+   * @param nanos          the time of the match in nanoseconds
+   * @param cpuNanos       the CPU time of the process during the match or -1 if unknown
+   * @param processors     the number of available processors
+   */
+  public record Report(int wins, int draws, int losses, double llr, Sprt.Decision decision,
+                       long nanos, long cpuNanos, int processors) {
+
+    public int games() {
+      return this.wins + this.draws + this.losses;
+    }
+
+    public double score() {
+      return this.games() == 0 ? 0.5 : (this.wins + this.draws * 0.5) / this.games();
+    }
+
+    public double gamesPerHour() {
+      return this.games() * 3600e9 / Math.max(this.nanos, 1);
+    }
+
+    /**
+     * Getter for the CPU time of the process divided by the time of all processors.
+     *
+     * @return the utilization between 0 and 1 or a negative value if unknown
+     */
+    public double cpuUtilization() {
+      return this.cpuNanos < 0 ? -1
+          : (double) this.cpuNanos / Math.max(this.nanos, 1) / this.processors;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(Locale.ROOT, "games %d +%d =%d -%d score %.3f elo %+.1f llr %.2f %s",
+          this.games(), this.wins, this.draws, this.losses, this.score(),
+          Sprt.elo(this.score()), this.llr, this.decision);
+    }
+  }
+
+  /**
+   * Mutable results, which are guarded by their own monitor.
+   */
+  private static final class Results {
+
+    private final long start;
+    private final long cpuStart;
+    private int wins;
+    private int draws;
+    private int losses;
+    private double llr;
+    private volatile Sprt.Decision decision = Sprt.Decision.CONTINUE;
+
+    private Results(long start, long cpuStart) {
+      this.start = start;
+      this.cpuStart = cpuStart;
+    }
+
+    private Report report() {
+      var cpu = processCpuNanos();
+      return new Report(this.wins, this.draws, this.losses, this.llr, this.decision,
+          System.nanoTime() - this.start, this.cpuStart < 0 ? -1 : cpu - this.cpuStart,
+          Runtime.getRuntime().availableProcessors());
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package de.profschmergmann.tools;
+
+import de.profschmergmann.Board;
+import de.profschmergmann.search.LazySmpSearch;
+import de.profschmergmann.search.TranspositionTable;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Command line tool which measures how the {@link LazySmpSearch} scales with the number of
+ * threads: the time to reach a fixed depth and the nodes per second, from one thread up to all
+ * cores.
+ * <p>
+ * Usage: {@code SmpBenchmark [depth] [hash size in MB] [max threads]}
+ */
+public final class SmpBenchmark {
+
+  /**
+   * Middlegame positions, which are searched one after another with a cleared table.
+   */
+  public static final List<String> POSITIONS = List.of(
+      "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+      "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+      "r1bq1rk1/pp2bppp/2n1pn2/3p4/2PP4/2N1PN2/PP1B1PPP/R2QKB1R w KQ - 0 8",
+      "2r3k1/pp3ppp/2n1b3/3p4/3P4/2NB1N2/PP3PPP/6K1 w - - 0 20");
+
+  private SmpBenchmark() {
+  }
+
+  public static void main(String[] args) {
+    var depth = args.length > 0 ? Integer.parseInt(args[0]) : 9;
+    var hashSize = args.length > 1 ? Integer.parseInt(args[1]) : 256;
+    var maxThreads = args.length > 2 ? Integer.parseInt(args[2])
+        : Runtime.getRuntime().availableProcessors();
+    run(depth, hashSize, maxThreads, System.out);
+  }
+
+  /**
+   * Searches all {@link #POSITIONS} to the given depth with 1, 2, 4, ... threads up to the
+   * maximum and prints the time to depth, nodes per second and speedups.
+   *
+   * @param depth      the depth to search
+   * @param hashSize   the size of the transposition table in MB
+   * @param maxThreads the maximum number of threads
+   * @param out        the stream to print the results to
+   */
+  public static void run(int depth, int hashSize, int maxThreads, PrintStream out) {
+    var threadCounts = new ArrayList<Integer>();
+    for (var threads = 1; threads < maxThreads; threads *= 2) {
+      threadCounts.add(threads);
+    }
+    threadCounts.add(maxThreads);
+    var transpositionTable = new TranspositionTable(hashSize);
+    out.printf(Locale.ROOT, "%7s %12s %14s %12s %10s %10s%n", "threads", "time to depth",
+        "nodes", "nodes/s", "speedup", "nps scale");
+    var baseMillis = 0L;
+    var baseNps = 0L;
+    for (var threads : threadCounts) {
+      var millis = 0L;
+      var nodes = 0L;
+      try (var search = new LazySmpSearch(transpositionTable, threads)) {
+        for (var fen : POSITIONS) {
+          transpositionTable.clear();
+          var result = search.search(new Board(fen), depth, 0, null);
+          millis += result.millis();
+          nodes += result.nodes();
+        }
+      }
+      var nps = nodes * 1000 / Math.max(millis, 1);
+      if (threads == 1) {
+        baseMillis = millis;
+        baseNps = nps;
+      }
+      out.printf(Locale.ROOT, "%7d %10d ms %14d %12d %9.2fx %9.2fx%n", threads, millis, nodes,
+          nps, (double) baseMillis / Math.max(millis, 1), (double) nps / Math.max(baseNps, 1));
+    }
+  }
+}
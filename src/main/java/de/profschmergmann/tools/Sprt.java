@@ -0,0 +1,116 @@
+package de.profschmergmann.tools;
+
+/**
+ * <a href="https://www.chessprogramming.org/Sequential_Probability_Ratio_Test">Sequential
+ * probability ratio test</a> of the Elo difference between two engines, which stops a match as
+ * soon as the results are significant. The hypothesis H0 is a difference of {@code elo0} and H1
+ * a difference of {@code elo1}. The log-likelihood ratio is approximated from the mean and the
+ * variance of the scores of the games, like the common engine testing frameworks do.
+ */
+public final class Sprt {
+
+  private final double score0;
+  private final double score1;
+  private final double lowerBound;
+  private final double upperBound;
+
+  /**
+   * Constructor for a test.
+   *
+   * @param elo0  the Elo difference of H0
+   * @param elo1  the Elo difference of H1, greater than elo0
+   * @param alpha the probability of accepting H1 if H0 is true
+   * @param beta  the probability of accepting H0 if H1 is true
+   */
+  public Sprt(double elo0, double elo1, double alpha, double beta) {
+    if (elo1 <= elo0 || alpha <= 0 || alpha >= 1 || beta <= 0 || beta >= 1) {
+      throw new IllegalArgumentException(
+          "Invalid test: elo " + elo0 + " to " + elo1 + ", alpha " + alpha + ", beta " + beta);
+    }
+    this.score0 = expectedScore(elo0);
+    this.score1 = expectedScore(elo1);
+    this.lowerBound = Math.log(beta / (1 - alpha));
+    this.upperBound = Math.log((1 - beta) / alpha);
+  }
+
+  /**
+   * Computes the log-likelihood ratio of the results. The score and its variance are estimated
+   * with half a game added to every outcome, so a match without losses has a variance, too.
+   *
+   * @param wins   the number of wins of the first engine
+   * @param draws  the number of draws
+   * @param losses the number of losses of the first engine
+   * @return the log-likelihood ratio of H1 against H0
+   */
+  public double llr(int wins, int draws, int losses) {
+    var games = wins + draws + losses;
+    if (games == 0) {
+      return 0;
+    }
+    var smoothed = games + 1.5;
+    var score = (wins + 0.5 + (draws + 0.5) * 0.5) / smoothed;
+    var variance = (wins + 0.5 + (draws + 0.5) * 0.25) / smoothed - score * score;
+    return games * (this.score1 - this.score0) * (2 * score - this.score0 - this.score1)
+        / (2 * variance);
+  }
+
+  /**
+   * Decides the test for the results.
+   *
+   * @param wins   the number of wins of the first engine
+   * @param draws  the number of draws
+   * @param losses the number of losses of the first engine
+   * @return the decision
+   */
+  public Decision decide(int wins, int draws, int losses) {
+    var llr = this.llr(wins, draws, losses);
+    return llr >= this.upperBound ? Decision.H1 : llr <= this.lowerBound ? Decision.H0
+        : Decision.CONTINUE;
+  }
+
+  public double getLowerBound() {
+    return this.lowerBound;
+  }
+
+  public double getUpperBound() {
+    return this.upperBound;
+  }
+
+  /**
+   * Converts an Elo difference into the expected score.
+   *
+   * @param elo the Elo difference
+   * @return the expected score between 0 and 1
+   */
+  public static double expectedScore(double elo) {
+    return 1 / (1 + Math.pow(10, -elo / 400));
+  }
+
+  /**
+   * Converts a score into an Elo difference.
+   *
+   * @param score the score between 0 and 1
+   * @return the Elo difference, infinite for a score of 0 or 1
+   */
+  public static double elo(double score) {
+    return -400 * Math.log10(1 / score - 1);
+  }
+
+  /**
+   * Decision of a test.
+   */
+  public enum Decision {
+    /**
+     * The difference is at most elo0.
+     */
+    H0,
+    /**
+     * The difference is at least elo1.
+     */
+    H1,
+    /**
+     * More games are needed.
+     */
+    CONTINUE
+  }
+}
@@ -0,0 +1,127 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.profschmergmann.Board;
+import de.profschmergmann.endgame.Bitbases;
+import de.profschmergmann.search.Search;
+import de.profschmergmann.search.TranspositionTable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Class for testing the endgame bitbases.
+ */
+public class BitbasesTest {
+
+  private static Bitbases bitbases;
+
+  @BeforeAll
+  public static void generate() throws InterruptedException {
+    bitbases = Bitbases.generate(Bitbases.DEFAULT_TABLES, 2);
+  }
+
+  private static int probe(String fen) {
+    return bitbases.probe(new Board(fen));
+  }
+
+  @Test
+  @DisplayName("Test the size and memory of the generated tables.")
+  public void testTables() {
+    var tables = bitbases.getTables();
+    assertEquals(List.of("KQK", "KRK", "KPK"), tables.stream().map(t -> t.getName()).toList());
+    assertEquals(81_920, tables.get(1).size());
+    assertEquals(10_240, tables.get(1).getMemory());
+    assertEquals(196_608, tables.get(2).size());
+    assertEquals(24_576, tables.get(2).getMemory());
+    assertEquals(3, bitbases.getMaxPieces());
+  }
+
+  @Test
+  @DisplayName("Test known results of king and pawn against king.")
+  public void testKingAndPawn() {
+    // the king on the sixth rank in front of its pawn always wins
+    assertEquals(Bitbases.WIN, probe("4k3/8/4K3/4P3/8/8/8/8 w - - 0 1"));
+    assertEquals(Bitbases.LOSS, probe("4k3/8/4K3/4P3/8/8/8/8 b - - 0 1"));
+    // the lone king blocks the pawn in front of the other king
+    assertEquals(Bitbases.DRAW, probe("4k3/8/4P3/4K3/8/8/8/8 w - - 0 1"));
+    assertEquals(Bitbases.DRAW, probe("4k3/8/4P3/4K3/8/8/8/8 b - - 0 1"));
+    // the rook pawn is a draw if the lone king reaches the corner
+    assertEquals(Bitbases.DRAW, probe("k7/8/K7/P7/8/8/8/8 w - - 0 1"));
+    // the pawn runs away from the lone king
+    assertEquals(Bitbases.WIN, probe("7k/8/8/8/P7/8/8/7K w - - 0 1"));
+    assertEquals(Bitbases.LOSS, probe("7k/8/8/8/P7/8/8/7K b - - 0 1"));
+  }
+
+  @Test
+  @DisplayName("Test if both colors and all symmetries give the same results.")
+  public void testSymmetry() {
+    assertEquals(Bitbases.WIN, probe("8/8/8/8/4p3/4k3/8/4K3 b - - 0 1"));
+    assertEquals(Bitbases.LOSS, probe("8/8/8/8/4p3/4k3/8/4K3 w - - 0 1"));
+    assertEquals(Bitbases.DRAW, probe("8/8/8/8/4k3/4p3/8/4K3 b - - 0 1"));
+    assertEquals(Bitbases.DRAW, probe("8/8/8/8/7p/7k/8/7K b - - 0 1"));
+    assertEquals(Bitbases.DRAW, probe("8/8/8/8/8/8/2k5/3R2K1 b - - 0 1"));
+    assertEquals(Bitbases.DRAW, probe("8/8/8/8/8/8/5k2/1K2R3 b - - 0 1"));
+    assertEquals(Bitbases.DRAW, probe("3r2k1/2K5/8/8/8/8/8/8 w - - 0 1"));
+    assertEquals(Bitbases.DRAW, probe("8/K7/8/8/R7/1k6/8/8 b - - 0 1"));
+  }
+
+  @Test
+  @DisplayName("Test mates, stalemates and captures of the lone king.")
+  public void testSpecialPositions() {
+    assertEquals(Bitbases.LOSS, probe("k7/1Q6/1K6/8/8/8/8/8 b - - 0 1"));
+    assertEquals(Bitbases.DRAW, probe("k7/2Q5/1K6/8/8/8/8/8 b - - 0 1"));
+    assertEquals(Bitbases.WIN, probe("8/8/8/8/8/8/2k5/3R2K1 w - - 0 1"));
+    assertEquals(Bitbases.LOSS, probe("8/8/8/4k3/8/8/8/R3K3 b - - 0 1"));
+    // the queen promotion would stalemate, the rook promotion wins
+    assertEquals(Bitbases.WIN, probe("8/k1P5/8/K7/8/8/8/8 w - - 0 1"));
+  }
+
+  @Test
+  @DisplayName("Test if positions without a table are unknown.")
+  public void testUnknown() {
+    assertEquals(Bitbases.UNKNOWN, probe(null));
+    assertEquals(Bitbases.UNKNOWN, probe("4k3/8/8/8/8/8/8/4K3 w - - 0 1"));
+    assertEquals(Bitbases.UNKNOWN, probe("4k3/8/8/8/8/8/8/3NK3 w - - 0 1"));
+    assertEquals(Bitbases.UNKNOWN, probe("4k3/4n3/8/8/8/8/8/R3K3 w - - 0 1"));
+    assertEquals(Bitbases.UNKNOWN, probe("4k3/8/8/8/8/8/8/R2QK3 w - - 0 1"));
+  }
+
+  @Test
+  @DisplayName("Test if saved tables are loaded with the same results.")
+  public void testSaveAndLoad() throws IOException {
+    var file = Files.createTempFile("bitbases", ".bin");
+    try {
+      bitbases.save(file);
+      var loaded = Bitbases.load(file);
+      assertEquals(3, loaded.getTables().size());
+      for (var i = 0; i < 3; i++) {
+        assertEquals(bitbases.getTables().get(i).countWins(),
+            loaded.getTables().get(i).countWins());
+      }
+      assertEquals(Bitbases.DRAW, loaded.probe(new Board("4k3/8/4P3/4K3/8/8/8/8 w - - 0 1")));
+      Files.write(file, new byte[16]);
+      assertThrows(IOException.class, () -> Bitbases.load(file));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  @DisplayName("Test if the search uses the bitbases.")
+  public void testSearch() {
+    var search = new Search(new Board("8/8/8/4k3/8/8/8/R3K3 w - - 0 1"),
+        new TranspositionTable(16));
+    search.setBitbases(bitbases);
+    var result = search.search(2, 0, null);
+    assertTrue(result.score() >= Search.KNOWN_WIN, "No known win: " + result);
+    search = new Search(new Board("4k3/8/4P3/4K3/8/8/8/8 w - - 0 1"),
+        new TranspositionTable(16));
+    search.setBitbases(bitbases);
+    assertEquals(0, search.search(4, 0, null).score());
+  }
+}
@@ -1,4 +1,14 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.profschmergmann.Bitboards;
 import de.profschmergmann.Board;
+import de.profschmergmann.MoveList;
+import de.profschmergmann.Moves;
+import de.profschmergmann.pieces.Piece.PieceColor;
+import java.util.Random;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -18,4 +28,154 @@ public class BoardTest {
     System.out.println(this.b);
   }
 
+  @Test
+  @DisplayName("Test if unmaking random moves restores the board.")
+  public void testMakeUnmakeRestoresBoard() {
+    var random = new Random(42);
+    var list = new MoveList();
+    for (var game = 0; game < 20; game++) {
+      var board = new Board(PerftTest.KIWIPETE);
+      var states = new String[200];
+      var plies = 0;
+      board.generateMoves(list);
+      while (plies < states.length && !list.isEmpty()) {
+        states[plies++] = describe(board);
+        board.makeMove(list.get(random.nextInt(list.size())));
+        board.generateMoves(list);
+      }
+      while (plies > 0) {
+        board.unmakeMove();
+        assertEquals(states[--plies], describe(board), "Board differs after unmaking a move!");
+      }
+    }
+    assertThrows(IllegalStateException.class, this.b::unmakeMove);
+  }
+
+  @Test
+  @DisplayName("Test if captures and quiet moves split the legal moves and isLegal agrees.")
+  public void testStagedGenerationAndIsLegal() {
+    var random = new Random(7);
+    var all = new MoveList();
+    var captures = new MoveList();
+    var quiets = new MoveList();
+    for (var fen : new String[]{PerftTest.KIWIPETE, PerftTest.POSITION_3, PerftTest.POSITION_4,
+        PerftTest.POSITION_5}) {
+      var board = new Board(fen);
+      for (var ply = 0; ply < 12; ply++) {
+        board.generateMoves(all);
+        board.generateCaptures(captures);
+        board.generateQuiets(quiets);
+        assertEquals(all.size(), captures.size() + quiets.size());
+        for (var i = 0; i < captures.size(); i++) {
+          var move = captures.get(i);
+          assertTrue(Moves.isCapture(move) || Moves.isPromotion(move));
+          assertFalse(quiets.contains(move));
+        }
+        for (var move = 0; move < 1 << 16; move++) {
+          assertEquals(all.contains(move), board.isLegal(move),
+              "isLegal is wrong for " + Moves.toString(move) + " in " + describe(board));
+        }
+        if (all.isEmpty()) {
+          break;
+        }
+        board.makeMove(all.get(random.nextInt(all.size())));
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("Test if the attack maps contain every attacked square after random moves.")
+  public void testAttackMaps() {
+    var random = new Random(3);
+    var list = new MoveList();
+    var board = new Board(PerftTest.KIWIPETE);
+    for (var ply = 0; ply < 60; ply++) {
+      for (var color : PieceColor.values()) {
+        var map = board.getAttackMap(color);
+        for (var square = 0; square < 64; square++) {
+          if (board.isSquareAttacked(square, color)) {
+            assertTrue((map & 1L << square) != 0, "Attacked square missing: " + square);
+          }
+        }
+      }
+      board.generateMoves(list);
+      if (list.isEmpty()) {
+        break;
+      }
+      board.makeMove(list.get(random.nextInt(list.size())));
+    }
+  }
+
+  @Test
+  @DisplayName("Test if a king in check cannot step back along the ray of the checking rook.")
+  public void testAttackMapThroughKing() {
+    var board = new Board("R3k3/8/8/8/8/8/8/4K3 b - - 0 1");
+    var e8 = Bitboards.square('e', 8);
+    var f8 = Bitboards.square('f', 8);
+    assertTrue(board.isInCheck(PieceColor.B));
+    assertFalse(board.isSquareAttacked(f8, PieceColor.W));
+    assertTrue((board.getAttackMap(PieceColor.W) & 1L << f8) != 0);
+    var list = new MoveList();
+    board.generateMoves(list);
+    assertFalse(list.contains(Moves.encode(e8, f8, Moves.QUIET)));
+    assertEquals(3, list.size());
+  }
+
+  @Test
+  @DisplayName("Test if a single check is answered by king moves, captures and blocks.")
+  public void testCheckEvasions() {
+    var board = new Board("k3q3/8/8/8/8/8/4N1BN/R3K2r w Q - 0 1");
+    var list = new MoveList();
+    board.generateMoves(list);
+    // the knight on e2 is pinned and castling is not allowed in check
+    assertEquals(5, list.size());
+    assertTrue(list.contains(board.findMove(Bitboards.square('g', 2), Bitboards.square('h', 1),
+        null)));
+    assertTrue(list.contains(board.findMove(Bitboards.square('g', 2), Bitboards.square('f', 1),
+        null)));
+    assertTrue(list.contains(board.findMove(Bitboards.square('h', 2), Bitboards.square('f', 1),
+        null)));
+    assertTrue(list.contains(board.findMove(Bitboards.square('e', 1), Bitboards.square('d', 2),
+        null)));
+    assertTrue(list.contains(board.findMove(Bitboards.square('e', 1), Bitboards.square('f', 2),
+        null)));
+  }
+
+  @Test
+  @DisplayName("Test if a double check is only answered by king moves.")
+  public void testDoubleCheckEvasions() {
+    var board = new Board("4k3/8/8/8/8/5n2/6B1/R3K2r w Q - 0 1");
+    var list = new MoveList();
+    board.generateMoves(list);
+    assertEquals(2, list.size());
+    for (var i = 0; i < list.size(); i++) {
+      assertEquals(Bitboards.square('e', 1), Moves.from(list.get(i)));
+    }
+  }
+
+  @Test
+  @DisplayName("Test if copying into an existing board keeps the history for repetitions.")
+  public void testCopyFrom() {
+    var board = new Board();
+    // knights out and back twice repeats the start position
+    for (var i = 0; i < 8; i++) {
+      var from = new int[]{6, 62, 21, 45}[i % 4];
+      var to = new int[]{21, 45, 6, 62}[i % 4];
+      board.makeMove(board.findMove(from, to, null));
+    }
+    var copy = new Board("4k3/8/8/8/8/8/8/4K3 w - - 0 1");
+    copy.copyFrom(board);
+    assertEquals(board.toFen(), copy.toFen());
+    assertEquals(board.getZobristKey(), copy.getZobristKey());
+    assertEquals(2, copy.countRepetitions());
+    copy.unmakeMove();
+    assertEquals("rnbqkb1r/pppppppp/5n2/8/8/8/PPPPPPPP/RNBQKBNR b KQkq - 7 4", copy.toFen());
+    assertEquals("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 8 5", board.toFen());
+  }
+
+  private static String describe(Board board) {
+    return board.toString() + board.getCurrentTeam() + board.getCastlingRights()
+        + board.getEnPassantSquare() + " " + board.getHalfMoves() + " " + board.getFullMoves();
+  }
+
 }
@@ -0,0 +1,151 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.profschmergmann.Board;
+import de.profschmergmann.Moves;
+import de.profschmergmann.San;
+import de.profschmergmann.book.BookBuilder;
+import de.profschmergmann.book.OpeningBook;
+import de.profschmergmann.book.PgnParser;
+import de.profschmergmann.book.PgnReader;
+import de.profschmergmann.pieces.Piece.PieceColor;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Class for testing the PGN reader and the opening book builder.
+ */
+public class BookBuilderTest {
+
+  private static final String GAMES = """
+      [Event "Test"]
+      [White "A"]
+      [Black "B"]
+      [Result "1-0"]
+
+      1. e4 e5 2. Nf3 {main line} Nc6 (2... d6 3. d4) 3. Bb5 a6 $1 4. Ba4 Nf6 5. O-O 1-0
+
+      [Event "Test"]
+      [Result "0-1"]
+
+      1.e4 c5 2.Nf3 d6 ; comment until the end of the line
+      3.d4 cxd4 4.Nxd4 Nf6 5.Nc3 a6 0-1
+      % escaped line
+      [Event "Test"]
+      [Result "1/2-1/2"]
+
+      1. d4 d5 2. c4 e6 1/2-1/2
+
+      [Event "From a position"]
+      [SetUp "1"]
+      [FEN "4k3/8/8/8/8/8/4P3/4K3 b - - 0 1"]
+      [Result "*"]
+
+      1... Kd7 2. e4 Ke6 *
+
+      [Event "Illegal"]
+      [Result "1-0"]
+
+      1. e4 e5 2. Ke3 1-0
+      """;
+
+  @Test
+  @DisplayName("Test if the reader splits the games and the parser replays their moves.")
+  public void testReadAndParse() throws IOException {
+    var reader = new PgnReader(new StringReader(GAMES));
+    var parser = new PgnParser(100);
+    var first = reader.nextGame();
+    assertTrue(parser.parse(first));
+    assertEquals(9, parser.getPlies());
+    assertEquals(PgnParser.WHITE_WINS, parser.getResult());
+    var board = new Board();
+    for (var ply = 0; ply < parser.getPlies(); ply++) {
+      assertEquals(board.computePolyglotKey(), parser.getKey(ply));
+      board.makeMove(parser.getMove(ply));
+    }
+    assertEquals(Moves.KING_CASTLE, Moves.flags(parser.getMove(8)));
+    assertTrue(parser.parse(reader.nextGame()));
+    assertEquals(10, parser.getPlies());
+    assertEquals(PgnParser.BLACK_WINS, parser.getResult());
+    assertTrue(parser.parse(reader.nextGame()));
+    assertEquals(PgnParser.DRAW, parser.getResult());
+    assertTrue(parser.parse(reader.nextGame()));
+    assertEquals(3, parser.getPlies());
+    assertEquals(PieceColor.B, parser.getTeam(0));
+    assertEquals(PgnParser.UNKNOWN, parser.getResult());
+    assertFalse(parser.parse(reader.nextGame()));
+    assertEquals(2, parser.getPlies());
+    assertNull(reader.nextGame());
+  }
+
+  @Test
+  @DisplayName("Test if the builder merges the statistics of all runs into a sorted book.")
+  public void testBuild() throws IOException {
+    var directory = Files.createTempDirectory("book");
+    var pgn = directory.resolve("games.pgn");
+    var book = directory.resolve("book.bin");
+    try {
+      Files.writeString(pgn, GAMES.repeat(50));
+      // tiny runs force many spills and merges
+      var statistics = new BookBuilder(20, 1, 3, 16, directory).build(List.of(pgn), book);
+      assertEquals(250, statistics.games());
+      assertEquals(50, statistics.invalidGames());
+      assertTrue(statistics.runs() > 3);
+      assertEquals(statistics.bookEntries() * OpeningBook.ENTRY_SIZE, Files.size(book));
+      try (var files = Files.list(directory)) {
+        assertEquals(2, files.count(), "Run files were not deleted");
+      }
+
+      var openingBook = OpeningBook.open(book);
+      var start = new Board();
+      // every copy of the games gives four points to e4 and one to d4
+      assertEquals(San.parse(start, "e4"), openingBook.bestMove(start));
+      var random = new Random(3);
+      var d4 = 0;
+      for (var i = 0; i < 1000; i++) {
+        d4 += openingBook.probe(start, random) == San.parse(start, "d4") ? 1 : 0;
+      }
+      assertTrue(d4 > 100 && d4 < 300, "d4 chosen " + d4 + " times");
+      start.makeMove(San.parse(start, "e4"));
+      // black won with c5 and lost with e5
+      assertEquals(San.parse(start, "c5"), openingBook.bestMove(start));
+      var endgame = new Board("4k3/8/8/8/8/8/4P3/4K3 b - - 0 1");
+      assertEquals(San.parse(endgame, "Kd7"), openingBook.bestMove(endgame));
+    } finally {
+      try (var files = Files.list(directory)) {
+        for (var file : files.toList()) {
+          Files.delete(file);
+        }
+      }
+      Files.delete(directory);
+    }
+  }
+
+  @Test
+  @DisplayName("Test if rare moves are left out of the book.")
+  public void testMinGames() throws IOException {
+    var directory = Files.createTempDirectory("book");
+    var pgn = directory.resolve("games.pgn");
+    var book = directory.resolve("book.bin");
+    try {
+      Files.writeString(pgn, GAMES.repeat(2));
+      new BookBuilder(20, 5, 1, 1024, directory).build(List.of(pgn, pgn), book);
+      var openingBook = OpeningBook.open(book);
+      var start = new Board();
+      // every move was played four times, so only 1. e4 with twelve games is left
+      assertEquals(1, openingBook.size());
+      assertEquals(San.parse(start, "e4"), openingBook.bestMove(start));
+    } finally {
+      Files.deleteIfExists(pgn);
+      Files.deleteIfExists(book);
+      Files.delete(directory);
+    }
+  }
+}
@@ -0,0 +1,86 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.profschmergmann.Board;
+import de.profschmergmann.Moves;
+import de.profschmergmann.tools.EpdSuite;
+import de.profschmergmann.tools.EpdSuite.Position;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Class for testing the EPD test suite runner.
+ */
+public class EpdSuiteTest {
+
+  private static final List<String> SUITE = List.of(
+      "6k1/5ppp/8/8/8/8/8/R5K1 w - - bm Ra8#; id \"mate\";",
+      "4k3/8/8/3q4/8/8/8/3RK3 w - - bm Rxd5; id \"capture\";",
+      "4k3/8/2p5/3p4/8/8/8/3QK3 w - - am Qxd5; id \"defended pawn\";");
+
+  @Test
+  @DisplayName("Test parsing the operations of an EPD line.")
+  public void testParse() {
+    var board = new Board();
+    var position = Position.parse(
+        "r3k3/8/8/8/8/8/8/R3K2R w KQq - hmvc 0; bm O-O Rxa8+; am Kd1; id \"a;b\";", board);
+    assertEquals("a;b", position.id());
+    assertEquals("r3k3/8/8/8/8/8/8/R3K2R w KQq -", position.fen());
+    assertEquals(2, position.bestMoves().length);
+    assertEquals("e1g1", Moves.toString(position.bestMoves()[0]));
+    assertEquals("a1a8", Moves.toString(position.bestMoves()[1]));
+    assertEquals("e1d1", Moves.toString(position.avoidMoves()[0]));
+    assertTrue(position.isSolvedBy(position.bestMoves()[1]));
+    assertFalse(position.isSolvedBy(position.avoidMoves()[0]));
+    assertFalse(position.isSolvedBy(Moves.NONE));
+
+    position = Position.parse("6k1/5ppp/8/8/8/8/8/R5K1 w - - bm a1a8", board);
+    assertEquals(position.fen(), position.id());
+    assertArrayEquals(new int[]{board.findMove(0, 56, null)}, position.bestMoves());
+  }
+
+  @Test
+  @DisplayName("Test if invalid EPD lines are rejected with their line number.")
+  public void testInvalidLines() throws IOException {
+    var board = new Board();
+    assertThrows(IllegalArgumentException.class,
+        () -> Position.parse("6k1/5ppp/8/8/8/8/8/R5K1 w - - id \"no test\";", board));
+    assertThrows(IllegalArgumentException.class,
+        () -> Position.parse("6k1/5ppp/8/8/8/8/8/R5K1 w - - bm Ra9;", board));
+    var file = Files.createTempFile("suite", ".epd");
+    try {
+      Files.write(file, List.of("# comment", SUITE.get(0), "4k3/8/8/8/8/8/8/4K3 w - - bm Qd1;"));
+      var e = assertThrows(IllegalArgumentException.class, () -> EpdSuite.load(file));
+      assertTrue(e.getMessage().startsWith("Line 3: "), e.getMessage());
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  @DisplayName("Test running a suite on several workers.")
+  public void testRun() throws IOException, InterruptedException {
+    var file = Files.createTempFile("suite", ".epd");
+    try {
+      Files.write(file, SUITE);
+      var positions = EpdSuite.load(file);
+      assertEquals(3, positions.size());
+      var report = EpdSuite.run(positions, 4, 0, 2, 1);
+      assertEquals(2, report.workers().size());
+      assertEquals(3, report.positions());
+      assertEquals(3, report.solved(), "Unsolved: " + report.unsolved());
+      assertTrue(report.unsolved().isEmpty());
+      assertTrue(report.nodes() > 0);
+      assertEquals(report.nodes(),
+          report.workers().stream().mapToLong(EpdSuite.WorkerReport::nodes).sum());
+    } finally {
+      Files.delete(file);
+    }
+  }
+}
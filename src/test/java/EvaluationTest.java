@@ -0,0 +1,138 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.profschmergmann.Board;
+import de.profschmergmann.MoveList;
+import de.profschmergmann.PieceSquareTables;
+import de.profschmergmann.search.Evaluation;
+import de.profschmergmann.search.PawnHashTable;
+import de.profschmergmann.search.PawnStructure;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Class for testing the tapered evaluation and its incremental update.
+ */
+public class EvaluationTest {
+
+  private static void assertIncrementalScores(Board board) {
+    var midgame = 0;
+    var endgame = 0;
+    var phase = 0;
+    for (var square = 0; square < 64; square++) {
+      var piece = board.getPieceCode(square);
+      if (piece != Board.EMPTY) {
+        midgame += PieceSquareTables.MIDGAME[piece][square];
+        endgame += PieceSquareTables.ENDGAME[piece][square];
+        phase += PieceSquareTables.PHASE[piece];
+      }
+    }
+    assertEquals(midgame, board.getMidgameScore());
+    assertEquals(endgame, board.getEndgameScore());
+    assertEquals(phase, board.getPhase());
+    assertEquals(board.computePawnKey(), board.getPawnKey());
+  }
+
+  /**
+   * Mirrors a FEN vertically and swaps the colors, which must not change the evaluation.
+   */
+  private static String mirror(String fen) {
+    var fields = fen.split(" ");
+    var ranks = fields[0].split("/");
+    var placement = new StringBuilder();
+    for (var i = ranks.length - 1; i >= 0; i--) {
+      placement.append(swapCase(ranks[i])).append(i > 0 ? "/" : "");
+    }
+    var enPassant = fields[3].equals("-") ? "-"
+        : fields[3].charAt(0) + String.valueOf(9 - (fields[3].charAt(1) - '0'));
+    return placement + " " + (fields[1].equals("w") ? "b" : "w") + " " + swapCase(fields[2])
+        + " " + enPassant + " " + fields[4] + " " + fields[5];
+  }
+
+  private static String swapCase(String s) {
+    var chars = s.toCharArray();
+    for (var i = 0; i < chars.length; i++) {
+      chars[i] = Character.isUpperCase(chars[i]) ? Character.toLowerCase(chars[i])
+          : Character.toUpperCase(chars[i]);
+    }
+    return new String(chars);
+  }
+
+  @Test
+  @DisplayName("Test if the starting position is balanced and in the middlegame.")
+  public void testStartingPosition() {
+    var board = new Board();
+    assertEquals(0, Evaluation.evaluate(board));
+    assertEquals(PieceSquareTables.MAX_PHASE, board.getPhase());
+    assertIncrementalScores(board);
+  }
+
+  @Test
+  @DisplayName("Test if mirrored positions get the same score for the team to move.")
+  public void testSymmetry() {
+    for (var fen : new String[]{PerftTest.KIWIPETE, PerftTest.POSITION_3, PerftTest.POSITION_4,
+        PerftTest.POSITION_5, PerftTest.POSITION_6}) {
+      assertEquals(Evaluation.evaluate(new Board(fen)), Evaluation.evaluate(new Board(mirror(fen))),
+          fen);
+    }
+  }
+
+  @Test
+  @DisplayName("Test if the incremental scores match the pieces after making and unmaking moves.")
+  public void testIncrementalUpdate() {
+    var random = new Random(11);
+    var list = new MoveList();
+    for (var fen : new String[]{PerftTest.KIWIPETE, PerftTest.POSITION_4, PerftTest.POSITION_5}) {
+      var board = new Board(fen);
+      var plies = 0;
+      board.generateMoves(list);
+      while (plies < 100 && !list.isEmpty()) {
+        board.makeMove(list.get(random.nextInt(list.size())));
+        plies++;
+        assertIncrementalScores(board);
+        board.generateMoves(list);
+      }
+      while (plies-- > 0) {
+        board.unmakeMove();
+        assertIncrementalScores(board);
+      }
+      assertEquals(Evaluation.evaluate(new Board(fen)), Evaluation.evaluate(board));
+    }
+  }
+
+  @Test
+  @DisplayName("Test if an extra queen is worth more than a pawn in every phase.")
+  public void testMaterial() {
+    var board = new Board("4k3/8/8/8/8/8/8/3QK3 w - - 0 1");
+    assertTrue(Evaluation.evaluate(board) > 800);
+    assertTrue(board.getPhase() < PieceSquareTables.MAX_PHASE);
+  }
+
+  @Test
+  @DisplayName("Test if the pawn structure terms have the expected signs.")
+  public void testPawnStructure() {
+    var passedFar = PawnStructure.evaluate(new Board("4k3/8/P7/8/8/8/8/4K3 w - - 0 1"));
+    var passedNear = PawnStructure.evaluate(new Board("4k3/8/8/8/8/P7/8/4K3 w - - 0 1"));
+    assertTrue(PawnStructure.endgame(passedFar) > PawnStructure.endgame(passedNear));
+    var doubled = PawnStructure.evaluate(new Board("4k3/p6p/8/8/8/P7/P6P/4K3 w - - 0 1"));
+    assertTrue(PawnStructure.midgame(doubled) < 0 && PawnStructure.endgame(doubled) < 0);
+    var isolated = PawnStructure.evaluate(new Board("4k3/pp6/8/8/8/8/P1P5/4K3 w - - 0 1"));
+    assertTrue(PawnStructure.midgame(isolated) < 0);
+    var packed = PawnStructure.pack(-37, 12);
+    assertEquals(-37, PawnStructure.midgame(packed));
+    assertEquals(12, PawnStructure.endgame(packed));
+  }
+
+  @Test
+  @DisplayName("Test if the pawn hash table returns the computed scores and counts hits.")
+  public void testPawnHashTable() {
+    var table = new PawnHashTable(1024);
+    var board = new Board(PerftTest.KIWIPETE);
+    assertEquals(PawnStructure.evaluate(board), table.probe(board));
+    assertEquals(PawnStructure.evaluate(board), table.probe(board));
+    assertEquals(2, table.getProbes());
+    assertEquals(1, table.getHits());
+    assertEquals(Evaluation.evaluate(board), Evaluation.evaluate(board, table));
+  }
+}
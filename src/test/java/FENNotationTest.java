@@ -1,10 +1,19 @@
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import de.profschmergmann.Bitboards;
 import de.profschmergmann.Board;
 import de.profschmergmann.Game;
 import de.profschmergmann.pieces.Piece.PieceColor;
 import de.profschmergmann.players.ComputerPlayer;
 import de.profschmergmann.players.Player;
+import de.profschmergmann.tools.FenLoader;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
@@ -39,4 +48,128 @@ public class FENNotationTest {
     assertEquals(STARTING_FEN, g.getCurrentGameAsFENRecord(),
         "Current board as FEN record and given record are not the same!");
   }
+
+  @Test
+  @DisplayName("Test if all fields of a FEN record are parsed.")
+  public void testParseAllFields() {
+    var b = new Board("r3k2r/8/8/3pP3/8/8/8/R3K3 w Qk d6 3 42");
+    assertEquals(PieceColor.W, b.getCurrentTeam());
+    assertEquals(Board.WHITE_QUEEN_SIDE | Board.BLACK_KING_SIDE, b.getCastlingRights());
+    assertEquals(Bitboards.square('d', 6), b.getEnPassantSquare());
+    assertEquals(3, b.getHalfMoves());
+    assertEquals(42, b.getFullMoves());
+    assertEquals(b.computeZobristKey(), b.getZobristKey());
+    assertEquals(b.computePawnKey(), b.getPawnKey());
+  }
+
+  @Test
+  @DisplayName("Test if a board parsed from bytes equals the board parsed from characters.")
+  public void testParseBytes() {
+    var line = "  " + STARTING_FEN + " \n";
+    var bytes = line.getBytes(StandardCharsets.US_ASCII);
+    var b = new Board("8/8/8/8/8/8/8/8 b - - 0 1");
+    b.setFen(bytes, 0, bytes.length);
+    var expected = new Board(STARTING_FEN);
+    assertEquals(expected.toString(), b.toString());
+    assertEquals(expected.getZobristKey(), b.getZobristKey());
+    assertEquals(expected.getCastlingRights(), b.getCastlingRights());
+    assertEquals(PieceColor.W, b.getCurrentTeam());
+  }
+
+  @Test
+  @DisplayName("Test if EPD operations after the position are ignored.")
+  public void testParseEpd() {
+    var b = new Board("4k3/8/8/8/8/8/8/4K2R w K - bm O-O; id \"castle\";");
+    assertEquals(Board.WHITE_KING_SIDE, b.getCastlingRights());
+    assertEquals(0, b.getHalfMoves());
+    assertEquals(1, b.getFullMoves());
+  }
+
+  @Test
+  @DisplayName("Test if invalid piece placements are rejected.")
+  public void testParseInvalid() {
+    assertThrows(IllegalArgumentException.class, () -> new Board("rnbqkbnrr/8/8/8/8/8/8/8 w"));
+    assertThrows(IllegalArgumentException.class, () -> new Board("8/8/8/8/8/8/8/8/8 w"));
+    assertThrows(IllegalArgumentException.class, () -> new Board("8/8/8/8/8/8/8/7x w"));
+  }
+
+  @Test
+  @DisplayName("Test if missing ranks, short ranks and invalid teams are rejected.")
+  public void testParseIncomplete() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new Board("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1"));
+    assertThrows(IllegalArgumentException.class,
+        () -> new Board("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBN w Qkq - 0 1"));
+    assertThrows(IllegalArgumentException.class,
+        () -> new Board("rnbqkbnr/pppppppp/8/8/8/7/PPPPPPPP/RNBQKBNR w KQkq - 0 1"));
+    assertThrows(IllegalArgumentException.class,
+        () -> new Board("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1"));
+    assertThrows(IllegalArgumentException.class,
+        () -> new Board("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR white KQkq - 0 1"));
+    var board = new Board();
+    var bytes = "4k3/8/8/8/8/8/8/4K3 x - - 0 1".getBytes(StandardCharsets.US_ASCII);
+    assertThrows(IllegalArgumentException.class, () -> board.setFen(bytes, 0, bytes.length));
+    // the team and the following fields are still optional
+    assertEquals("4k3/8/8/8/8/8/8/4K3 w - - 0 1", new Board("4k3/8/8/8/8/8/8/4K3").toFen());
+  }
+
+  @Test
+  @DisplayName("Test if move counters which do not fit into the board are rejected.")
+  public void testParseMoveCounters() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new Board("4k3/8/8/8/8/8/8/4K3 w - - 99999999999 1"));
+    assertThrows(IllegalArgumentException.class,
+        () -> new Board("4k3/8/8/8/8/8/8/4K3 w - - 65536 1"));
+    assertThrows(IllegalArgumentException.class,
+        () -> new Board("4k3/8/8/8/8/8/8/4K3 w - - 0 99999999999"));
+    var board = new Board("4k3/8/8/8/8/8/8/4K3 w - - 65535 2147483647");
+    assertEquals("4k3/8/8/8/8/8/8/4K3 w - - 65535 2147483647", board.toFen());
+    // the largest half move clock survives the undo state
+    board.makeMove(board.findMove(4, 12, null));
+    board.unmakeMove();
+    assertEquals(65535, board.getHalfMoves());
+  }
+
+  @Test
+  @DisplayName("Test if the bulk loader parses every record of a file.")
+  public void testFenLoader() throws IOException {
+    var file = Files.createTempFile("positions", ".fen");
+    try {
+      Files.writeString(file, "# comment\r\n" + STARTING_FEN + "\r\n\n"
+          + "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1\n4k3/8/8/8/8/8/8/4K3 b - -");
+      var keys = new ArrayList<Long>();
+      assertEquals(3L, FenLoader.load(file, board -> keys.add(board.getZobristKey())));
+      assertEquals(new Board(STARTING_FEN).getZobristKey(), (long) keys.get(0));
+      assertEquals(new Board("4k3/8/8/8/8/8/8/4K3 b - -").getZobristKey(), (long) keys.get(2));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  @DisplayName("Test if written FEN records equal the parsed ones.")
+  public void testWriteFen() {
+    for (var fen : new String[]{STARTING_FEN, PerftTest.KIWIPETE, PerftTest.POSITION_3,
+        PerftTest.POSITION_4, PerftTest.POSITION_5, PerftTest.POSITION_6,
+        "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 123456"}) {
+      assertEquals(fen, new Board(fen).toFen());
+    }
+  }
+
+  @Test
+  @DisplayName("Test if FEN records are appended to builders, appendables and byte buffers.")
+  public void testWriteFenTargets() throws IOException {
+    var board = new Board(PerftTest.KIWIPETE);
+    var builder = new StringBuilder("fen ");
+    board.writeFen(builder);
+    assertEquals("fen " + PerftTest.KIWIPETE, builder.toString());
+    var writer = new StringWriter();
+    board.writeFen(writer);
+    assertEquals(PerftTest.KIWIPETE, writer.toString());
+    var buffer = ByteBuffer.allocate(256);
+    board.writeFen(buffer);
+    board.writeFen(buffer);
+    assertEquals(PerftTest.KIWIPETE + PerftTest.KIWIPETE,
+        new String(buffer.array(), 0, buffer.position(), StandardCharsets.US_ASCII));
+  }
 }
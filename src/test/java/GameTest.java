@@ -1,3 +1,6 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 import de.profschmergmann.Game;
 import de.profschmergmann.pieces.Piece.PieceColor;
 import de.profschmergmann.players.ComputerPlayer;
@@ -22,7 +25,7 @@ public class GameTest {
   public void testPlayRandomMovesEach() {
     System.out.println(this.g.getCurrentBoard());
     var moves = this.g.getCurrentBoard().getAvailableMoves().stream().toList();
-    while (!moves.isEmpty()) {
+    while (!moves.isEmpty() && this.g.getCurrentBoard().getHalfMoves() < 100) {
       moves.forEach(System.out::println);
       var r = ThreadLocalRandom.current().nextInt(0, moves.size());
       var move = moves.get(r);
@@ -35,4 +38,16 @@ public class GameTest {
     }
   }
 
+  @Test
+  @DisplayName("Let computer players play against each other.")
+  public void testComputerPlayersPlay() {
+    var game = new Game(new Player(PieceColor.W, new ComputerPlayer(3, 0, 1)),
+        new Player(PieceColor.B, new ComputerPlayer(3, 0, 1)), null);
+    for (var i = 0; i < 10; i++) {
+      assertTrue(game.playNextMove(), "Computer player did not move!");
+    }
+    assertEquals(10, game.getPlayedMoves().size());
+    System.out.println(game.getCurrentBoard());
+  }
+
 }
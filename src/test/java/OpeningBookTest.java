@@ -0,0 +1,119 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.profschmergmann.Bitboards;
+import de.profschmergmann.Board;
+import de.profschmergmann.Moves;
+import de.profschmergmann.book.OpeningBook;
+import de.profschmergmann.pieces.Piece.PieceType;
+import de.profschmergmann.players.ComputerPlayer;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Class for testing the memory-mapped opening book.
+ */
+public class OpeningBookTest {
+
+  private static final String CASTLING = "r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1";
+
+  /**
+   * Writes a book with the given entries of key, encoded move and weight, sorted by key.
+   */
+  private static Path writeBook(List<long[]> entries) throws IOException {
+    entries.sort((a, b) -> Long.compareUnsigned(a[0], b[0]));
+    var buffer = ByteBuffer.allocate(entries.size() * OpeningBook.ENTRY_SIZE);
+    for (var entry : entries) {
+      buffer.putLong(entry[0]).putShort((short) OpeningBook.toPolyglot((int) entry[1]))
+          .putShort((short) entry[2]).putInt(0);
+    }
+    var file = Files.createTempFile("book", ".bin");
+    Files.write(file, buffer.array());
+    return file;
+  }
+
+  private static List<long[]> entries() {
+    var start = new Board();
+    var castling = new Board(CASTLING);
+    var entries = new ArrayList<long[]>();
+    entries.add(new long[]{start.computePolyglotKey(), move(start, "e2", "e4"), 30});
+    entries.add(new long[]{start.computePolyglotKey(), move(start, "d2", "d4"), 10});
+    entries.add(new long[]{castling.computePolyglotKey(), move(castling, "e1", "c1"), 5});
+    // unrelated positions around the searched keys
+    var random = new Random(7);
+    for (var i = 0; i < 1000; i++) {
+      entries.add(new long[]{random.nextLong(), Moves.encode(12, 28, Moves.QUIET), 1});
+    }
+    return entries;
+  }
+
+  private static int move(Board board, String from, String to) {
+    return board.findMove(Bitboards.square(from.charAt(0), from.charAt(1) - '0'),
+        Bitboards.square(to.charAt(0), to.charAt(1) - '0'), PieceType.QUEEN);
+  }
+
+  @Test
+  @DisplayName("Test if book moves are found and chosen by their weight.")
+  public void testProbe() throws IOException {
+    var file = writeBook(entries());
+    try {
+      var book = OpeningBook.open(file);
+      assertEquals(1003, book.size());
+      var board = new Board();
+      assertEquals(move(board, "e2", "e4"), book.bestMove(board));
+      var random = new Random(1);
+      var e4 = 0;
+      for (var i = 0; i < 1000; i++) {
+        var move = book.probe(board, random);
+        assertTrue(move == move(board, "e2", "e4") || move == move(board, "d2", "d4"));
+        e4 += move == move(board, "e2", "e4") ? 1 : 0;
+      }
+      assertTrue(e4 > 650 && e4 < 850, "e4 chosen " + e4 + " times");
+      board.makeMove(move(board, "e2", "e4"));
+      assertEquals(Moves.NONE, book.probe(board, random));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  @DisplayName("Test if castling is stored as king captures rook and read back.")
+  public void testCastling() throws IOException {
+    var board = new Board(CASTLING);
+    var castle = move(board, "e1", "c1");
+    assertTrue(Moves.isCastling(castle));
+    assertEquals(Bitboards.square('e', 1) << 6 | Bitboards.square('a', 1),
+        OpeningBook.toPolyglot(castle));
+    var file = writeBook(entries());
+    try {
+      assertEquals(castle, OpeningBook.open(file).bestMove(board));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  @DisplayName("Test if the computer player plays book moves without searching.")
+  public void testComputerPlayer() throws IOException {
+    var file = writeBook(entries());
+    try {
+      var player = new ComputerPlayer(64, 60_000, 1);
+      player.setOpeningBook(OpeningBook.open(file));
+      var start = System.nanoTime();
+      var move = player.makeMove(new Board());
+      assertTrue(System.nanoTime() - start < 1_000_000_000L);
+      assertEquals(PieceType.PAWN, move.piece().getPieceType());
+      assertNull(player.getLastResult());
+    } finally {
+      Files.delete(file);
+    }
+  }
+}
@@ -0,0 +1,79 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import de.profschmergmann.Board;
+import de.profschmergmann.tools.Perft;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Class for testing the move generator by counting the leaf nodes of the move tree, see
+ * <a href="https://www.chessprogramming.org/Perft_Results">Perft Results</a>.
+ */
+public class PerftTest {
+
+  public static final String KIWIPETE =
+      "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+  public static final String POSITION_3 = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+  public static final String POSITION_4 =
+      "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1";
+  public static final String POSITION_5 =
+      "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8";
+  public static final String POSITION_6 =
+      "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10";
+
+  @Test
+  @DisplayName("Test perft of the starting position.")
+  public void testStartingPosition() {
+    var b = new Board();
+    assertEquals(20L, Perft.perft(b, 1));
+    assertEquals(400L, Perft.perft(b, 2));
+    assertEquals(8902L, Perft.perft(b, 3));
+    assertEquals(197281L, Perft.perft(b, 4));
+  }
+
+  @Test
+  @DisplayName("Test perft of kiwipete with castling, en passant and promotions.")
+  public void testKiwipete() {
+    var b = new Board(KIWIPETE);
+    assertEquals(48L, Perft.perft(b, 1));
+    assertEquals(2039L, Perft.perft(b, 2));
+    assertEquals(97862L, Perft.perft(b, 3));
+  }
+
+  @Test
+  @DisplayName("Test perft of an endgame with en passant pins.")
+  public void testPosition3() {
+    var b = new Board(POSITION_3);
+    assertEquals(14L, Perft.perft(b, 1));
+    assertEquals(191L, Perft.perft(b, 2));
+    assertEquals(2812L, Perft.perft(b, 3));
+    assertEquals(43238L, Perft.perft(b, 4));
+  }
+
+  @Test
+  @DisplayName("Test perft of a position with checks and underpromotions.")
+  public void testPosition4() {
+    var b = new Board(POSITION_4);
+    assertEquals(6L, Perft.perft(b, 1));
+    assertEquals(264L, Perft.perft(b, 2));
+    assertEquals(9467L, Perft.perft(b, 3));
+  }
+
+  @Test
+  @DisplayName("Test perft of a position with promotions giving check.")
+  public void testPosition5() {
+    var b = new Board(POSITION_5);
+    assertEquals(44L, Perft.perft(b, 1));
+    assertEquals(1486L, Perft.perft(b, 2));
+    assertEquals(62379L, Perft.perft(b, 3));
+  }
+
+  @Test
+  @DisplayName("Test perft of a middlegame position.")
+  public void testPosition6() {
+    var b = new Board(POSITION_6);
+    assertEquals(46L, Perft.perft(b, 1));
+    assertEquals(2079L, Perft.perft(b, 2));
+    assertEquals(89890L, Perft.perft(b, 3));
+  }
+}
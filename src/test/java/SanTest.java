@@ -0,0 +1,48 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import de.profschmergmann.Board;
+import de.profschmergmann.MoveList;
+import de.profschmergmann.Moves;
+import de.profschmergmann.San;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Class for testing the conversion between moves and the Standard Algebraic Notation.
+ */
+public class SanTest {
+
+  @Test
+  @DisplayName("Test if every legal move is parsed back from its SAN.")
+  public void testRoundTrip() {
+    for (var fen : new String[]{FENNotationTest.STARTING_FEN, PerftTest.KIWIPETE,
+        PerftTest.POSITION_3, PerftTest.POSITION_4, PerftTest.POSITION_5, PerftTest.POSITION_6}) {
+      var board = new Board(fen);
+      var list = new MoveList();
+      board.generateMoves(list);
+      for (var i = 0; i < list.size(); i++) {
+        var san = San.toString(board, list.get(i));
+        assertEquals(list.get(i), San.parse(board, san), fen + " " + san);
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("Test the SAN of disambiguated moves, promotions, castling and checks.")
+  public void testNotation() {
+    var board = new Board(PerftTest.KIWIPETE);
+    assertEquals("O-O-O", San.toString(board, San.parse(board, "0-0-0")));
+    assertEquals("Qxf6", San.toString(board, San.parse(board, "Qf3xf6")));
+    assertEquals("Nxf7", San.toString(board, San.parse(board, "Nxf7!?")));
+    var rooks = new Board("4k3/8/8/8/8/8/4K3/R6R w - - 0 1");
+    assertEquals("Rad1", San.toString(rooks, San.parse(rooks, "Rad1")));
+    assertEquals(Moves.NONE, San.parse(rooks, "Rd1"));
+    var promotion = new Board("3r3k/4P3/8/8/8/8/8/4K3 w - - 0 1");
+    assertEquals("exd8=N", San.toString(promotion, San.parse(promotion, "exd8N")));
+    assertEquals("e8=Q+", San.toString(promotion, San.parse(promotion, "e8=Q")));
+    var mate = new Board("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+    assertEquals("Ra8#", San.toString(mate, San.parse(mate, "Ra8")));
+    assertEquals(Moves.NONE, San.parse(mate, "Ra9"));
+    assertEquals(Moves.NONE, San.parse(mate, "Qa8"));
+  }
+}
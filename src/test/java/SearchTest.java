@@ -0,0 +1,162 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.profschmergmann.Board;
+import de.profschmergmann.Moves;
+import de.profschmergmann.search.LazySmpSearch;
+import de.profschmergmann.search.Search;
+import de.profschmergmann.players.Clock;
+import de.profschmergmann.players.ComputerPlayer;
+import de.profschmergmann.search.TranspositionTable;
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Class for testing the alpha-beta search.
+ */
+public class SearchTest {
+
+  private static String bestMove(String fen, int depth) {
+    var board = new Board(fen);
+    var result = new Search(board, new TranspositionTable(16)).search(depth, 0, null);
+    return Moves.toString(result.bestMove());
+  }
+
+  @Test
+  @DisplayName("Test if the search finds a back rank mate.")
+  public void testMateInOne() {
+    assertEquals("a1a8", bestMove("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1", 3));
+  }
+
+  @Test
+  @DisplayName("Test if the search finds a mate in two.")
+  public void testMateInTwo() {
+    var board = new Board("r1b1kb1r/pppp1ppp/5q2/4n3/3KP3/2N3PN/PPP4P/R1BQ1B1R b kq - 0 1");
+    var result = new Search(board, new TranspositionTable(16)).search(6, 0, null);
+    assertTrue(result.isMate(), "No mate found: " + result);
+    assertEquals("f8c5", Moves.toString(result.bestMove()));
+  }
+
+  @Test
+  @DisplayName("Test if the search wins a hanging queen.")
+  public void testWinsMaterial() {
+    assertEquals("e4d5", bestMove("rnb1kbnr/ppp1pppp/8/3q4/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 0 3",
+        4));
+  }
+
+  @Test
+  @DisplayName("Test if the quiescence search sees that a defended pawn costs the queen.")
+  public void testQuiescence() {
+    var board = new Board("4k3/8/4p3/3p4/8/8/8/3QK3 w - - 0 1");
+    var result = new Search(board, new TranspositionTable(16)).search(1, 0, null);
+    assertTrue(result.bestMove() != board.findMove(3, 35, null), "Queen takes the pawn!");
+  }
+
+  @Test
+  @DisplayName("Test if the quiescence search keeps the node count bounded in a sharp position.")
+  public void testQuiescenceNodes() {
+    var result = new Search(new Board(PerftTest.KIWIPETE), new TranspositionTable(16))
+        .search(5, 0, null);
+    assertTrue(result.nodes() < 1_000_000, "Too many nodes: " + result);
+  }
+
+  @Test
+  @DisplayName("Test if the search leaves the board unchanged.")
+  public void testBoardUnchanged() {
+    var board = new Board(PerftTest.KIWIPETE);
+    var key = board.getZobristKey();
+    new Search(board, new TranspositionTable(16)).search(4, 0, null);
+    assertEquals(key, board.getZobristKey());
+    assertEquals(0, board.getUndoSize());
+  }
+
+  @Test
+  @DisplayName("Test if a stopped search returns a move quickly.")
+  public void testStop() throws Exception {
+    var search = new Search(new Board(PerftTest.KIWIPETE), new TranspositionTable(16));
+    var executor = Executors.newSingleThreadScheduledExecutor();
+    executor.schedule(search::stop, 200, TimeUnit.MILLISECONDS);
+    var start = System.nanoTime();
+    var result = search.search(Search.MAX_PLY, 0, null);
+    executor.shutdown();
+    assertTrue((System.nanoTime() - start) / 1_000_000 < 1000, "Search did not stop in time!");
+    assertTrue(result.bestMove() != Moves.NONE);
+  }
+
+  @Test
+  @DisplayName("Test if the multi-threaded search finds a mate and leaves the board unchanged.")
+  public void testLazySmp() {
+    var board = new Board("r1b1kb1r/pppp1ppp/5q2/4n3/3KP3/2N3PN/PPP4P/R1BQ1B1R b kq - 0 1");
+    var key = board.getZobristKey();
+    try (var search = new LazySmpSearch(new TranspositionTable(16), 4)) {
+      var result = search.search(board, 6, 0, null);
+      assertTrue(result.isMate(), "No mate found: " + result);
+      assertEquals("f8c5", Moves.toString(result.bestMove()));
+    }
+    assertEquals(key, board.getZobristKey());
+    assertEquals(0, board.getUndoSize());
+  }
+
+  @Test
+  @DisplayName("Test if helpers which would skip the only depth do not fail.")
+  public void testLazySmpDepthOne() {
+    var failures = new ArrayList<LogRecord>();
+    var handler = new Handler() {
+      @Override
+      public void publish(LogRecord record) {
+        if (record.getLevel() == Level.SEVERE) {
+          failures.add(record);
+        }
+      }
+
+      @Override
+      public void flush() {
+      }
+
+      @Override
+      public void close() {
+      }
+    };
+    var logger = Logger.getLogger(LazySmpSearch.class.getName());
+    logger.addHandler(handler);
+    try (var search = new LazySmpSearch(new TranspositionTable(16), 2)) {
+      for (var i = 0; i < 10; i++) {
+        var result = search.search(new Board(), 1, 0, null);
+        assertTrue(result.bestMove() != Moves.NONE);
+        assertEquals(1, result.depth());
+      }
+    } finally {
+      logger.removeHandler(handler);
+    }
+    assertTrue(failures.isEmpty(), "Helper failed: " + failures);
+  }
+
+  @Test
+  @DisplayName("Test if short multi-threaded searches always stop their helpers.")
+  public void testLazySmpShortSearches() throws Exception {
+    // the only legal move stops the main search after its first iteration, which used to race
+    // with the start of the helpers
+    var fen = "rnk1r3/4b3/1pbpp3/p1P2ppP/2P1P3/1P3P1P/P2q4/1R1K1QNR w - - 1 28";
+    var player = new ComputerPlayer(128, 1000, 16, 4);
+    var executor = Executors.newSingleThreadExecutor();
+    try {
+      var moves = executor.submit(() -> {
+        for (var i = 0; i < 20; i++) {
+          var move = player.makeMove(new Board(fen), new Clock(60_000, 0, 0));
+          assertEquals("d1d2", Moves.toString(new Board(fen).findMove(move.start().square(),
+              move.end().square(), move.promotion())));
+        }
+      });
+      moves.get(60, TimeUnit.SECONDS);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,67 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.profschmergmann.tools.SelfPlay;
+import de.profschmergmann.tools.SelfPlay.Engine;
+import de.profschmergmann.tools.Sprt;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Class for testing the self-play tournament runner.
+ */
+public class SelfPlayTest {
+
+  @Test
+  @DisplayName("Test parsing engine configurations and openings.")
+  public void testParse() throws IOException {
+    var engine = Engine.parse("new", "depth=6,time=50,hash=8,bitbases");
+    assertEquals(new Engine("new", 6, 50, 8, true), engine);
+    assertThrows(IllegalArgumentException.class, () -> Engine.parse("old", "depth=6,threads=2"));
+    var file = Files.createTempFile("openings", ".epd");
+    try {
+      Files.write(file, List.of("# openings", "", "4k3/8/8/8/8/8/8/R3K3 w - - 0 1", "invalid"));
+      var e = assertThrows(IllegalArgumentException.class, () -> SelfPlay.loadOpenings(file));
+      assertTrue(e.getMessage().startsWith("Line 4: "), e.getMessage());
+      Files.write(file, List.of("# openings", "4k3/8/8/8/8/8/8/R3K3 w - - 0 1"));
+      assertEquals(List.of("4k3/8/8/8/8/8/8/R3K3 w - - 0 1"), SelfPlay.loadOpenings(file));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  @DisplayName("Test if a match plays every opening with both colors and logs every game.")
+  public void testRun() throws IOException, InterruptedException {
+    // the rook mates the lone king, so the engine with the rook wins every game
+    var match = new SelfPlay(Engine.parse("a", "depth=3,time=0"),
+        Engine.parse("b", "depth=3,time=0"),
+        List.of("4k3/8/8/8/8/8/8/R3K3 w - - 0 1", "4k3/8/8/8/8/8/8/4K3 w - - 0 1"), 2);
+    match.setMaxPlies(20);
+    var log = new StringWriter();
+    var report = match.run(4, log, null);
+    assertEquals(4, report.games());
+    var lines = log.toString().lines().toList();
+    assertEquals(4, lines.size());
+    assertTrue(lines.stream().anyMatch(line -> line.matches("\\d 2 [ab] [ab] 1/2-1/2 1 material")),
+        log.toString());
+    assertTrue(report.gamesPerHour() > 0);
+  }
+
+  @Test
+  @DisplayName("Test if a match without a decision plays all games.")
+  public void testSprt() throws IOException, InterruptedException {
+    var match = new SelfPlay(Engine.parse("a", "depth=1,time=0"),
+        Engine.parse("b", "depth=1,time=0"), List.of("4k3/8/8/8/8/8/8/4K3 w - - 0 1"), 1);
+    // only draws never give a decision, so all games are played
+    match.setSprt(new Sprt(0, 10, 0.05, 0.05));
+    var report = match.run(6, new StringWriter(), null);
+    assertEquals(6, report.draws());
+    assertEquals(Sprt.Decision.CONTINUE, report.decision());
+  }
+}
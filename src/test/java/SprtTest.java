@@ -0,0 +1,43 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.profschmergmann.tools.Sprt;
+import de.profschmergmann.tools.Sprt.Decision;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Class for testing the sequential probability ratio test.
+ */
+public class SprtTest {
+
+  @Test
+  @DisplayName("Test the bounds and the conversion between Elo and score.")
+  public void testBounds() {
+    var sprt = new Sprt(0, 5, 0.05, 0.05);
+    assertEquals(-2.944, sprt.getLowerBound(), 1e-3);
+    assertEquals(2.944, sprt.getUpperBound(), 1e-3);
+    assertEquals(0.5, Sprt.expectedScore(0), 1e-9);
+    assertEquals(0.64, Sprt.expectedScore(100), 1e-2);
+    assertEquals(100, Sprt.elo(Sprt.expectedScore(100)), 1e-9);
+    assertThrows(IllegalArgumentException.class, () -> new Sprt(5, 0, 0.05, 0.05));
+    assertThrows(IllegalArgumentException.class, () -> new Sprt(0, 5, 0, 0.05));
+  }
+
+  @Test
+  @DisplayName("Test the log-likelihood ratio and the decisions.")
+  public void testDecide() {
+    var sprt = new Sprt(0, 10, 0.05, 0.05);
+    assertEquals(0.0, sprt.llr(0, 0, 0));
+    assertTrue(sprt.llr(0, 10, 0) < 0);
+    assertEquals(Decision.H1, new Sprt(0, 100, 0.05, 0.05).decide(10, 0, 0));
+    assertTrue(sprt.llr(60, 20, 40) > 0);
+    assertTrue(sprt.llr(40, 20, 60) < 0);
+    assertEquals(Decision.CONTINUE, sprt.decide(6, 2, 4));
+    assertEquals(Decision.H1, sprt.decide(600, 200, 400));
+    assertEquals(Decision.H0, sprt.decide(400, 200, 600));
+    // equal strength accepts H0 after enough games
+    assertEquals(Decision.H0, sprt.decide(2000, 2000, 2000));
+  }
+}
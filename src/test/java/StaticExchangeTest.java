@@ -0,0 +1,67 @@
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.profschmergmann.Bitboards;
+import de.profschmergmann.Board;
+import de.profschmergmann.Moves;
+import de.profschmergmann.search.StaticExchange;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Class for testing the static exchange evaluation.
+ */
+public class StaticExchangeTest {
+
+  private static int move(Board board, String uci) {
+    var move = board.findMove(Bitboards.square(uci.charAt(0), uci.charAt(1) - '0'),
+        Bitboards.square(uci.charAt(2), uci.charAt(3) - '0'), null);
+    assertTrue(move != Moves.NONE, "Move not found: " + uci);
+    return move;
+  }
+
+  @Test
+  @DisplayName("Test if capturing an undefended pawn gains exactly a pawn.")
+  public void testUndefended() {
+    var board = new Board("1k1r4/1pp4p/p7/4p3/8/P5P1/1PP4P/2K1R3 w - - 0 1");
+    var move = move(board, "e1e5");
+    assertTrue(StaticExchange.isAtLeast(board, move, 0));
+    assertTrue(StaticExchange.isAtLeast(board, move, 100));
+    assertFalse(StaticExchange.isAtLeast(board, move, 101));
+  }
+
+  @Test
+  @DisplayName("Test if capturing a pawn defended by a knight with a knight loses material.")
+  public void testLosingCapture() {
+    var board = new Board("1k1r3q/1ppn3p/p4b2/4p3/8/P2N2P1/1PP1R1BP/2K1Q3 w - - 0 1");
+    assertFalse(StaticExchange.isAtLeast(board, move(board, "d3e5"), 0));
+  }
+
+  @Test
+  @DisplayName("Test if a pawn capturing a defended knight wins material.")
+  public void testWinningCapture() {
+    var board = new Board("4k3/8/2p5/3n4/4P3/8/8/4K3 w - - 0 1");
+    var move = move(board, "e4d5");
+    assertTrue(StaticExchange.isAtLeast(board, move, 220));
+    assertFalse(StaticExchange.isAtLeast(board, move, 221));
+  }
+
+  @Test
+  @DisplayName("Test if a piece behind the attacker takes part in the exchange.")
+  public void testXRay() {
+    var backed = new Board("4k3/3r4/8/3p4/8/8/3R4/3QK3 w - - 0 1");
+    assertTrue(StaticExchange.isAtLeast(backed, move(backed, "d2d5"), 0));
+    var alone = new Board("4k3/3r4/8/3p4/8/8/3R4/4K3 w - - 0 1");
+    assertFalse(StaticExchange.isAtLeast(alone, move(alone, "d2d5"), 0));
+  }
+
+  @Test
+  @DisplayName("Test if the king only recaptures on undefended squares.")
+  public void testKingRecapture() {
+    var defended = new Board("8/8/8/4k3/3p4/4P3/8/B3K3 w - - 0 1");
+    assertTrue(StaticExchange.isAtLeast(defended, move(defended, "e3d4"), 100));
+    var undefended = new Board("8/8/8/4k3/3p4/4P3/8/4K3 w - - 0 1");
+    assertTrue(StaticExchange.isAtLeast(undefended, move(undefended, "e3d4"), 0));
+    assertFalse(StaticExchange.isAtLeast(undefended, move(undefended, "e3d4"), 1));
+  }
+}
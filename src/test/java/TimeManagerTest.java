@@ -0,0 +1,119 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.profschmergmann.Game;
+import de.profschmergmann.Game.Result;
+import de.profschmergmann.pieces.Piece.PieceColor;
+import de.profschmergmann.players.ComputerPlayer;
+import de.profschmergmann.players.Player;
+import de.profschmergmann.search.Search;
+import de.profschmergmann.search.SearchResult;
+import de.profschmergmann.search.TimeManager;
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Class for testing the time management of clocked searches.
+ */
+public class TimeManagerTest {
+
+  private static SearchResult iteration(int depth, int bestMove, int score, long millis) {
+    return new SearchResult(bestMove, score, depth, 0, millis, new int[]{bestMove});
+  }
+
+  @Test
+  @DisplayName("Test if the limits stay within the remaining time.")
+  public void testLimits() {
+    var suddenDeath = TimeManager.forClock(60_000, 0, 0);
+    assertTrue(suddenDeath.getSoftLimit() <= suddenDeath.getHardLimit());
+    assertTrue(suddenDeath.getHardLimit() <= 30_000);
+    var lastMove = TimeManager.forClock(1000, 0, 1);
+    assertTrue(lastMove.getSoftLimit() > suddenDeath.getSoftLimit() / 100);
+    assertTrue(lastMove.getHardLimit() < 1000 - TimeManager.MOVE_OVERHEAD);
+    var increment = TimeManager.forClock(1000, 5000, 0);
+    assertTrue(increment.getSoftLimit() > TimeManager.forClock(1000, 0, 0).getSoftLimit());
+    assertTrue(increment.getHardLimit() <= 500);
+    var almostFlagged = TimeManager.forClock(10, 0, 0);
+    assertTrue(almostFlagged.getHardLimit() >= 1 && almostFlagged.getHardLimit() < 10);
+  }
+
+  @Test
+  @DisplayName("Test if a stable best move stops the search before an unstable one.")
+  public void testStability() {
+    var stable = TimeManager.forClock(60_000, 0, 0);
+    var unstable = TimeManager.forClock(60_000, 0, 0);
+    var soft = stable.getSoftLimit();
+    var stableStop = 0;
+    var unstableStop = 0;
+    for (var depth = 1; depth <= 40; depth++) {
+      var millis = soft * depth / 10;
+      if (stableStop == 0 && stable.shouldStop(iteration(depth, 1, 20, millis))) {
+        stableStop = depth;
+      }
+      if (unstableStop == 0 && unstable.shouldStop(iteration(depth, depth, 20, millis))) {
+        unstableStop = depth;
+      }
+    }
+    assertTrue(stableStop > 0 && stableStop < 10, "Stable search stopped at " + stableStop);
+    assertTrue(unstableStop > 10, "Unstable search stopped at " + unstableStop);
+  }
+
+  @Test
+  @DisplayName("Test if a fixed time per move never stops the search early.")
+  public void testFixed() {
+    var fixed = TimeManager.fixed(100);
+    assertEquals(100, fixed.getHardLimit());
+    assertFalse(fixed.isAdaptive());
+    for (var depth = 1; depth <= 10; depth++) {
+      assertFalse(fixed.shouldStop(iteration(depth, 1, 0, 99)));
+    }
+  }
+
+  @Test
+  @DisplayName("Test if no game is lost on time while other games use the CPU.")
+  public void testNoTimeLossUnderLoad() throws Exception {
+    var cores = Runtime.getRuntime().availableProcessors();
+    var games = Math.max(4, 2 * cores);
+    var executor = Executors.newFixedThreadPool(games + cores);
+    var running = new AtomicBoolean(true);
+    for (var i = 0; i < cores; i++) {
+      executor.submit(() -> {
+        var x = 0L;
+        while (running.get()) {
+          x = x * 6364136223846793005L + 1442695040888963407L;
+        }
+        return x;
+      });
+    }
+    var futures = new ArrayList<Future<Game>>();
+    for (var i = 0; i < games; i++) {
+      futures.add(executor.submit(() -> {
+        var game = new Game(new Player(PieceColor.W, new ComputerPlayer(Search.MAX_PLY, 0, 4)),
+            new Player(PieceColor.B, new ComputerPlayer(Search.MAX_PLY, 0, 4)), null);
+        game.setTimeControl(1500, 10);
+        for (var ply = 0; ply < 40 && game.playNextMove(); ply++) {
+          // the clocks are checked by the game
+        }
+        return game;
+      }));
+    }
+    try {
+      for (var future : futures) {
+        var game = future.get();
+        // the game may end on the board, but never on time
+        assertTrue(game.getResult() == null || game.getResult() == Result.DRAW
+            || game.isCheckmated(), "Game lost on time: " + game.getCurrentGameAsFENRecord());
+        assertTrue(game.getRemainingTime(PieceColor.W) > 0);
+        assertTrue(game.getRemainingTime(PieceColor.B) > 0);
+      }
+    } finally {
+      running.set(false);
+      executor.shutdown();
+    }
+  }
+}
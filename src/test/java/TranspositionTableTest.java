@@ -0,0 +1,71 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.profschmergmann.search.TranspositionTable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Class for testing the lock-free transposition table.
+ */
+public class TranspositionTableTest {
+
+  @Test
+  @DisplayName("Test if stored entries are found with all their data.")
+  public void testStoreAndProbe() {
+    var tt = new TranspositionTable(1);
+    assertEquals(TranspositionTable.NO_ENTRY, tt.probe(42L));
+    tt.store(42L, 0x1234, -517, 9, TranspositionTable.LOWER_BOUND);
+    var data = tt.probe(42L);
+    assertEquals(0x1234, TranspositionTable.move(data));
+    assertEquals(-517, TranspositionTable.score(data));
+    assertEquals(9, TranspositionTable.depth(data));
+    assertEquals(TranspositionTable.LOWER_BOUND, TranspositionTable.bound(data));
+    var statistics = tt.getStatistics();
+    assertEquals(2, statistics.probes());
+    assertEquals(1, statistics.hits());
+    assertEquals(1, statistics.stores());
+  }
+
+  @Test
+  @DisplayName("Test if entries of old searches are replaced first.")
+  public void testAgeBasedReplacement() {
+    var tt = new TranspositionTable(1);
+    // all keys map to the same bucket, because only the upper half of the key is used
+    for (var i = 1; i <= 4; i++) {
+      tt.store(i, i, 0, 4, TranspositionTable.EXACT);
+    }
+    tt.newSearch();
+    tt.store(5L, 5, 0, 1, TranspositionTable.EXACT);
+    tt.store(6L, 6, 0, 1, TranspositionTable.EXACT);
+    assertEquals(2, IntStream.rangeClosed(1, 4)
+        .filter(i -> tt.probe(i) != TranspositionTable.NO_ENTRY).count());
+    assertEquals(5, TranspositionTable.move(tt.probe(5L)));
+    assertEquals(6, TranspositionTable.move(tt.probe(6L)));
+    assertEquals(2, tt.getStatistics().overwrites());
+  }
+
+  @Test
+  @DisplayName("Test if concurrent writers never produce a corrupted entry.")
+  public void testConcurrentAccess() {
+    var tt = new TranspositionTable(1);
+    var corrupted = new AtomicLong();
+    IntStream.range(0, 8).parallel().forEach(thread -> {
+      for (var i = 0; i < 200_000; i++) {
+        // few keys, so the threads write the same entries all the time
+        var key = (long) (i % 64) << 32 | thread;
+        var expected = (int) (key % 30000);
+        tt.store(key, expected, expected, thread, TranspositionTable.EXACT);
+        var data = tt.probe(key ^ 1);
+        if (data != TranspositionTable.NO_ENTRY
+            && TranspositionTable.score(data) != (int) ((key ^ 1) % 30000)) {
+          corrupted.incrementAndGet();
+        }
+      }
+    });
+    assertEquals(0L, corrupted.get());
+    assertTrue(tt.getStatistics().hits() > 0);
+  }
+}
@@ -0,0 +1,102 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import de.profschmergmann.Board;
+import de.profschmergmann.MoveList;
+import de.profschmergmann.Position;
+import de.profschmergmann.San;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Class for testing the incrementally updated Zobrist key of the board.
+ */
+public class ZobristTest {
+
+  @Test
+  @DisplayName("Test if the incremental key matches a full recomputation.")
+  public void testIncrementalKeyMatchesRecomputation() {
+    var random = new Random(7);
+    var list = new MoveList();
+    for (var fen : new String[]{FENNotationTest.STARTING_FEN, PerftTest.KIWIPETE,
+        PerftTest.POSITION_3, PerftTest.POSITION_4, PerftTest.POSITION_5}) {
+      var board = new Board(fen);
+      var keys = new long[150];
+      var plies = 0;
+      board.generateMoves(list);
+      while (plies < keys.length && !list.isEmpty()) {
+        keys[plies++] = board.getZobristKey();
+        board.makeMove(list.get(random.nextInt(list.size())));
+        assertEquals(board.computeZobristKey(), board.getZobristKey(),
+            "Incremental key differs after a move!");
+        board.generateMoves(list);
+      }
+      while (plies > 0) {
+        board.unmakeMove();
+        assertEquals(keys[--plies], board.getZobristKey(), "Key differs after unmaking a move!");
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("Test if transpositions get the same key.")
+  public void testTranspositionsGetSameKey() {
+    var b1 = new Board();
+    b1.move(new Position('g', 1), new Position('f', 3));
+    b1.move(new Position('g', 8), new Position('f', 6));
+    b1.move(new Position('f', 3), new Position('g', 1));
+    b1.move(new Position('f', 6), new Position('g', 8));
+    assertEquals(new Board().getZobristKey(), b1.getZobristKey());
+
+    var b2 = new Board();
+    b2.move(new Position('e', 2), new Position('e', 4));
+    b2.move(new Position('e', 7), new Position('e', 5));
+    b2.move(new Position('d', 2), new Position('d', 4));
+    var b3 = new Board();
+    b3.move(new Position('d', 2), new Position('d', 4));
+    b3.move(new Position('e', 7), new Position('e', 5));
+    b3.move(new Position('e', 2), new Position('e', 4));
+    // the en passant square of the last move cannot be used, so it is not part of the key
+    assertEquals(b2.getZobristKey(), b3.getZobristKey());
+    assertEquals(new Board("rnbqkbnr/pppp1ppp/8/4p3/3PP3/8/PPP2PPP/RNBQKBNR b KQkq - 0 2")
+        .getZobristKey(), b2.getZobristKey());
+  }
+
+  @Test
+  @DisplayName("Test if side to move, castling and en passant change the key.")
+  public void testStateChangesKey() {
+    var fen = "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3";
+    var key = new Board(fen).getZobristKey();
+    assertNotEquals(key, new Board(fen.replace(" w ", " b ")).getZobristKey());
+    assertNotEquals(key, new Board(fen.replace("KQkq", "Qkq")).getZobristKey());
+    assertNotEquals(key, new Board(fen.replace("f6", "-")).getZobristKey());
+    var board = new Board(fen);
+    board.setWhiteCanCastleKingSide(false);
+    assertEquals(new Board(fen.replace("KQkq", "Qkq")).getZobristKey(), board.getZobristKey());
+  }
+
+  @Test
+  @DisplayName("Test if the Polyglot keys match the reference keys of the format.")
+  public void testPolyglotKeys() {
+    // the keys after the moves of the examples of the book format description
+    var lines = new String[][]{{"", "463b96181691fc9c"}, {"e4", "823c9b50fd114196"},
+        {"e4 d5", "0756b94461c50fb0"}, {"e4 d5 e5", "662fafb965db29d4"},
+        {"e4 d5 e5 f5", "22a48b5a8e47ff78"}, {"e4 d5 e5 f5 Ke2", "652a607ca3f242c1"},
+        {"e4 d5 e5 f5 Ke2 Kf7", "00fdd303c946bdd9"}, {"a4 b5 h4 b4 c4", "3c8123ea7b067637"},
+        {"a4 b5 h4 b4 c4 bxc3 Ra3", "5c3f9b829b279560"}};
+    for (var line : lines) {
+      var board = new Board();
+      for (var san : line[0].split(" ")) {
+        if (!san.isEmpty()) {
+          board.makeMove(San.parse(board, san));
+        }
+      }
+      assertEquals(Long.parseUnsignedLong(line[1], 16), board.computePolyglotKey(), line[0]);
+    }
+    // the en passant file only counts if a pawn can capture
+    var fen = "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1";
+    assertEquals(new Board(fen).computePolyglotKey(),
+        new Board(fen.replace("e3", "-")).computePolyglotKey());
+  }
+}